@@ -0,0 +1,49 @@
+package com.shodh.contest.config;
+
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.service.AnalyticsAggregator;
+import com.shodh.contest.service.LeaderboardService;
+import com.shodh.contest.service.ScoringEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * With judge workers the verdicts are produced in another process, so this
+ * instance follows them on the verdict channel to keep its score matrices
+ * and contest analytics current.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shodh.judge.dispatch", havingValue = "workers")
+public class ScoringConfig {
+    
+    @Bean
+    public RedisMessageListenerContainer verdictListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                  ScoringEngine scoringEngine,
+                                                                  AnalyticsAggregator analyticsAggregator,
+                                                                  LeaderboardService leaderboardService) {
+        RedisSerializer<Object> serializer = RedisConfig.valueSerializer();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            if (!(serializer.deserialize(message.getBody()) instanceof VerdictEvent verdict)) {
+                log.warn("Ignoring unreadable message on {}", ScoringEngine.VERDICT_CHANNEL);
+                return;
+            }
+            scoringEngine.apply(verdict);
+            analyticsAggregator.apply(verdict);
+            // The worker evicted before this instance applied the verdict
+            if (verdict.status() == SubmissionStatus.ACCEPTED) {
+                leaderboardService.evict(verdict.contestId());
+            }
+        }, new ChannelTopic(ScoringEngine.VERDICT_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,287 @@
+package com.shodh.contest.controller;
+
+import com.shodh.contest.dto.*;
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.service.AnalyticsAggregator;
+import com.shodh.contest.service.ContestService;
+import com.shodh.contest.service.JudgeDispatcher;
+import com.shodh.contest.service.LeaderboardHistory;
+import com.shodh.contest.service.LeaderboardService;
+import com.shodh.contest.service.RenderedResponseCache;
+import com.shodh.contest.service.RejudgeService;
+import com.shodh.contest.service.RunService;
+import com.shodh.contest.service.SimilarityService;
+import com.shodh.contest.service.SubmissionHistoryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ContestController {
+    
+    private static final CacheControl CONTEST_CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic().mustRevalidate();
+    // Clients may keep the leaderboard and stats but must revalidate on every poll
+    private static final CacheControl LEADERBOARD_CACHE_CONTROL = CacheControl.noCache();
+    
+    private final ContestService contestService;
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardHistory leaderboardHistory;
+    private final SubmissionRepository submissionRepository;
+    private final JudgeDispatcher judgeDispatcher;
+    private final SubmissionHistoryService submissionHistoryService;
+    // Rarely used, so built on first use rather than at startup
+    private final ObjectProvider<RejudgeService> rejudgeService;
+    private final ObjectProvider<RunService> runService;
+    private final RenderedResponseCache renderedResponseCache;
+    private final ObjectProvider<SimilarityService> similarityService;
+    private final AnalyticsAggregator analyticsAggregator;
+    
+    @GetMapping("/contests/{contestId}")
+    public ResponseEntity<?> getContest(@PathVariable UUID contestId,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            // Contests are not edited while live; the render max age picks up seeding changes
+            RenderedResponseCache.Rendered contest = renderedResponseCache.get(
+                "contest:" + contestId, 0, () -> contestService.getContestWithProblems(contestId));
+            return rendered(contest, CONTEST_CACHE_CONTROL, acceptEncoding);
+        } catch (Exception e) {
+            log.error("Error fetching contest", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/submissions")
+    public ResponseEntity<?> submitCode(@Valid @RequestBody SubmissionRequest request) {
+        try {
+            // Create submission
+            Submission submission = new Submission();
+            submission.setCode(request.getCode());
+            submission.setLanguage(request.getLanguage());
+            submission.setUsername(request.getUsername());
+            submission.setProblemId(request.getProblemId());
+            submission.setContestId(request.getContestId());
+            submission.setSubmittedAt(LocalDateTime.now());
+            
+            submission = submissionRepository.save(submission);
+            
+            // Judge asynchronously, here or on a judge worker
+            judgeDispatcher.dispatch(submission.getId(), submission.getLanguage());
+            
+            return ResponseEntity.ok(Map.of(
+                "submissionId", submission.getId(),
+                "message", "Submission queued for processing"
+            ));
+        } catch (Exception e) {
+            log.error("Error submitting code", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/run")
+    public ResponseEntity<?> runCode(@Valid @RequestBody RunRequest request) {
+        try {
+            List<RunResult> results = runService.getObject().run(request);
+            return ResponseEntity.ok(results);
+        } catch (RunService.LaneBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of("error", e.getMessage()));
+        } catch (RunService.InputTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error running code", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/submissions/{submissionId}")
+    public ResponseEntity<?> getSubmissionStatus(@PathVariable UUID submissionId) {
+        try {
+            SubmissionResponse response = submissionHistoryService.findSubmission(submissionId)
+                .orElseThrow(() -> new RuntimeException("Submission not found"));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error fetching submission status", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/submissions/{submissionId}/timeline")
+    public ResponseEntity<?> getSubmissionTimeline(@PathVariable UUID submissionId) {
+        try {
+            List<TimelineEvent> timeline = submissionHistoryService.findTimeline(submissionId)
+                .orElseThrow(() -> new RuntimeException("Submission not found"));
+            
+            return ResponseEntity.ok(timeline);
+        } catch (Exception e) {
+            log.error("Error fetching submission timeline", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/contests/{contestId}/leaderboard")
+    public ResponseEntity<?> getLeaderboard(@PathVariable UUID contestId,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            RenderedResponseCache.Rendered leaderboard = renderedResponseCache.get(
+                "leaderboard:" + contestId,
+                leaderboardService.version(contestId),
+                () -> leaderboardService.getLeaderboard(contestId));
+            return rendered(leaderboard, LEADERBOARD_CACHE_CONTROL, acceptEncoding);
+        } catch (Exception e) {
+            log.error("Error fetching leaderboard", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/contests/{contestId}/leaderboard/history")
+    public ResponseEntity<?> getLeaderboardAt(@PathVariable UUID contestId,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            List<LeaderboardEntry> leaderboard = leaderboardHistory.standingsAt(contestId, at);
+            return ResponseEntity.ok(leaderboard);
+        } catch (Exception e) {
+            log.error("Error fetching leaderboard history", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/contests/{contestId}/stats")
+    public ResponseEntity<?> getContestStats(@PathVariable UUID contestId,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            RenderedResponseCache.Rendered stats = renderedResponseCache.get(
+                "stats:" + contestId,
+                analyticsAggregator.version(contestId),
+                () -> analyticsAggregator.stats(contestId));
+            return rendered(stats, LEADERBOARD_CACHE_CONTROL, acceptEncoding);
+        } catch (Exception e) {
+            log.error("Error fetching contest stats", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/contests/{contestId}/users/{username}/submissions")
+    public ResponseEntity<?> getSubmissionHistory(@PathVariable UUID contestId,
+                                                  @PathVariable String username,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            SubmissionHistoryPage page = submissionHistoryService.getHistory(contestId, username, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            log.error("Error fetching submission history", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/problems/{problemId}/similarity")
+    public ResponseEntity<?> getSimilarityClusters(@PathVariable UUID problemId,
+                                                   @RequestParam(required = false) Double threshold) {
+        try {
+            List<SimilarityCluster> clusters = similarityService.getObject().findClusters(problemId, threshold);
+            return ResponseEntity.ok(clusters);
+        } catch (Exception e) {
+            log.error("Error finding similar submissions", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/problems/{problemId}/rejudge")
+    public ResponseEntity<?> rejudgeProblem(@PathVariable UUID problemId) {
+        try {
+            int queued = rejudgeService.getObject().rejudgeProblem(problemId);
+            return ResponseEntity.accepted().body(Map.of(
+                "queued", queued,
+                "message", "Rejudge queued"
+            ));
+        } catch (Exception e) {
+            log.error("Error queueing rejudge", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/contests/{contestId}/rejudge")
+    public ResponseEntity<?> rejudgeContest(@PathVariable UUID contestId) {
+        try {
+            int queued = rejudgeService.getObject().rejudgeContest(contestId);
+            return ResponseEntity.accepted().body(Map.of(
+                "queued", queued,
+                "message", "Rejudge queued"
+            ));
+        } catch (Exception e) {
+            log.error("Error queueing rejudge", e);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Sends a pre-rendered body, gzipped when the client accepts it. Spring
+     * answers 304 without a body when If-None-Match matches the ETag, which
+     * is suffixed per encoding since the two bodies differ byte for byte.
+     */
+    private static ResponseEntity<byte[]> rendered(RenderedResponseCache.Rendered rendered,
+                                                   CacheControl cacheControl,
+                                                   String acceptEncoding) {
+        boolean gzip = rendered.gzip() != null && acceptsGzip(acceptEncoding);
+        String etag = rendered.etag();
+        if (gzip) {
+            etag = etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.gzip());
+        }
+        return response.body(rendered.identity());
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").equalsIgnoreCase("q=0");
+            }
+        }
+        return false;
+    }
+}
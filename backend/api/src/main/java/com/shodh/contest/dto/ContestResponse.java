@@ -1,5 +1,6 @@
 package com.shodh.contest.dto;
 
+import com.shodh.contest.enums.ScoringMode;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -13,5 +14,9 @@ public class ContestResponse {
     private String description;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+    private LocalDateTime freezeTime; // Public standings stop here until unfreezeTime
+    private LocalDateTime unfreezeTime;
+    private ScoringMode scoringMode;
+    private Integer penaltyMinutes;
     private List<ProblemDTO> problems;
 }
@@ -1,5 +1,6 @@
 package com.shodh.contest.dto;
 
+import com.shodh.contest.enums.CheckerType;
 import com.shodh.contest.enums.Difficulty;
 import lombok.Data;
 
@@ -15,5 +16,7 @@ public class ProblemDTO {
     private Integer timeLimit;
     private Integer memoryLimit;
     private Integer points;
+    private CheckerType checkerType;
+    private Double checkerEpsilon;
     private List<TestCaseDTO> sampleTestCases;
 }
@@ -0,0 +1,24 @@
+package com.shodh.contest.dto;
+
+import com.shodh.contest.enums.Language;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class RunRequest {
+    
+    @NotBlank(message = "Code cannot be blank")
+    private String code;
+    
+    @NotNull(message = "Language is required")
+    private Language language;
+    
+    @NotNull(message = "Problem ID is required")
+    private UUID problemId;
+    
+    // When set, the code runs on this input instead of the sample test cases
+    private String customInput;
+}
@@ -0,0 +1,14 @@
+package com.shodh.contest.dto;
+
+import lombok.Data;
+
+@Data
+public class RunResult {
+    private String input;
+    private String expectedOutput; // null for custom input
+    private String actualOutput;
+    private String resultType; // SUCCESS, TLE, RUNTIME_ERROR, COMPILATION_ERROR, SYSTEM_ERROR
+    private Boolean passed; // null for custom input
+    private Integer executionTime;
+    private String error;
+}
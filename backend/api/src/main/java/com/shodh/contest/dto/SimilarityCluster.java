@@ -0,0 +1,26 @@
+package com.shodh.contest.dto;
+
+import com.shodh.contest.enums.Language;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarityCluster {
+    private Double similarity; // Highest estimated similarity between two of its submissions
+    private List<Member> submissions;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Member {
+        private UUID submissionId;
+        private String username;
+        private Language language;
+    }
+}
@@ -0,0 +1,15 @@
+package com.shodh.contest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionHistoryPage {
+    private List<SubmissionResponse> submissions;
+    private String nextCursor; // null when there are no more pages
+}
@@ -1,5 +1,6 @@
 package com.shodh.contest.dto;
 
+import com.shodh.contest.enums.Language;
 import com.shodh.contest.enums.SubmissionStatus;
 import lombok.Data;
 
@@ -9,6 +10,8 @@ import java.util.UUID;
 @Data
 public class SubmissionResponse {
     private UUID id;
+    private UUID problemId;
+    private Language language;
     private SubmissionStatus status;
     private Integer executionTime;
     private Integer memoryUsed;
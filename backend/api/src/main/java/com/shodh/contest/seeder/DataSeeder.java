@@ -5,23 +5,54 @@ import com.shodh.contest.entity.Problem;
 import com.shodh.contest.entity.TestCase;
 import com.shodh.contest.enums.Difficulty;
 import com.shodh.contest.repository.ContestRepository;
-import lombok.RequiredArgsConstructor;
+import com.shodh.contest.util.ReadRouting;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
 
+/**
+ * Seeds a sample contest into an empty database. Deferred seeding runs on
+ * the task executor, so startup does not wait for it and the first requests
+ * may find no contest yet.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DataSeeder implements CommandLineRunner {
     
     private final ContestRepository contestRepository;
+    private final Executor taskExecutor;
+    private final boolean deferred;
+    
+    public DataSeeder(ContestRepository contestRepository,
+                      @Qualifier("taskExecutor") Executor taskExecutor,
+                      @Value("${shodh.seed.deferred:false}") boolean deferred) {
+        this.contestRepository = contestRepository;
+        this.taskExecutor = taskExecutor;
+        this.deferred = deferred;
+    }
     
     @Override
     public void run(String... args) {
-        if (contestRepository.count() > 0) {
+        if (!deferred) {
+            seed();
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                seed();
+            } catch (Exception e) {
+                log.error("Seeding the database failed", e);
+            }
+        });
+    }
+    
+    private void seed() {
+        if (ReadRouting.primary(contestRepository::count) > 0) {
             log.info("Database already seeded, skipping...");
             return;
         }
@@ -6,6 +6,7 @@ import com.shodh.contest.dto.TestCaseDTO;
 import com.shodh.contest.entity.Contest;
 import com.shodh.contest.entity.Problem;
 import com.shodh.contest.entity.TestCase;
+import com.shodh.contest.enums.CheckerType;
 import com.shodh.contest.repository.ContestRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,12 +29,20 @@ public class ContestService {
         Contest contest = contestRepository.findById(contestId)
             .orElseThrow(() -> new RuntimeException("Contest not found"));
         
+        return toContestResponse(contest);
+    }
+    
+    public ContestResponse toContestResponse(Contest contest) {
         ContestResponse response = new ContestResponse();
         response.setId(contest.getId());
         response.setName(contest.getName());
         response.setDescription(contest.getDescription());
         response.setStartTime(contest.getStartTime());
         response.setEndTime(contest.getEndTime());
+        response.setFreezeTime(contest.getFreezeTime());
+        response.setUnfreezeTime(contest.getUnfreezeTime());
+        response.setScoringMode(contest.getScoringMode());
+        response.setPenaltyMinutes(contest.getPenaltyMinutes());
         
         List<ProblemDTO> problemDTOs = contest.getProblems().stream()
             .map(this::convertToProblemDTO)
@@ -53,6 +62,10 @@ public class ContestService {
         dto.setTimeLimit(problem.getTimeLimit());
         dto.setMemoryLimit(problem.getMemoryLimit());
         dto.setPoints(problem.getPoints());
+        dto.setCheckerType(problem.getCheckerType());
+        if (problem.getCheckerType() == CheckerType.EPSILON) {
+            dto.setCheckerEpsilon(problem.getCheckerEpsilon());
+        }
         
         // Only include sample test cases
         List<TestCaseDTO> sampleTestCases = problem.getTestCases().stream()
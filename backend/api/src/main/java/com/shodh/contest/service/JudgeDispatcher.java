@@ -0,0 +1,76 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.WorkerHeartbeat;
+import com.shodh.contest.enums.Language;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Hands new submissions to a judge. In {@code local} mode they are judged in
+ * this process; in {@code workers} mode they are queued for the judge worker
+ * with the most spare capacity for the submission's language, or on the
+ * shared queue when every worker is busy.
+ */
+@Slf4j
+@Service
+public class JudgeDispatcher {
+    
+    // Claims held by this process in local mode; they are never reaped
+    private static final String LOCAL_JUDGE = "local";
+    
+    private final SubmissionProcessor submissionProcessor;
+    private final WorkerRegistry workerRegistry;
+    private final boolean useWorkers;
+    
+    public JudgeDispatcher(SubmissionProcessor submissionProcessor,
+                           WorkerRegistry workerRegistry,
+                           @Value("${shodh.judge.dispatch:local}") String mode) {
+        this.submissionProcessor = submissionProcessor;
+        this.workerRegistry = workerRegistry;
+        this.useWorkers = "workers".equalsIgnoreCase(mode);
+        log.info("Judging submissions {}", useWorkers ? "on judge workers" : "in process");
+    }
+    
+    public void dispatch(UUID submissionId, Language language) {
+        if (!useWorkers) {
+            submissionProcessor.processSubmission(submissionId, LOCAL_JUDGE);
+            return;
+        }
+        workerRegistry.enqueue(pickWorker(language), submissionId);
+    }
+    
+    /**
+     * Returns the worker with the most free slots left after its queue, or
+     * null when none supports the language or all are saturated.
+     */
+    private String pickWorker(Language language) {
+        String best = null;
+        long bestRoom = 0;
+        for (WorkerHeartbeat worker : workerRegistry.liveWorkers()) {
+            if (worker.getLanguages() == null || !worker.getLanguages().contains(language)) {
+                continue;
+            }
+            long room = worker.getFreeSlots() - workerRegistry.queueLength(worker.getWorkerId());
+            if (room > bestRoom) {
+                best = worker.getWorkerId();
+                bestRoom = room;
+            }
+        }
+        return best;
+    }
+    
+    @Scheduled(fixedDelayString = "${shodh.judge.workers.reap-interval-ms:15000}")
+    public void reapDeadWorkers() {
+        if (!useWorkers) {
+            return;
+        }
+        int requeued = workerRegistry.reapDeadWorkers();
+        if (requeued > 0) {
+            log.warn("Requeued {} submissions from dead judge workers", requeued);
+        }
+    }
+}
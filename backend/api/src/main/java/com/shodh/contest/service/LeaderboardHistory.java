@@ -0,0 +1,136 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.entity.Contest;
+import com.shodh.contest.entity.LeaderboardSnapshot;
+import com.shodh.contest.repository.ContestRepository;
+import com.shodh.contest.repository.LeaderboardSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshots the live standings of running contests at a fixed interval, and
+ * answers the standings at any past time. Every {@code keyframe-every}-th
+ * snapshot of a contest holds all totals and the others only the change
+ * since the one before, so a lookup decodes one keyframe and a bounded
+ * number of deltas. Unchanged standings are not snapshotted again.
+ *
+ * <p>Snapshots keep following the live standings during a freeze; lookups
+ * past the freeze time get the frozen standings until the contest unfreezes.
+ */
+@Slf4j
+@Service
+public class LeaderboardHistory {
+    
+    // Verdicts of the last submissions still arrive after the end
+    private static final Duration AFTER_END = Duration.ofMinutes(10);
+    
+    private final ContestRepository contestRepository;
+    private final LeaderboardSnapshotRepository snapshotRepository;
+    private final ScoringEngine scoringEngine;
+    private final LeaderboardService leaderboardService;
+    private final int keyframeEvery;
+    
+    private record Head(long sequence, Map<String, ScoreMatrix.Totals> totals) {
+    }
+    
+    // Newest snapshot of each contest written or read by this instance
+    private final Map<UUID, Head> heads = new ConcurrentHashMap<>();
+    
+    public LeaderboardHistory(ContestRepository contestRepository,
+                              LeaderboardSnapshotRepository snapshotRepository,
+                              ScoringEngine scoringEngine,
+                              LeaderboardService leaderboardService,
+                              @Value("${shodh.leaderboard.snapshot.keyframe-every:20}") int keyframeEvery) {
+        this.contestRepository = contestRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.scoringEngine = scoringEngine;
+        this.leaderboardService = leaderboardService;
+        this.keyframeEvery = Math.max(1, keyframeEvery);
+    }
+    
+    @Scheduled(fixedDelayString = "${shodh.leaderboard.snapshot.interval-ms:60000}",
+               initialDelayString = "${shodh.leaderboard.snapshot.interval-ms:60000}")
+    public void snapshotRunningContests() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Contest contest : contestRepository.findRunning(now, now.minus(AFTER_END))) {
+            snapshot(contest.getId(), now);
+        }
+    }
+    
+    /**
+     * Public standings of a contest as of {@code at}, empty before the first
+     * snapshot.
+     */
+    public List<LeaderboardEntry> standingsAt(UUID contestId, LocalDateTime at) {
+        Contest contest = contestRepository.findById(contestId)
+            .orElseThrow(() -> new RuntimeException("Contest not found"));
+        if (contest.getFreezeTime() != null && !at.isBefore(contest.getFreezeTime())
+                && scoringEngine.isFrozen(contestId)) {
+            return leaderboardService.getLeaderboard(contestId);
+        }
+        
+        Optional<LeaderboardSnapshot> snapshot =
+            snapshotRepository.findFirstByContestIdAndTakenAtLessThanEqualOrderBySequenceDesc(contestId, at);
+        if (snapshot.isEmpty()) {
+            return List.of();
+        }
+        Map<String, ScoreMatrix.Totals> totals = totalsAt(contestId, snapshot.get().getSequence());
+        return ScoreMatrix.rank(contest.getScoringMode(), totals.values());
+    }
+    
+    private void snapshot(UUID contestId, LocalDateTime now) {
+        Map<String, ScoreMatrix.Totals> totals = StandingsCodec.byUsername(scoringEngine.totals(contestId));
+        Head head = heads.get(contestId);
+        if (head == null) {
+            head = snapshotRepository.findFirstByContestIdOrderBySequenceDesc(contestId)
+                .map(latest -> new Head(latest.getSequence(), totalsAt(contestId, latest.getSequence())))
+                .orElse(null);
+        }
+        if (head != null && head.totals().equals(totals)) {
+            heads.put(contestId, head);
+            return;
+        }
+        
+        long sequence = head == null ? 0 : head.sequence() + 1;
+        boolean keyframe = sequence % keyframeEvery == 0;
+        LeaderboardSnapshot snapshot = new LeaderboardSnapshot();
+        snapshot.setContestId(contestId);
+        snapshot.setSequence(sequence);
+        snapshot.setTakenAt(now);
+        snapshot.setKeyframe(keyframe);
+        snapshot.setData(keyframe ? StandingsCodec.full(totals.values()) : StandingsCodec.delta(head.totals(), totals));
+        try {
+            snapshotRepository.save(snapshot);
+            heads.put(contestId, new Head(sequence, totals));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance took this sequence number; re-read its head next round
+            heads.remove(contestId);
+            log.debug("Leaderboard snapshot {} of contest {} already exists", sequence, contestId);
+        }
+    }
+    
+    private Map<String, ScoreMatrix.Totals> totalsAt(UUID contestId, long sequence) {
+        LeaderboardSnapshot keyframe = snapshotRepository
+            .findFirstByContestIdAndKeyframeTrueAndSequenceLessThanEqualOrderBySequenceDesc(contestId, sequence)
+            .orElseThrow(() -> new IllegalStateException("No leaderboard keyframe for contest " + contestId));
+        Map<String, ScoreMatrix.Totals> totals = new HashMap<>();
+        for (LeaderboardSnapshot snapshot : snapshotRepository
+                .findByContestIdAndSequenceBetweenOrderBySequence(contestId, keyframe.getSequence(), sequence)) {
+            StandingsCodec.apply(snapshot.getData(), totals);
+        }
+        return totals;
+    }
+}
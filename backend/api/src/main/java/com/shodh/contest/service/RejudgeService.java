@@ -0,0 +1,77 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.repository.SubmissionRepository.RejudgeTarget;
+import com.shodh.contest.util.JudgeLane;
+import com.shodh.contest.util.ReadRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Queues rejudges of every submission of a problem or contest on the
+ * {@code rejudgeExecutor}. Their sandbox runs lease cores in the
+ * {@link JudgeLane#REJUDGE} lane, behind live submissions. Each rejudge only reruns test cases
+ * whose content changed since the submission was last judged.
+ * <p>
+ * Submissions of the same user and problem are rejudged one after another on
+ * a single task: whether a verdict flip changes the score depends on the
+ * other submissions of that pair, so they must not be judged concurrently.
+ */
+@Slf4j
+@Service
+@Lazy
+public class RejudgeService {
+    
+    private final SubmissionRepository submissionRepository;
+    private final SubmissionProcessor submissionProcessor;
+    private final Executor rejudgeExecutor;
+    
+    public RejudgeService(SubmissionRepository submissionRepository,
+                          SubmissionProcessor submissionProcessor,
+                          @Qualifier("rejudgeExecutor") Executor rejudgeExecutor) {
+        this.submissionRepository = submissionRepository;
+        this.submissionProcessor = submissionProcessor;
+        this.rejudgeExecutor = rejudgeExecutor;
+    }
+    
+    public int rejudgeProblem(UUID problemId) {
+        List<RejudgeTarget> targets = ReadRouting.primary(() -> submissionRepository.findRejudgeTargetsByProblemId(problemId));
+        log.info("Queueing rejudge of {} submissions for problem: {}", targets.size(), problemId);
+        return enqueue(targets);
+    }
+    
+    public int rejudgeContest(UUID contestId) {
+        List<RejudgeTarget> targets = ReadRouting.primary(() -> submissionRepository.findRejudgeTargetsByContestId(contestId));
+        log.info("Queueing rejudge of {} submissions for contest: {}", targets.size(), contestId);
+        return enqueue(targets);
+    }
+    
+    private int enqueue(List<RejudgeTarget> targets) {
+        Map<List<Object>, List<UUID>> groups = new LinkedHashMap<>();
+        for (RejudgeTarget target : targets) {
+            groups.computeIfAbsent(List.of(target.getUsername(), target.getProblemId()), key -> new ArrayList<>())
+                .add(target.getId());
+        }
+        for (List<UUID> submissionIds : groups.values()) {
+            rejudgeExecutor.execute(() -> {
+                for (UUID submissionId : submissionIds) {
+                    try {
+                        JudgeLane.run(JudgeLane.REJUDGE, () -> submissionProcessor.rejudge(submissionId));
+                    } catch (Exception e) {
+                        log.error("Error rejudging submission {}", submissionId, e);
+                    }
+                }
+            });
+        }
+        return targets.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.shodh.contest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shodh.contest.util.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps hot read-mostly responses serialized and gzipped, keyed by a caller
+ * supplied version. A poll at an unchanged version reuses the stored bytes
+ * and ETag instead of rebuilding and re-serializing the body.
+ */
+@Service
+public class RenderedResponseCache {
+    
+    /** Bodies smaller than this are not worth gzipping */
+    private static final int MIN_GZIP_BYTES = 256;
+    
+    public record Rendered(String etag, byte[] identity, byte[] gzip) {
+    }
+    
+    private record Entry(long version, long renderedAtNanos, Rendered rendered) {
+    }
+    
+    private final ObjectMapper objectMapper;
+    private final long maxAgeNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public RenderedResponseCache(ObjectMapper objectMapper,
+                                 @Value("${shodh.http.rendered.max-age-ms:30000}") long maxAgeMs,
+                                 @Value("${shodh.http.rendered.max-entries:1000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxAgeNanos = maxAgeMs * 1_000_000;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Returns the rendering of {@code key} at {@code version}, building it
+     * from {@code body} if none is stored or the stored one is older than the
+     * max age. The age bound catches changes no version tracks.
+     */
+    public Rendered get(String key, long version, Supplier<?> body) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version && now - entry.renderedAtNanos() < maxAgeNanos) {
+            return entry.rendered();
+        }
+        
+        Rendered rendered = render(body.get());
+        if (entries.size() >= maxEntries) {
+            // Keys are per contest, so this only trips on lookups of many unknown ids
+            entries.clear();
+        }
+        entries.put(key, new Entry(version, now, rendered));
+        return rendered;
+    }
+    
+    private Rendered render(Object body) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            // Strong ETag over the exact bytes, so every instance agrees on it
+            String etag = "\"" + Hashing.sha256(identity).substring(0, 32) + "\"";
+            return new Rendered(etag, identity, gzip(identity));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] identity) throws IOException {
+        if (identity.length < MIN_GZIP_BYTES) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(identity);
+        }
+        return out.size() < identity.length ? out.toByteArray() : null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.RunRequest;
+import com.shodh.contest.dto.RunResult;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.entity.TestCase;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.repository.ProblemRepository;
+import com.shodh.contest.repository.TestCaseRepository;
+import com.shodh.contest.util.JudgeLane;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs code against a problem's sample test cases, or custom input, on the
+ * caller's thread. Nothing is persisted and the graded submission pool is not
+ * used. Sandbox runs lease the cores reserved for the {@link JudgeLane#RUN}
+ * lane ({@code shodh.judge.cpu.run-cores}), so they never wait behind
+ * submissions; a semaphore caps how many requests may queue for them.
+ * Custom inputs above {@code shodh.run.max-input-bytes} are turned away
+ * before they wait for it.
+ *
+ * <p>Runs stay in this process even with {@code shodh.judge.dispatch=workers}.
+ * The caller waits on the HTTP request for the result, so a run on the
+ * worker queues would wait behind every queued submission and need a reply
+ * channel back to this request. The API therefore keeps Docker and a small
+ * sandbox pool of its own, sized by {@code shodh.run.max-concurrent} and the
+ * run cores.
+ */
+@Slf4j
+@Service
+@Lazy
+public class RunService {
+    
+    public static class LaneBusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        public LaneBusyException() {
+            super("Too many test runs in progress, try again shortly");
+        }
+    }
+    
+    public static class InputTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        public InputTooLargeException(int maxBytes) {
+            super("Custom input is limited to " + maxBytes + " bytes");
+        }
+    }
+    
+    private final ProblemRepository problemRepository;
+    private final TestCaseRepository testCaseRepository;
+    private final JudgeService judgeService;
+    private final OutputChecker outputChecker;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final int maxInputBytes;
+    
+    public RunService(ProblemRepository problemRepository,
+                      TestCaseRepository testCaseRepository,
+                      JudgeService judgeService,
+                      OutputChecker outputChecker,
+                      @Value("${shodh.run.max-concurrent:2}") int maxConcurrent,
+                      @Value("${shodh.run.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                      @Value("${shodh.run.max-input-bytes:65536}") int maxInputBytes) {
+        this.problemRepository = problemRepository;
+        this.testCaseRepository = testCaseRepository;
+        this.judgeService = judgeService;
+        this.outputChecker = outputChecker;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxInputBytes = maxInputBytes;
+    }
+    
+    // Not transactional: no connection is held while the sandbox runs
+    public List<RunResult> run(RunRequest request) {
+        if (request.getCustomInput() != null
+                && request.getCustomInput().getBytes(StandardCharsets.UTF_8).length > maxInputBytes) {
+            throw new InputTooLargeException(maxInputBytes);
+        }
+        
+        Problem problem = problemRepository.findById(request.getProblemId())
+            .orElseThrow(() -> new RuntimeException("Problem not found"));
+        
+        List<String[]> cases = new ArrayList<>();
+        if (request.getCustomInput() != null) {
+            cases.add(new String[] {request.getCustomInput(), null});
+        } else {
+            for (TestCase testCase : testCaseRepository.findByProblemIdAndIsSampleTrue(problem.getId())) {
+                cases.add(new String[] {testCase.getInput(), testCase.getExpectedOutput()});
+            }
+        }
+        
+        // Custom input has no answer to check against
+        JudgeService.Checker checker = null;
+        if (request.getCustomInput() == null) {
+            try {
+                checker = outputChecker.prepare(problem, cases.stream().map(runCase -> runCase[1]).toList());
+            } catch (IOException e) {
+                log.warn("Checker of problem {} is unavailable for test runs", problem.getId(), e);
+            }
+        }
+        
+        acquire();
+        try {
+            // All cases share one sandbox session; a compile error ends it after the first
+            List<RunResult> results = new ArrayList<>();
+            JudgeService.Checker runChecker = checker;
+            JudgeLane.run(JudgeLane.RUN, () -> judgeService.executeBatch(
+                request.getCode(),
+                request.getLanguage(),
+                cases.stream().map(runCase -> runCase[0]).toList(),
+                problem.getTimeLimit(),
+                problem.getMemoryLimit(),
+                runChecker,
+                (index, result) -> {
+                    results.add(toRunResult(problem, result, cases.get(index)[0], cases.get(index)[1]));
+                    return true;
+                }));
+            return results;
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private RunResult toRunResult(Problem problem, JudgeService.JudgeResult result,
+                                  String input, String expectedOutput) {
+        RunResult runResult = new RunResult();
+        runResult.setInput(input);
+        runResult.setExpectedOutput(expectedOutput);
+        runResult.setActualOutput(result.getOutput());
+        runResult.setResultType(result.getResultType());
+        runResult.setExecutionTime(result.getExecutionTime());
+        runResult.setError(result.getError());
+        if (expectedOutput != null) {
+            runResult.setPassed(result.isSuccess()
+                && outputChecker.check(problem, result, expectedOutput) == SubmissionStatus.ACCEPTED);
+        }
+        return runResult;
+    }
+    
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new LaneBusyException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LaneBusyException();
+        }
+    }
+}
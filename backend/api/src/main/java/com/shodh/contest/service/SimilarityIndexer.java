@@ -0,0 +1,62 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.entity.SubmissionFingerprint;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.repository.SubmissionFingerprintRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.util.CodeFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically fingerprints newly accepted submissions so the similarity
+ * index grows with each submission instead of being rebuilt per contest.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SimilarityIndexer {
+    
+    private final SubmissionRepository submissionRepository;
+    private final SubmissionFingerprintRepository fingerprintRepository;
+    
+    @Value("${shodh.similarity.batch-size:500}")
+    private int batchSize;
+    
+    @Scheduled(fixedDelayString = "${shodh.similarity.index-interval-ms:60000}")
+    public void indexAcceptedSubmissions() {
+        int total = 0;
+        List<Submission> batch;
+        do {
+            batch = submissionRepository.findWithoutFingerprint(
+                SubmissionStatus.ACCEPTED, PageRequest.of(0, batchSize));
+            // Another instance may index the same rows; saving by id keeps that harmless
+            fingerprintRepository.saveAll(batch.stream().map(this::fingerprint).toList());
+            total += batch.size();
+        } while (batch.size() == batchSize);
+        
+        if (total > 0) {
+            log.info("Fingerprinted {} accepted submissions", total);
+        }
+    }
+    
+    private SubmissionFingerprint fingerprint(Submission submission) {
+        SubmissionFingerprint fingerprint = new SubmissionFingerprint();
+        fingerprint.setSubmissionId(submission.getId());
+        fingerprint.setProblemId(submission.getProblemId());
+        fingerprint.setUsername(submission.getUsername());
+        fingerprint.setLanguage(submission.getLanguage());
+        fingerprint.setSignature(CodeFingerprint.encode(
+            CodeFingerprint.signature(submission.getCode(), submission.getLanguage())));
+        fingerprint.setIndexedAt(LocalDateTime.now());
+        return fingerprint;
+    }
+}
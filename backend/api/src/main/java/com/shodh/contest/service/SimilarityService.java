@@ -0,0 +1,189 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.SimilarityCluster;
+import com.shodh.contest.entity.SubmissionFingerprint;
+import com.shodh.contest.repository.SubmissionFingerprintRepository;
+import com.shodh.contest.util.CodeFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds clusters of near-identical accepted submissions per problem. Each
+ * problem keeps a locality-sensitive hashing index over the MinHash
+ * signatures: signatures are cut into bands and only submissions sharing a
+ * band bucket are compared, so the work grows with the number of
+ * submissions rather than the number of pairs.
+ */
+@Slf4j
+@Service
+@Lazy
+@RequiredArgsConstructor
+public class SimilarityService {
+    
+    public static final double DEFAULT_THRESHOLD = 0.8;
+    
+    // 32 bands of 4 rows: pairs above ~0.5 similarity almost always share a bucket
+    private static final int BANDS = 32;
+    private static final int ROWS = CodeFingerprint.SIGNATURE_SIZE / BANDS;
+    
+    // Members of a bucket are compared with at most this many earlier ones
+    private static final int MAX_REPRESENTATIVES = 8;
+    
+    // Fingerprints committed late by another instance are still picked up
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+    
+    private final SubmissionFingerprintRepository fingerprintRepository;
+    private final Map<UUID, ProblemIndex> indexes = new ConcurrentHashMap<>();
+    
+    public List<SimilarityCluster> findClusters(UUID problemId, Double threshold) {
+        double minimum = threshold == null ? DEFAULT_THRESHOLD : threshold;
+        if (minimum <= 0 || minimum > 1) {
+            throw new IllegalArgumentException("threshold must be in (0, 1]");
+        }
+        
+        ProblemIndex index = indexes.computeIfAbsent(problemId, id -> new ProblemIndex());
+        synchronized (index) {
+            List<SubmissionFingerprint> added = index.highWater == null
+                ? fingerprintRepository.findByProblemId(problemId)
+                : fingerprintRepository.findByProblemIdAndIndexedAtGreaterThanEqual(
+                    problemId, index.highWater.minus(REFRESH_OVERLAP));
+            added.forEach(index::add);
+            return index.clusters(minimum);
+        }
+    }
+    
+    private static final class ProblemIndex {
+        
+        private final List<SubmissionFingerprint> members = new ArrayList<>();
+        private final List<int[]> signatures = new ArrayList<>();
+        private final Set<UUID> known = new HashSet<>();
+        private final List<Map<Long, List<Integer>>> buckets = new ArrayList<>(BANDS);
+        private LocalDateTime highWater;
+        
+        ProblemIndex() {
+            for (int band = 0; band < BANDS; band++) {
+                buckets.add(new HashMap<>());
+            }
+        }
+        
+        void add(SubmissionFingerprint fingerprint) {
+            if (!known.add(fingerprint.getSubmissionId())) {
+                return;
+            }
+            if (highWater == null || fingerprint.getIndexedAt().isAfter(highWater)) {
+                highWater = fingerprint.getIndexedAt();
+            }
+            
+            int member = members.size();
+            int[] signature = CodeFingerprint.decode(fingerprint.getSignature());
+            members.add(fingerprint);
+            signatures.add(signature);
+            for (int band = 0; band < BANDS; band++) {
+                buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>()).add(member);
+            }
+        }
+        
+        List<SimilarityCluster> clusters(double threshold) {
+            int[] parent = new int[members.size()];
+            double[] best = new double[members.size()];
+            for (int i = 0; i < parent.length; i++) {
+                parent[i] = i;
+            }
+            
+            for (Map<Long, List<Integer>> band : buckets) {
+                for (List<Integer> bucket : band.values()) {
+                    if (bucket.size() < 2) {
+                        continue;
+                    }
+                    // Joining each member to one matching representative is enough, clusters are transitive
+                    List<Integer> representatives = new ArrayList<>(MAX_REPRESENTATIVES);
+                    for (int member : bucket) {
+                        boolean placed = false;
+                        for (int representative : representatives) {
+                            if (find(parent, representative) == find(parent, member)) {
+                                placed = true;
+                                break;
+                            }
+                            if (sameUser(representative, member)) {
+                                continue;
+                            }
+                            double similarity = CodeFingerprint.similarity(
+                                signatures.get(representative), signatures.get(member));
+                            if (similarity >= threshold) {
+                                int root = find(parent, representative);
+                                int joined = find(parent, member);
+                                parent[joined] = root;
+                                best[root] = Math.max(similarity, Math.max(best[root], best[joined]));
+                                placed = true;
+                                break;
+                            }
+                        }
+                        if (!placed && representatives.size() < MAX_REPRESENTATIVES) {
+                            representatives.add(member);
+                        }
+                    }
+                }
+            }
+            
+            Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < parent.length; i++) {
+                groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(i);
+            }
+            
+            List<SimilarityCluster> clusters = new ArrayList<>();
+            groups.forEach((root, group) -> {
+                Set<String> users = new HashSet<>();
+                group.forEach(i -> users.add(members.get(i).getUsername()));
+                // A user resubmitting their own code is not a copy
+                if (users.size() < 2) {
+                    return;
+                }
+                List<SimilarityCluster.Member> submissions = new ArrayList<>(group.size());
+                for (int i : group) {
+                    SubmissionFingerprint fingerprint = members.get(i);
+                    submissions.add(new SimilarityCluster.Member(
+                        fingerprint.getSubmissionId(), fingerprint.getUsername(), fingerprint.getLanguage()));
+                }
+                clusters.add(new SimilarityCluster(best[root], submissions));
+            });
+            clusters.sort(Comparator.comparing(SimilarityCluster::getSimilarity).reversed()
+                .thenComparing(cluster -> -cluster.getSubmissions().size()));
+            return clusters;
+        }
+        
+        private boolean sameUser(int a, int b) {
+            return members.get(a).getUsername().equals(members.get(b).getUsername());
+        }
+        
+        private static long bandKey(int[] signature, int band) {
+            long key = band;
+            for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+                key = key * 0x100000001B3L + signature[row];
+            }
+            return key;
+        }
+        
+        private static int find(int[] parent, int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        }
+    }
+}
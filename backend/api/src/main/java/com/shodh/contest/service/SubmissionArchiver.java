@@ -0,0 +1,62 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.entity.Contest;
+import com.shodh.contest.repository.ContestRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically moves submissions of finished contests out of the live
+ * {@code submissions} table into {@code submissions_archive}, in small batches
+ * so no single transaction holds locks for long. A contest is marked
+ * archived once no live submission is left, and is not scanned again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubmissionArchiver {
+    
+    private final ContestRepository contestRepository;
+    private final SubmissionRepository submissionRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${shodh.submissions.archive.grace-minutes:60}")
+    private long graceMinutes;
+    
+    @Value("${shodh.submissions.archive.batch-size:500}")
+    private int batchSize;
+    
+    @Scheduled(fixedDelayString = "${shodh.submissions.archive.interval-ms:300000}",
+               initialDelayString = "${shodh.submissions.archive.interval-ms:300000}")
+    public void archiveFinishedContests() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        
+        for (Contest contest : contestRepository.findByEndTimeBeforeAndArchivedAtIsNull(cutoff)) {
+            int total = 0;
+            int moved;
+            do {
+                moved = transactionTemplate.execute(
+                    status -> submissionRepository.archiveBatch(contest.getId(), batchSize));
+                total += moved;
+            } while (moved == batchSize);
+            
+            if (total > 0) {
+                log.info("Archived {} submissions for finished contest: {}", total, contest.getId());
+            }
+            
+            // Submissions still pending are picked up on a later run
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!submissionRepository.existsByContestId(contest.getId())) {
+                    contestRepository.markArchived(contest.getId(), LocalDateTime.now());
+                }
+            });
+        }
+    }
+}
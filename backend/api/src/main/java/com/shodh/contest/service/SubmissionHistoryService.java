@@ -0,0 +1,170 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.SubmissionHistoryPage;
+import com.shodh.contest.dto.SubmissionResponse;
+import com.shodh.contest.dto.TimelineEvent;
+import com.shodh.contest.entity.ArchivedSubmission;
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.repository.ArchivedSubmissionRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.util.ReadRouting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves a user's submission history with keyset pagination on
+ * {@code (submitted_at, id)}. Both the live and the archive table are read so
+ * history stays complete while a finished contest is being archived.
+ * The first page and single submissions are read from the primary database,
+ * so a submission shows up as soon as its author made it, whatever the
+ * replica lag. Later pages only hold older submissions and may come from a
+ * read replica, whose verdicts are at most the allowed replica lag behind.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubmissionHistoryService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    // Matches PostgreSQL's uuid ordering (unsigned byte comparison)
+    private static final Comparator<SubmissionResponse> NEWEST_FIRST = Comparator
+        .comparing(SubmissionResponse::getSubmittedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(SubmissionResponse::getId, (a, b) -> compareUuids(b, a));
+    
+    private final SubmissionRepository submissionRepository;
+    private final ArchivedSubmissionRepository archivedSubmissionRepository;
+    
+    @Transactional(readOnly = true)
+    public SubmissionHistoryPage getHistory(UUID contestId, String username, String cursor, Integer limit) {
+        if (cursor != null && !cursor.isBlank()) {
+            return loadHistory(contestId, username, cursor, limit);
+        }
+        return ReadRouting.primary(() -> loadHistory(contestId, username, cursor, limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<SubmissionResponse> findSubmission(UUID submissionId) {
+        return ReadRouting.primary(() -> {
+            Optional<SubmissionResponse> live = submissionRepository.findById(submissionId).map(this::toResponse);
+            if (live.isPresent()) {
+                return live;
+            }
+            return archivedSubmissionRepository.findById(submissionId).map(this::toResponse);
+        });
+    }
+    
+    /**
+     * Decoded execution timeline of a submission, empty if the submission was
+     * judged before timelines were recorded.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<TimelineEvent>> findTimeline(UUID submissionId) {
+        return ReadRouting.primary(() -> {
+            Optional<Submission> live = submissionRepository.findById(submissionId);
+            if (live.isPresent()) {
+                return Optional.of(SubmissionTimeline.decode(live.get().getTimeline()));
+            }
+            return archivedSubmissionRepository.findById(submissionId)
+                .map(archived -> SubmissionTimeline.decode(archived.getTimeline()));
+        });
+    }
+    
+    private SubmissionHistoryPage loadHistory(UUID contestId, String username, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<SubmissionResponse> merged = new ArrayList<>();
+        if (cursor == null || cursor.isBlank()) {
+            submissionRepository.findHistoryFirstPage(contestId, username, pageable)
+                .forEach(s -> merged.add(toResponse(s)));
+            archivedSubmissionRepository.findHistoryFirstPage(contestId, username, pageable)
+                .forEach(s -> merged.add(toResponse(s)));
+        } else {
+            Cursor position = decodeCursor(cursor);
+            submissionRepository.findHistoryAfter(contestId, username, position.submittedAt(), position.id(), pageable)
+                .forEach(s -> merged.add(toResponse(s)));
+            archivedSubmissionRepository.findHistoryAfter(contestId, username, position.submittedAt(), position.id(), pageable)
+                .forEach(s -> merged.add(toResponse(s)));
+        }
+        
+        merged.sort(NEWEST_FIRST);
+        
+        if (merged.size() <= pageSize) {
+            return new SubmissionHistoryPage(merged, null);
+        }
+        
+        List<SubmissionResponse> page = new ArrayList<>(merged.subList(0, pageSize));
+        SubmissionResponse last = page.get(pageSize - 1);
+        return new SubmissionHistoryPage(page, encodeCursor(last.getSubmittedAt(), last.getId()));
+    }
+    
+    private SubmissionResponse toResponse(Submission submission) {
+        SubmissionResponse response = new SubmissionResponse();
+        response.setId(submission.getId());
+        response.setProblemId(submission.getProblemId());
+        response.setLanguage(submission.getLanguage());
+        response.setStatus(submission.getStatus());
+        response.setExecutionTime(submission.getExecutionTime());
+        response.setMemoryUsed(submission.getMemoryUsed());
+        response.setTestCasesPassed(submission.getTestCasesPassed());
+        response.setTestCasesTotal(submission.getTestCasesTotal());
+        response.setVerdict(submission.getVerdict());
+        response.setSubmittedAt(submission.getSubmittedAt());
+        return response;
+    }
+    
+    private SubmissionResponse toResponse(ArchivedSubmission submission) {
+        SubmissionResponse response = new SubmissionResponse();
+        response.setId(submission.getId());
+        response.setProblemId(submission.getProblemId());
+        response.setLanguage(submission.getLanguage());
+        response.setStatus(submission.getStatus());
+        response.setExecutionTime(submission.getExecutionTime());
+        response.setMemoryUsed(submission.getMemoryUsed());
+        response.setTestCasesPassed(submission.getTestCasesPassed());
+        response.setTestCasesTotal(submission.getTestCasesTotal());
+        response.setVerdict(submission.getVerdict());
+        response.setSubmittedAt(submission.getSubmittedAt());
+        return response;
+    }
+    
+    private record Cursor(LocalDateTime submittedAt, UUID id) {
+    }
+    
+    private static String encodeCursor(LocalDateTime submittedAt, UUID id) {
+        String raw = submittedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    private static int compareUuids(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,55 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.RunRequest;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.repository.ProblemRepository;
+import com.shodh.contest.repository.TestCaseRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RunServiceTest {
+    
+    private final ProblemRepository problems = mock(ProblemRepository.class);
+    private final JudgeService judge = mock(JudgeService.class);
+    // No permits, so any run that gets as far as the sandbox is turned away as busy
+    private final RunService service = new RunService(problems, mock(TestCaseRepository.class), judge,
+        mock(OutputChecker.class), 0, 0, 8);
+    
+    @Test
+    void rejectsOversizedCustomInputBeforeDoingAnyWork() {
+        // Eight characters, but nine bytes in UTF-8
+        assertThatThrownBy(() -> service.run(request("1 2 3 ä\n")))
+            .isInstanceOf(RunService.InputTooLargeException.class);
+        
+        verifyNoInteractions(problems, judge);
+    }
+    
+    @Test
+    void customInputAtTheLimitIsRun() {
+        when(problems.findById(any())).thenReturn(Optional.of(new Problem()));
+        
+        assertThatThrownBy(() -> service.run(request("1 2 3 4\n")))
+            .isInstanceOf(RunService.LaneBusyException.class);
+        
+        verify(problems).findById(any());
+    }
+    
+    private static RunRequest request(String customInput) {
+        RunRequest request = new RunRequest();
+        request.setCode("print(1)");
+        request.setLanguage(Language.PYTHON);
+        request.setProblemId(UUID.randomUUID());
+        request.setCustomInput(customInput);
+        return request;
+    }
+}
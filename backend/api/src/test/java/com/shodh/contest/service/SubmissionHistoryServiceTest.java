@@ -0,0 +1,149 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.SubmissionHistoryPage;
+import com.shodh.contest.dto.SubmissionResponse;
+import com.shodh.contest.entity.ArchivedSubmission;
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.repository.ArchivedSubmissionRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.util.ReadRouting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionHistoryServiceTest {
+    
+    private static final UUID CONTEST = UUID.randomUUID();
+    private static final String USER = "alice";
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+    
+    // Signed comparison would order these LOW, HIGH, MIDDLE; PostgreSQL compares unsigned
+    private static final UUID HIGH = UUID.fromString("c0000000-0000-0000-0000-000000000001");
+    private static final UUID MIDDLE = UUID.fromString("80000000-0000-0000-0000-000000000000");
+    private static final UUID LOW = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+    
+    private final SubmissionRepository submissions = mock(SubmissionRepository.class);
+    private final ArchivedSubmissionRepository archive = mock(ArchivedSubmissionRepository.class);
+    private final SubmissionHistoryService service = new SubmissionHistoryService(submissions, archive);
+    
+    @BeforeEach
+    void noRowsByDefault() {
+        when(submissions.findHistoryFirstPage(any(), any(), any())).thenReturn(List.of());
+        when(archive.findHistoryFirstPage(any(), any(), any())).thenReturn(List.of());
+        when(submissions.findHistoryAfter(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(archive.findHistoryAfter(any(), any(), any(), any(), any())).thenReturn(List.of());
+    }
+    
+    @Test
+    void mergesLiveAndArchivedRowsNewestFirst() {
+        when(submissions.findHistoryFirstPage(eq(CONTEST), eq(USER), any()))
+            .thenReturn(List.of(live(AT.plusMinutes(10), LOW), live(AT, LOW)));
+        when(archive.findHistoryFirstPage(eq(CONTEST), eq(USER), any()))
+            .thenReturn(List.of(archived(AT.plusMinutes(5), HIGH)));
+        
+        SubmissionHistoryPage page = service.getHistory(CONTEST, USER, null, 10);
+        
+        assertThat(page.getSubmissions()).extracting(SubmissionResponse::getSubmittedAt)
+            .containsExactly(AT.plusMinutes(10), AT.plusMinutes(5), AT);
+        assertThat(page.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void breaksTimestampTiesByUnsignedIdLikePostgres() {
+        when(submissions.findHistoryFirstPage(eq(CONTEST), eq(USER), any()))
+            .thenReturn(List.of(live(AT, MIDDLE), live(AT, LOW)));
+        when(archive.findHistoryFirstPage(eq(CONTEST), eq(USER), any()))
+            .thenReturn(List.of(archived(AT, HIGH)));
+        
+        SubmissionHistoryPage page = service.getHistory(CONTEST, USER, null, 10);
+        
+        assertThat(page.getSubmissions()).extracting(SubmissionResponse::getId)
+            .containsExactly(HIGH, MIDDLE, LOW);
+    }
+    
+    @Test
+    void cursorResumesAfterTheLastRowOfThePage() {
+        when(submissions.findHistoryFirstPage(eq(CONTEST), eq(USER), any()))
+            .thenReturn(List.of(live(AT, MIDDLE), live(AT, LOW)));
+        when(archive.findHistoryFirstPage(eq(CONTEST), eq(USER), any()))
+            .thenReturn(List.of(archived(AT, HIGH)));
+        
+        SubmissionHistoryPage first = service.getHistory(CONTEST, USER, null, 2);
+        
+        assertThat(first.getSubmissions()).extracting(SubmissionResponse::getId).containsExactly(HIGH, MIDDLE);
+        assertThat(first.getNextCursor()).isNotNull();
+        
+        when(submissions.findHistoryAfter(eq(CONTEST), eq(USER), eq(AT), eq(MIDDLE), any()))
+            .thenReturn(List.of(live(AT, LOW)));
+        
+        SubmissionHistoryPage second = service.getHistory(CONTEST, USER, first.getNextCursor(), 2);
+        
+        assertThat(second.getSubmissions()).extracting(SubmissionResponse::getId).containsExactly(LOW);
+        assertThat(second.getNextCursor()).isNull();
+        verify(archive).findHistoryAfter(eq(CONTEST), eq(USER), eq(AT), eq(MIDDLE), any());
+    }
+    
+    @Test
+    void fetchesOneRowMoreThanThePageFromEachTable() {
+        service.getHistory(CONTEST, USER, null, 1_000);
+        
+        Pageable capped = Pageable.ofSize(SubmissionHistoryService.MAX_PAGE_SIZE + 1);
+        verify(submissions).findHistoryFirstPage(CONTEST, USER, capped);
+        verify(archive).findHistoryFirstPage(CONTEST, USER, capped);
+    }
+    
+    @Test
+    void onlyTheFirstPageIsReadFromThePrimary() {
+        AtomicBoolean onPrimary = new AtomicBoolean();
+        when(submissions.findHistoryFirstPage(eq(CONTEST), eq(USER), any())).thenAnswer(invocation -> {
+            onPrimary.set(ReadRouting.isPrimaryRequired());
+            return List.of(live(AT, MIDDLE), live(AT, LOW));
+        });
+        
+        SubmissionHistoryPage first = service.getHistory(CONTEST, USER, null, 1);
+        
+        assertThat(onPrimary).isTrue();
+        
+        when(submissions.findHistoryAfter(eq(CONTEST), eq(USER), eq(AT), eq(MIDDLE), any())).thenAnswer(invocation -> {
+            onPrimary.set(ReadRouting.isPrimaryRequired());
+            return List.of(live(AT, LOW));
+        });
+        
+        service.getHistory(CONTEST, USER, first.getNextCursor(), 1);
+        
+        assertThat(onPrimary).as("later pages may come from a replica").isFalse();
+    }
+    
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> service.getHistory(CONTEST, USER, "not-a-cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static Submission live(LocalDateTime submittedAt, UUID id) {
+        Submission submission = new Submission();
+        submission.setId(id);
+        submission.setSubmittedAt(submittedAt);
+        return submission;
+    }
+    
+    private static ArchivedSubmission archived(LocalDateTime submittedAt, UUID id) {
+        ArchivedSubmission submission = new ArchivedSubmission();
+        submission.setId(id);
+        submission.setSubmittedAt(submittedAt);
+        return submission;
+    }
+}
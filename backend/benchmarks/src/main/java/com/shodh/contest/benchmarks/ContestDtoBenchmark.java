@@ -0,0 +1,71 @@
+package com.shodh.contest.benchmarks;
+
+import com.shodh.contest.dto.ContestResponse;
+import com.shodh.contest.entity.Contest;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.entity.TestCase;
+import com.shodh.contest.enums.Difficulty;
+import com.shodh.contest.service.ContestService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversion performed by ContestService for GET /contests/{id}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ContestDtoBenchmark {
+    
+    @Param({"3", "20"})
+    private int problems;
+    
+    @Param({"10", "200"})
+    private int testCasesPerProblem;
+    
+    private ContestService contestService;
+    private Contest contest;
+    
+    @Setup
+    public void setup() {
+        contestService = new ContestService(null);
+        
+        contest = new Contest();
+        contest.setId(new UUID(0, 1));
+        contest.setName("Benchmark Contest");
+        contest.setDescription("Synthetic contest used for DTO conversion benchmarks");
+        contest.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        contest.setEndTime(LocalDateTime.of(2025, 1, 1, 13, 0));
+        
+        for (int p = 0; p < problems; p++) {
+            Problem problem = new Problem();
+            problem.setId(new UUID(1, p));
+            problem.setTitle("Problem " + p);
+            problem.setDescription("Description of problem " + p);
+            problem.setDifficulty(Difficulty.values()[p % Difficulty.values().length]);
+            problem.setPoints(100);
+            problem.setContest(contest);
+            for (int t = 0; t < testCasesPerProblem; t++) {
+                TestCase testCase = new TestCase();
+                testCase.setId(new UUID(2, (long) p * testCasesPerProblem + t));
+                testCase.setInput("input " + t);
+                testCase.setExpectedOutput("output " + t);
+                testCase.setIsSample(t < 2);
+                testCase.setProblem(problem);
+                problem.getTestCases().add(testCase);
+            }
+            contest.getProblems().add(problem);
+        }
+    }
+    
+    @Benchmark
+    public ContestResponse toContestResponse() {
+        return contestService.toContestResponse(contest);
+    }
+}
@@ -0,0 +1,70 @@
+package com.shodh.contest.benchmarks;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.enums.ScoringMode;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.service.ScoreMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score matrix of one contest: applying a verdict and ranking all users.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+    
+    private static final int PROBLEMS = 6;
+    private static final int SUBMISSIONS_PER_USER = 10;
+    
+    @Param({"100", "10000"})
+    private int users;
+    
+    @Param({"POINTS", "ICPC"})
+    private ScoringMode mode;
+    
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+    private List<UUID> problemIds;
+    private ScoreMatrix matrix;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        problemIds = new ArrayList<>(PROBLEMS);
+        for (int i = 0; i < PROBLEMS; i++) {
+            problemIds.add(new UUID(0, i));
+        }
+        matrix = new ScoreMatrix(mode, start, 20, problemIds, Collections.nCopies(PROBLEMS, 100));
+        
+        Random random = new Random(42);
+        for (int i = 0; i < users * SUBMISSIONS_PER_USER; i++) {
+            matrix.record("user" + random.nextInt(users), problemIds.get(random.nextInt(PROBLEMS)),
+                random.nextInt(3) == 0 ? SubmissionStatus.ACCEPTED : SubmissionStatus.WRONG_ANSWER,
+                start.plusSeconds(random.nextInt(5 * 3600)));
+        }
+    }
+    
+    @Benchmark
+    public boolean record() {
+        // Mostly lands on solved cells or is a new reject, as late in a contest
+        int i = next++;
+        return matrix.record("user" + (i % users), problemIds.get(i % PROBLEMS),
+            SubmissionStatus.WRONG_ANSWER, start.plusSeconds(i % (5 * 3600)));
+    }
+    
+    @Benchmark
+    public List<LeaderboardEntry> standings() {
+        return matrix.standings();
+    }
+}
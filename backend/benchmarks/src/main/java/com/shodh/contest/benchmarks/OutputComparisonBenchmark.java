@@ -0,0 +1,60 @@
+package com.shodh.contest.benchmarks;
+
+import com.shodh.contest.util.OutputComparison;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Output comparison as done by SubmissionProcessor for every test case,
+ * with each built-in checker.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class OutputComparisonBenchmark {
+    
+    @Param({"16", "65536", "1048576"})
+    private int outputBytes;
+    
+    @Param({"EXACT", "TOKENS", "EPSILON"})
+    private String checker;
+    
+    private String expected;
+    private String actualMatching;
+    private String actualMismatchAtEnd;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(outputBytes);
+        while (builder.length() < outputBytes) {
+            builder.append(random.nextInt(1_000_000)).append(' ');
+        }
+        expected = builder.toString().trim();
+        actualMatching = expected + "\n";
+        actualMismatchAtEnd = expected.substring(0, expected.length() - 1) + "x\n";
+    }
+    
+    @Benchmark
+    public boolean matching() {
+        return compare(actualMatching, expected);
+    }
+    
+    @Benchmark
+    public boolean mismatchAtEnd() {
+        return compare(actualMismatchAtEnd, expected);
+    }
+    
+    private boolean compare(String actual, String expected) {
+        return switch (checker) {
+            case "TOKENS" -> OutputComparison.tokensMatch(actual, expected);
+            case "EPSILON" -> OutputComparison.numbersMatch(actual, expected, 1e-6);
+            default -> OutputComparison.matches(actual, expected);
+        };
+    }
+}
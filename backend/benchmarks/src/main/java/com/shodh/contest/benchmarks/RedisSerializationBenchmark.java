@@ -0,0 +1,62 @@
+package com.shodh.contest.benchmarks;
+
+import com.shodh.contest.config.RedisConfig;
+import com.shodh.contest.dto.LeaderboardEntry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the cached leaderboard with the value serializer
+ * configured in RedisConfig, against the plain JSON serializer it replaced.
+ * The payload size is printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class RedisSerializationBenchmark {
+    
+    @Param({"100", "10000"})
+    private int entries;
+    
+    @Param({"compact", "json"})
+    private String codec;
+    
+    private RedisSerializer<Object> serializer;
+    private List<LeaderboardEntry> leaderboard;
+    private byte[] serialized;
+    
+    @Setup
+    public void setup() {
+        serializer = "json".equals(codec)
+            ? new GenericJackson2JsonRedisSerializer()
+            : RedisConfig.valueSerializer();
+        
+        Random random = new Random(42);
+        leaderboard = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            int solved = random.nextInt(6);
+            leaderboard.add(new LeaderboardEntry(i + 1, "user" + i, solved * 100, solved, solved * 45 + random.nextInt(60)));
+        }
+        serialized = serializer.serialize(leaderboard);
+        System.out.printf("Serialized %d leaderboard entries into %d bytes (%s)%n", entries, serialized.length, codec);
+    }
+    
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(leaderboard);
+    }
+    
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+}
@@ -0,0 +1,68 @@
+package com.shodh.contest.benchmarks;
+
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.service.CpuSetAllocator;
+import com.shodh.contest.service.JudgeMetrics;
+import com.shodh.contest.service.JudgeService;
+import com.shodh.contest.service.VerdictCache;
+import com.shodh.contest.service.WorkspaceManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JudgeService.executeCode with Docker replaced by a stub runner that echoes
+ * stdin. Measures the backend's own per-test overhead: workspace setup,
+ * process launch, stdin/stdout piping and cleanup.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SandboxLaunchBenchmark {
+    
+    @Param({"64", "1048576"})
+    private int inputBytes;
+    
+    private Path stubDir;
+    private JudgeService judgeService;
+    private String input;
+    
+    @Setup
+    public void setup() throws IOException {
+        stubDir = Files.createTempDirectory("shodh-stub-runner");
+        Path stub = stubDir.resolve("docker");
+        Files.writeString(stub, "#!/bin/sh\nexec cat\n");
+        Files.setPosixFilePermissions(stub, PosixFilePermissions.fromString("rwxr-xr-x"));
+        
+        JudgeMetrics metrics = new JudgeMetrics(new SimpleMeterRegistry(), Runnable::run, new VerdictCache(16));
+        WorkspaceManager workspaces = new WorkspaceManager(stubDir.resolve("workspaces").toString(), 4, 64);
+        judgeService = new JudgeService(new CpuSetAllocator(false, 0, "", 0, 1, ""), metrics, workspaces);
+        judgeService.setDockerBinary(stub.toString());
+        
+        input = "7".repeat(inputBytes);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(stubDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    @Benchmark
+    public JudgeService.JudgeResult executeCode() {
+        return judgeService.executeCode("print(input())", Language.PYTHON, input, 2000, 256);
+    }
+}
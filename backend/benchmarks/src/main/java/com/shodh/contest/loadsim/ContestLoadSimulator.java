@@ -0,0 +1,260 @@
+package com.shodh.contest.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shodh.contest.ContestApplication;
+import com.shodh.contest.repository.ContestRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the backend in-process with the {@code loadsim} profile (H2 instead
+ * of PostgreSQL, in-memory Redis, fake judge) and drives the real HTTP
+ * endpoints with simulated contestants. Each contestant joins during the
+ * ramp-up, fetches the contest, then alternates between submitting, polling
+ * its submission until a verdict and thinking, while polling the leaderboard
+ * on its own schedule.
+ *
+ * <p>Options are Spring properties, e.g.
+ * {@code java -cp target/benchmarks.jar com.shodh.contest.loadsim.ContestLoadSimulator
+ * --loadsim.contestants=500 --loadsim.duration-seconds=120 --loadsim.judge.latency-median-ms=400}
+ */
+public class ContestLoadSimulator {
+    
+    private static final String GET_CONTEST = "GET /contests/{id}";
+    private static final String GET_LEADERBOARD = "GET /contests/{id}/leaderboard";
+    private static final String POST_SUBMISSION = "POST /submissions";
+    private static final String GET_SUBMISSION = "GET /submissions/{id}";
+    private static final String TIME_TO_VERDICT = "time to verdict (end-to-end)";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    // Each contestant runs on its own pool thread
+    private final ThreadLocal<String> leaderboardEtag = new ThreadLocal<>();
+    
+    private final String baseUrl;
+    private final UUID contestId;
+    private final int contestants;
+    private final long durationMs;
+    private final long rampUpMs;
+    private final long leaderboardPollMs;
+    private final long statusPollMs;
+    private final long meanThinkMs;
+    
+    private long endAtMs;
+    
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(ContestApplication.class);
+        application.setAdditionalProfiles("loadsim");
+        ConfigurableApplicationContext context = application.run(args);
+        
+        int exitCode = 0;
+        try {
+            new ContestLoadSimulator(context).run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+    
+    ContestLoadSimulator(ConfigurableApplicationContext context) {
+        Environment env = context.getEnvironment();
+        this.baseUrl = "http://localhost:" + env.getProperty("local.server.port") + "/api";
+        this.contestId = context.getBean(ContestRepository.class).findAll().get(0).getId();
+        this.contestants = env.getProperty("loadsim.contestants", Integer.class, 100);
+        this.durationMs = env.getProperty("loadsim.duration-seconds", Long.class, 60L) * 1000;
+        this.rampUpMs = env.getProperty("loadsim.ramp-up-seconds", Long.class, 5L) * 1000;
+        this.leaderboardPollMs = env.getProperty("loadsim.leaderboard-poll-ms", Long.class, 20000L);
+        this.statusPollMs = env.getProperty("loadsim.status-poll-ms", Long.class, 2000L);
+        this.meanThinkMs = env.getProperty("loadsim.think-ms", Long.class, 30000L);
+        
+        for (String name : List.of(GET_CONTEST, GET_LEADERBOARD, POST_SUBMISSION, GET_SUBMISSION, TIME_TO_VERDICT)) {
+            recorders.put(name, new LatencyRecorder());
+        }
+    }
+    
+    void run() throws InterruptedException {
+        System.out.printf("Simulating %d contestants for %ds against %s (contest %s)%n",
+            contestants, durationMs / 1000, baseUrl, contestId);
+        
+        long startMs = System.currentTimeMillis();
+        endAtMs = startMs + durationMs;
+        
+        ExecutorService pool = Executors.newFixedThreadPool(contestants);
+        for (int i = 0; i < contestants; i++) {
+            String username = "loadsim-" + i;
+            pool.execute(() -> contestant(username));
+        }
+        pool.shutdown();
+        pool.awaitTermination(durationMs + 60_000, TimeUnit.MILLISECONDS);
+        
+        double elapsedSeconds = (System.currentTimeMillis() - startMs) / 1000.0;
+        System.out.println();
+        System.out.printf("%-34s %8s %7s %10s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        recorders.forEach((name, recorder) -> System.out.println(recorder.summary(name, elapsedSeconds)));
+    }
+    
+    private void contestant(String username) {
+        try {
+            sleep(ThreadLocalRandom.current().nextLong(Math.max(1, rampUpMs)));
+            
+            JsonNode contest = call(GET_CONTEST, get("/contests/" + contestId));
+            if (contest == null) {
+                return;
+            }
+            List<String> problemIds = new ArrayList<>();
+            contest.get("problems").forEach(problem -> problemIds.add(problem.get("id").asText()));
+            
+            long[] nextLeaderboardAt = {0};
+            while (System.currentTimeMillis() < endAtMs) {
+                pollLeaderboardIfDue(nextLeaderboardAt);
+                
+                String problemId = problemIds.get(ThreadLocalRandom.current().nextInt(problemIds.size()));
+                long submittedAt = System.nanoTime();
+                JsonNode submitted = call(POST_SUBMISSION, post("/submissions", submission(username, problemId)));
+                
+                if (submitted != null && submitted.has("submissionId")) {
+                    String submissionId = submitted.get("submissionId").asText();
+                    while (System.currentTimeMillis() < endAtMs) {
+                        sleepPolling(statusPollMs, nextLeaderboardAt);
+                        JsonNode status = call(GET_SUBMISSION, get("/submissions/" + submissionId));
+                        String value = status == null ? null : status.path("status").asText();
+                        if (value != null && !"PENDING".equals(value) && !"RUNNING".equals(value)) {
+                            recorders.get(TIME_TO_VERDICT).record(System.nanoTime() - submittedAt);
+                            break;
+                        }
+                    }
+                }
+                
+                // Exponentially distributed think time between submissions
+                long thinkMs = (long) (-meanThinkMs * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+                sleepPolling(thinkMs, nextLeaderboardAt);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void pollLeaderboardIfDue(long[] nextLeaderboardAt) {
+        long now = System.currentTimeMillis();
+        if (now >= nextLeaderboardAt[0] && now < endAtMs) {
+            // Revalidate like a browser: gzip accepted, last ETag sent back
+            HttpRequest.Builder request = HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/contests/" + contestId + "/leaderboard"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept-Encoding", "gzip");
+            if (leaderboardEtag.get() != null) {
+                request.header("If-None-Match", leaderboardEtag.get());
+            }
+            HttpResponse<String> response = send(GET_LEADERBOARD, request.GET().build());
+            if (response != null) {
+                response.headers().firstValue("ETag").ifPresent(leaderboardEtag::set);
+            }
+            nextLeaderboardAt[0] = now + leaderboardPollMs;
+        }
+    }
+    
+    private void sleepPolling(long ms, long[] nextLeaderboardAt) throws InterruptedException {
+        long wakeAt = Math.min(System.currentTimeMillis() + ms, endAtMs);
+        while (System.currentTimeMillis() < wakeAt) {
+            pollLeaderboardIfDue(nextLeaderboardAt);
+            sleep(Math.min(wakeAt, nextLeaderboardAt[0]) - System.currentTimeMillis());
+        }
+    }
+    
+    private String submission(String username, String problemId) {
+        // The nonce keeps resubmissions from hitting the verdict cache
+        String code = "print(input()[::-1])  # " + UUID.randomUUID();
+        Map<String, Object> body = Map.of(
+            "code", code,
+            "language", "PYTHON",
+            "username", username,
+            "problemId", problemId,
+            "contestId", contestId.toString()
+        );
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+    
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+    
+    private JsonNode call(String endpoint, HttpRequest request) {
+        HttpResponse<String> response = send(endpoint, request);
+        if (response == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (Exception e) {
+            recorders.get(endpoint).recordError();
+            return null;
+        }
+    }
+    
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        LatencyRecorder recorder = recorders.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(System.nanoTime() - start);
+            if (response.statusCode() >= 400) {
+                recorder.recordError();
+                return null;
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.recordError();
+            return null;
+        } catch (Exception e) {
+            recorder.recordError();
+            return null;
+        }
+    }
+    
+    private static void sleep(long ms) throws InterruptedException {
+        if (ms > 0) {
+            Thread.sleep(ms);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.shodh.contest.loadsim;
+
+import com.shodh.contest.entity.TestCase;
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.repository.TestCaseRepository;
+import com.shodh.contest.service.CpuSetAllocator;
+import com.shodh.contest.service.JudgeMetrics;
+import com.shodh.contest.service.JudgeService;
+import com.shodh.contest.service.WorkspaceManager;
+import com.shodh.contest.util.OutputComparison;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stands in for Docker during load simulation. Each test case sleeps for a
+ * log-normally distributed time, and the verdict is drawn from weighted
+ * outcomes seeded by the source code, so every test of one submission
+ * agrees and resubmitting identical code gives the same verdict.
+ */
+public class FakeJudgeService extends JudgeService {
+    
+    private final TestCaseRepository testCaseRepository;
+    private final double latencyMedianMs;
+    private final double latencySigma;
+    private final List<String> verdicts = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private final Map<String, String> expectedByInput = new ConcurrentHashMap<>();
+    
+    public FakeJudgeService(CpuSetAllocator cpuSetAllocator, JudgeMetrics judgeMetrics,
+                            WorkspaceManager workspaceManager, TestCaseRepository testCaseRepository,
+                            double latencyMedianMs, double latencySigma, String verdictWeights) {
+        super(cpuSetAllocator, judgeMetrics, workspaceManager);
+        this.testCaseRepository = testCaseRepository;
+        this.latencyMedianMs = latencyMedianMs;
+        this.latencySigma = latencySigma;
+        
+        int total = 0;
+        for (String part : verdictWeights.split(",")) {
+            String[] verdictAndWeight = part.trim().split(":");
+            total += Integer.parseInt(verdictAndWeight[1]);
+            verdicts.add(verdictAndWeight[0]);
+            cumulativeWeights.add(total);
+        }
+    }
+    
+    @Override
+    public JudgeResult executeCode(String code, Language language, String input,
+                                   int timeLimitMs, int memoryLimitMb) {
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        int latencyMs = (int) Math.round(latencyMedianMs * Math.exp(latencySigma * gaussian));
+        
+        String verdict = verdictFor(code);
+        if ("TLE".equals(verdict)) {
+            latencyMs = timeLimitMs;
+        }
+        
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new JudgeResult(false, "", "System Error: interrupted", latencyMs, "SYSTEM_ERROR");
+        }
+        
+        return switch (verdict) {
+            case "ACCEPTED" -> new JudgeResult(true, expectedOutput(input), "", latencyMs, "SUCCESS");
+            case "WRONG_ANSWER" -> new JudgeResult(true, "wrong answer", "", latencyMs, "SUCCESS");
+            case "TLE" -> new JudgeResult(false, "", "Time Limit Exceeded", latencyMs, "TLE");
+            default -> new JudgeResult(false, "", "Simulated runtime error", latencyMs, "RUNTIME_ERROR");
+        };
+    }
+    
+    @Override
+    public void executeBatch(String code, Language language, List<String> inputs,
+                             int timeLimitMs, int memoryLimitMb, Checker checker, BatchListener listener) {
+        for (int i = 0; i < inputs.size(); i++) {
+            JudgeResult result = executeCode(code, language, inputs.get(i), timeLimitMs, memoryLimitMb);
+            if (checker != null && result.isSuccess()) {
+                // Stands in for the checker program too
+                result.setCheckerExitCode(OutputComparison.matches(result.getOutput(), checker.answers().get(i)) ? 0 : 1);
+                result.setCheckerMessage("");
+            }
+            if (!listener.onResult(i, result)) {
+                return;
+            }
+        }
+    }
+    
+    private String verdictFor(String code) {
+        int total = cumulativeWeights.get(cumulativeWeights.size() - 1);
+        int pick = new Random(code.hashCode()).nextInt(total);
+        for (int i = 0; i < verdicts.size(); i++) {
+            if (pick < cumulativeWeights.get(i)) {
+                return verdicts.get(i);
+            }
+        }
+        return verdicts.get(verdicts.size() - 1);
+    }
+    
+    private String expectedOutput(String input) {
+        if (expectedByInput.isEmpty()) {
+            for (TestCase testCase : testCaseRepository.findAll()) {
+                expectedByInput.put(testCase.getInput(), testCase.getExpectedOutput());
+            }
+        }
+        return expectedByInput.getOrDefault(input, "");
+    }
+}
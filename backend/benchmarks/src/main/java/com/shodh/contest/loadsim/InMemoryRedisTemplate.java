@@ -0,0 +1,97 @@
+package com.shodh.contest.loadsim;
+
+import com.shodh.contest.config.RedisConfig;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis stand-in for the load simulator. Supports the value operations the
+ * backend uses (get, set with optional TTL, increment, delete) and round-trips values
+ * through the configured value serializer, so serialization cost stays in
+ * the measurement.
+ */
+public class InMemoryRedisTemplate extends RedisTemplate<String, Object> {
+    
+    private record StoredValue(byte[] bytes, long expiresAtNanos) {
+    }
+    
+    private final Map<String, StoredValue> store = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final RedisSerializer<Object> serializer = RedisConfig.valueSerializer();
+    private final ValueOperations<String, Object> valueOperations;
+    
+    @SuppressWarnings("unchecked")
+    public InMemoryRedisTemplate() {
+        this.valueOperations = (ValueOperations<String, Object>) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] {ValueOperations.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "get" -> get((String) args[0]);
+                case "set" -> {
+                    set((String) args[0], args[1], ttlNanos(args));
+                    yield null;
+                }
+                case "increment" -> counters.computeIfAbsent((String) args[0], key -> new AtomicLong())
+                    .addAndGet(args.length == 2 ? ((Number) args[1]).longValue() : 1);
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "InMemoryValueOperations";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+    
+    @Override
+    public ValueOperations<String, Object> opsForValue() {
+        return valueOperations;
+    }
+    
+    @Override
+    public Boolean delete(String key) {
+        return store.remove(key) != null | counters.remove(key) != null;
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        // No connection factory to validate
+    }
+    
+    private Object get(String key) {
+        StoredValue stored = store.get(key);
+        if (stored == null) {
+            // Counters read back as numbers, like INCR values from Redis
+            AtomicLong counter = counters.get(key);
+            return counter == null ? null : counter.get();
+        }
+        if (stored.expiresAtNanos() != 0 && System.nanoTime() > stored.expiresAtNanos()) {
+            store.remove(key, stored);
+            return null;
+        }
+        return serializer.deserialize(stored.bytes());
+    }
+    
+    private void set(String key, Object value, long ttlNanos) {
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+        store.put(key, new StoredValue(serializer.serialize(value), expiresAt));
+    }
+    
+    private static long ttlNanos(Object[] args) {
+        if (args.length == 3 && args[2] instanceof Duration timeout) {
+            return timeout.toNanos();
+        }
+        if (args.length == 4 && args[3] instanceof TimeUnit unit) {
+            return unit.toNanos((Long) args[2]);
+        }
+        if (args.length == 2) {
+            return 0;
+        }
+        throw new UnsupportedOperationException("set with offset");
+    }
+}
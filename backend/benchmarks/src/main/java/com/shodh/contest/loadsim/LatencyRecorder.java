@@ -0,0 +1,42 @@
+package com.shodh.contest.loadsim;
+
+import java.util.Arrays;
+
+/**
+ * Collects raw latency samples for one endpoint. Samples are kept exactly,
+ * not bucketed, so p999 is meaningful for short runs.
+ */
+public class LatencyRecorder {
+    
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+    
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+    
+    public synchronized void recordError() {
+        errors++;
+    }
+    
+    public synchronized String summary(String name, double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format("%-34s %8d %7d %10.1f %9.1f %9.1f %9.1f %9.1f",
+            name, count, errors, count / elapsedSeconds,
+            percentileMs(sorted, 0.50), percentileMs(sorted, 0.99),
+            percentileMs(sorted, 0.999), count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+    
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
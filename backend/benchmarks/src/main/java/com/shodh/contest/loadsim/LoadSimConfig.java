@@ -0,0 +1,41 @@
+package com.shodh.contest.loadsim;
+
+import com.shodh.contest.repository.TestCaseRepository;
+import com.shodh.contest.service.CpuSetAllocator;
+import com.shodh.contest.service.JudgeMetrics;
+import com.shodh.contest.service.JudgeService;
+import com.shodh.contest.service.WorkspaceManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Swaps Docker and Redis for in-process fakes when the backend is booted by
+ * {@link ContestLoadSimulator}.
+ */
+@Configuration
+@Profile("loadsim")
+public class LoadSimConfig {
+    
+    @Bean
+    @Primary
+    public JudgeService fakeJudgeService(CpuSetAllocator cpuSetAllocator,
+                                         JudgeMetrics judgeMetrics,
+                                         WorkspaceManager workspaceManager,
+                                         TestCaseRepository testCaseRepository,
+                                         @Value("${loadsim.judge.latency-median-ms}") double latencyMedianMs,
+                                         @Value("${loadsim.judge.latency-sigma}") double latencySigma,
+                                         @Value("${loadsim.judge.verdicts}") String verdicts) {
+        return new FakeJudgeService(cpuSetAllocator, judgeMetrics, workspaceManager, testCaseRepository,
+            latencyMedianMs, latencySigma, verdicts);
+    }
+    
+    @Bean
+    @Primary
+    public RedisTemplate<String, Object> inMemoryRedisTemplate() {
+        return new InMemoryRedisTemplate();
+    }
+}
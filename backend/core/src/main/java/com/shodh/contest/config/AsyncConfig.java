@@ -0,0 +1,46 @@
+package com.shodh.contest.config;
+
+import com.shodh.contest.service.CpuSetAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    
+    @Bean(name = "taskExecutor")
+    public Executor taskExecutor(CpuSetAllocator cpuSetAllocator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (cpuSetAllocator.isEnabled()) {
+            // One worker per leasable core; more would only wait for a lease
+            executor.setCorePoolSize(cpuSetAllocator.getCapacity());
+            executor.setMaxPoolSize(cpuSetAllocator.getCapacity());
+        } else {
+            executor.setCorePoolSize(4);
+            executor.setMaxPoolSize(8);
+        }
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("async-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Rejudges run on their own small pool. Their sandbox runs lease cores in
+     * the {@code REJUDGE} lane, so live submissions are served first.
+     */
+    @Bean(name = "rejudgeExecutor")
+    public Executor rejudgeExecutor(@Value("${shodh.rejudge.parallelism:2}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("rejudge-");
+        executor.initialize();
+        return executor;
+    }
+}
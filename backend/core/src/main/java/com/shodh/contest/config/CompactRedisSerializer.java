@@ -0,0 +1,459 @@
+package com.shodh.contest.config;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.dto.WorkerHeartbeat;
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.enums.SubmissionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary Redis value codec for the types the platform caches. A payload is
+ * a magic byte, a format version, a flags byte, a type tag and the body.
+ * Known types are written field by field with varints (leaderboard ranks as
+ * deltas) and byte arrays as they are; anything else is embedded as JSON.
+ * Bodies above the compression threshold are deflated when that makes them
+ * smaller.
+ *
+ * <p>Values written by the previous JSON serializer are always read, and a
+ * payload from a newer format version reads as a cache miss. Instances from
+ * before this codec cannot read it, so it is rolled out in two phases: first
+ * deploy with {@link WriteFormat#JSON}, which reads both formats but still
+ * writes JSON, then switch to {@link WriteFormat#COMPACT} once no old
+ * instance is left. Byte arrays and verdict events are always written in the
+ * binary format; JSON cannot round-trip them and only newer instances use
+ * them.
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    
+    private static final byte MAGIC = (byte) 0xC5;
+    private static final int VERSION = 3; // 2 added the leaderboard penalty, 3 verdict timings and raw bytes
+    private static final int HEADER_SIZE = 4;
+    
+    private static final int FLAG_DEFLATED = 1;
+    
+    private static final int TYPE_JSON = 0;
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_LEADERBOARD = 2;
+    private static final int TYPE_HEARTBEAT = 3;
+    private static final int TYPE_VERDICT = 4;
+    private static final int TYPE_BYTES = 5;
+    
+    public enum WriteFormat {
+        /** Jackson JSON with type metadata, readable by every instance */
+        JSON,
+        /** The binary format, readable only by instances with this codec */
+        COMPACT
+    }
+    
+    private final int compressThreshold;
+    private final WriteFormat writeFormat;
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    
+    /**
+     * @param compressThreshold body size in bytes above which deflate is
+     *                          tried; 0 or less disables compression
+     * @param writeFormat       format new values are written in; both are
+     *                          always read
+     */
+    public CompactRedisSerializer(int compressThreshold, WriteFormat writeFormat) {
+        this.compressThreshold = compressThreshold;
+        this.writeFormat = writeFormat;
+    }
+    
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (writeFormat == WriteFormat.JSON && !(value instanceof byte[]) && !(value instanceof VerdictEvent)) {
+            return json.serialize(jsonReadable(value));
+        }
+        
+        Writer body = new Writer();
+        int type;
+        if (value instanceof String text) {
+            type = TYPE_STRING;
+            body.writeRawString(text);
+        } else if (isLeaderboard(value)) {
+            type = TYPE_LEADERBOARD;
+            @SuppressWarnings("unchecked")
+            List<LeaderboardEntry> entries = (List<LeaderboardEntry>) value;
+            writeLeaderboard(body, entries);
+        } else if (value instanceof WorkerHeartbeat heartbeat) {
+            type = TYPE_HEARTBEAT;
+            writeHeartbeat(body, heartbeat);
+        } else if (value instanceof VerdictEvent verdict) {
+            type = TYPE_VERDICT;
+            writeVerdict(body, verdict);
+        } else if (value instanceof byte[] raw) {
+            type = TYPE_BYTES;
+            body.writeRaw(raw);
+        } else {
+            type = TYPE_JSON;
+            body.writeRaw(json.serialize(jsonReadable(value)));
+        }
+        
+        int flags = 0;
+        byte[] payload = body.toByteArray();
+        if (compressThreshold > 0 && payload.length > compressThreshold) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        
+        byte[] out = new byte[HEADER_SIZE + payload.length];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        out[2] = (byte) flags;
+        out[3] = (byte) type;
+        System.arraycopy(payload, 0, out, HEADER_SIZE, payload.length);
+        return out;
+    }
+    
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            // Written by the JSON serializer before this codec
+            return json.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("Truncated cache payload");
+        }
+        if (bytes[1] > VERSION) {
+            log.debug("Ignoring cache payload of newer format version {}", bytes[1]);
+            return null;
+        }
+        
+        byte[] payload = (bytes[2] & FLAG_DEFLATED) != 0
+            ? inflate(bytes, HEADER_SIZE)
+            : null;
+        Reader body = payload != null
+            ? new Reader(payload, 0)
+            : new Reader(bytes, HEADER_SIZE);
+        
+        try {
+            return switch (bytes[3]) {
+                case TYPE_STRING -> body.readRawString();
+                case TYPE_LEADERBOARD -> readLeaderboard(body, bytes[1]);
+                case TYPE_HEARTBEAT -> readHeartbeat(body);
+                case TYPE_VERDICT -> readVerdict(body, bytes[1]);
+                case TYPE_BYTES -> body.readRaw();
+                case TYPE_JSON -> json.deserialize(body.readRaw());
+                default -> null; // Type added by a newer instance
+            };
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            // Lengths or counts that run past the end, or negative ones
+            throw new SerializationException("Corrupt cache payload", e);
+        }
+    }
+    
+    // Immutable lists such as List.of() get a type id Jackson cannot read back
+    private static Object jsonReadable(Object value) {
+        return value instanceof List<?> list && !(value instanceof ArrayList<?>) ? new ArrayList<>(list) : value;
+    }
+    
+    private static boolean isLeaderboard(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof LeaderboardEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void writeLeaderboard(Writer out, List<LeaderboardEntry> entries) {
+        out.writeVarLong(entries.size());
+        int previousRank = 0;
+        for (LeaderboardEntry entry : entries) {
+            // Ranks are consecutive, so the delta is almost always one byte
+            if (entry.getRank() == null) {
+                out.writeNullableInt(null);
+            } else {
+                out.writeNullableInt(entry.getRank() - previousRank);
+                previousRank = entry.getRank();
+            }
+            out.writeString(entry.getUsername());
+            out.writeNullableInt(entry.getTotalScore());
+            out.writeNullableInt(entry.getProblemsSolved());
+            out.writeNullableInt(entry.getPenalty());
+        }
+    }
+    
+    private static List<LeaderboardEntry> readLeaderboard(Reader in, int version) {
+        int size = (int) in.readVarLong();
+        List<LeaderboardEntry> entries = new ArrayList<>(size);
+        int previousRank = 0;
+        for (int i = 0; i < size; i++) {
+            Integer delta = in.readNullableInt();
+            Integer rank = null;
+            if (delta != null) {
+                rank = previousRank + delta;
+                previousRank = rank;
+            }
+            String username = in.readString();
+            Integer totalScore = in.readNullableInt();
+            Integer problemsSolved = in.readNullableInt();
+            Integer penalty = version >= 2 ? in.readNullableInt() : null;
+            entries.add(new LeaderboardEntry(rank, username, totalScore, problemsSolved, penalty));
+        }
+        return entries;
+    }
+    
+    private static void writeHeartbeat(Writer out, WorkerHeartbeat heartbeat) {
+        out.writeString(heartbeat.getWorkerId());
+        out.writeString(heartbeat.getHost());
+        out.writeNullableInt(heartbeat.getCores());
+        List<Language> languages = heartbeat.getLanguages();
+        out.writeVarLong(languages == null ? 0 : languages.size() + 1L);
+        if (languages != null) {
+            languages.forEach(language -> out.writeString(language.name()));
+        }
+        out.writeNullableInt(heartbeat.getSlots());
+        out.writeNullableInt(heartbeat.getFreeSlots());
+        out.writeNullableInt(heartbeat.getWarmWorkspaces());
+        out.writeVarLong(heartbeat.getSentAt() == null ? 0 : heartbeat.getSentAt() + 1);
+    }
+    
+    private static WorkerHeartbeat readHeartbeat(Reader in) {
+        WorkerHeartbeat heartbeat = new WorkerHeartbeat();
+        heartbeat.setWorkerId(in.readString());
+        heartbeat.setHost(in.readString());
+        heartbeat.setCores(in.readNullableInt());
+        int languageCount = (int) in.readVarLong();
+        if (languageCount > 0) {
+            List<Language> languages = new ArrayList<>(languageCount - 1);
+            for (int i = 1; i < languageCount; i++) {
+                String name = in.readString();
+                try {
+                    languages.add(Language.valueOf(name));
+                } catch (IllegalArgumentException e) {
+                    // Language added by a newer instance
+                }
+            }
+            heartbeat.setLanguages(languages);
+        }
+        heartbeat.setSlots(in.readNullableInt());
+        heartbeat.setFreeSlots(in.readNullableInt());
+        heartbeat.setWarmWorkspaces(in.readNullableInt());
+        long sentAt = in.readVarLong();
+        heartbeat.setSentAt(sentAt == 0 ? null : sentAt - 1);
+        return heartbeat;
+    }
+    
+    private static void writeVerdict(Writer out, VerdictEvent verdict) {
+        out.writeString(verdict.contestId() == null ? null : verdict.contestId().toString());
+        out.writeString(verdict.problemId() == null ? null : verdict.problemId().toString());
+        out.writeString(verdict.username());
+        out.writeString(verdict.status() == null ? null : verdict.status().name());
+        out.writeString(verdict.submittedAt() == null ? null : verdict.submittedAt().toString());
+        out.writeString(verdict.submissionId() == null ? null : verdict.submissionId().toString());
+        out.writeString(verdict.judgedAt() == null ? null : verdict.judgedAt().toString());
+        out.writeNullableInt(verdict.executionTime());
+        out.writeNullableInt(verdict.memoryUsed());
+    }
+    
+    private static VerdictEvent readVerdict(Reader in, int version) {
+        String contestId = in.readString();
+        String problemId = in.readString();
+        String username = in.readString();
+        String status = in.readString();
+        String submittedAt = in.readString();
+        String submissionId = version >= 3 ? in.readString() : null;
+        String judgedAt = version >= 3 ? in.readString() : null;
+        Integer executionTime = version >= 3 ? in.readNullableInt() : null;
+        Integer memoryUsed = version >= 3 ? in.readNullableInt() : null;
+        try {
+            return new VerdictEvent(
+                submissionId == null ? null : UUID.fromString(submissionId),
+                contestId == null ? null : UUID.fromString(contestId),
+                problemId == null ? null : UUID.fromString(problemId),
+                username,
+                status == null ? null : SubmissionStatus.valueOf(status),
+                submittedAt == null ? null : LocalDateTime.parse(submittedAt),
+                judgedAt == null ? null : LocalDateTime.parse(judgedAt),
+                executionTime,
+                memoryUsed);
+        } catch (IllegalArgumentException e) {
+            return null; // Status added by a newer instance
+        }
+    }
+    
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    private static byte[] inflate(byte[] data, int offset) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((data.length - offset) * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated compressed cache payload");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed cache payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private static final class Writer {
+        
+        private byte[] buffer = new byte[256];
+        private int size;
+        
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+        
+        /**
+         * Zigzag-encodes the value shifted by one so null costs a single
+         * zero byte.
+         */
+        void writeNullableInt(Integer value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            int zigzag = (value << 1) ^ (value >> 31);
+            writeVarLong((zigzag & 0xFFFFFFFFL) + 1);
+        }
+        
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            writeBytes(utf8);
+        }
+        
+        void writeRawString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        void writeRaw(byte[] bytes) {
+            writeBytes(bytes);
+        }
+        
+        private void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+        
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, size + extra)];
+                System.arraycopy(buffer, 0, grown, 0, size);
+                buffer = grown;
+            }
+        }
+        
+        byte[] toByteArray() {
+            byte[] out = new byte[size];
+            System.arraycopy(buffer, 0, out, 0, size);
+            return out;
+        }
+    }
+    
+    private static final class Reader {
+        
+        private final byte[] buffer;
+        private int position;
+        
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+        
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+        
+        Integer readNullableInt() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            int zigzag = (int) (encoded - 1);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        
+        String readString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+        
+        String readRawString() {
+            return new String(buffer, position, buffer.length - position, StandardCharsets.UTF_8);
+        }
+        
+        byte[] readRaw() {
+            byte[] out = new byte[buffer.length - position];
+            System.arraycopy(buffer, position, out, 0, out.length);
+            return out;
+        }
+    }
+}
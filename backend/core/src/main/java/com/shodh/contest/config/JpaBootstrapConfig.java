@@ -0,0 +1,39 @@
+package com.shodh.contest.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.repository.config.BootstrapMode;
+
+/**
+ * With {@code spring.data.jpa.repositories.bootstrap-mode=deferred}, builds
+ * the entity manager factory, schema generation included, on its own thread
+ * while the rest of the context starts. Repositories are initialized once
+ * the context is refreshed; anything that needs the database before then
+ * waits for the factory.
+ */
+@Configuration
+public class JpaBootstrapConfig {
+    
+    // A bean of its own, so Spring Boot never falls back to the task scheduler for this
+    @Bean
+    public AsyncTaskExecutor jpaBootstrapExecutor() {
+        return new SimpleAsyncTaskExecutor("jpa-bootstrap-");
+    }
+    
+    @Bean
+    public EntityManagerFactoryBuilderCustomizer backgroundJpaBootstrap(
+            @Qualifier("jpaBootstrapExecutor") AsyncTaskExecutor jpaBootstrapExecutor,
+            @Value("${spring.data.jpa.repositories.bootstrap-mode:default}") BootstrapMode bootstrapMode) {
+        return builder -> {
+            // In the default mode repositories are built eagerly, so the context would wait right away
+            if (bootstrapMode != BootstrapMode.DEFAULT) {
+                builder.setBootstrapExecutor(jpaBootstrapExecutor);
+            }
+        };
+    }
+}
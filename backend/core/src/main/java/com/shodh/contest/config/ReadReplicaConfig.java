@@ -0,0 +1,68 @@
+package com.shodh.contest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in
+ * {@code shodh.datasource.replicas.urls}. The primary keeps its
+ * {@code spring.datasource.*} settings and replicas use the same credentials
+ * unless their own are set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shodh.datasource.replicas.urls")
+public class ReadReplicaConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry registry,
+            @Value("${shodh.datasource.replicas.urls}") String urls,
+            @Value("${shodh.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${shodh.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${shodh.datasource.replicas.pool-size:10}") int poolSize,
+            @Value("${shodh.datasource.replicas.max-lag-ms:1000}") long maxLagMs) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMs, registry);
+    }
+    
+    /**
+     * Connections are fetched on first use, once the transaction is known to
+     * be read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
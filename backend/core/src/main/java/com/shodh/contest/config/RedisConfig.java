@@ -0,0 +1,34 @@
+package com.shodh.contest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+@Configuration
+@EnableCaching
+public class RedisConfig {
+    
+    /** Payloads above this many bytes are deflated when that shrinks them */
+    public static final int DEFAULT_COMPRESS_THRESHOLD = 1024;
+    
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(
+            RedisConnectionFactory connectionFactory,
+            @Value("${shodh.redis.compress-threshold-bytes:" + DEFAULT_COMPRESS_THRESHOLD + "}") int compressThreshold,
+            @Value("${shodh.redis.write-format:JSON}") CompactRedisSerializer.WriteFormat writeFormat) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new CompactRedisSerializer(compressThreshold, writeFormat));
+        return template;
+    }
+    
+    public static RedisSerializer<Object> valueSerializer() {
+        return new CompactRedisSerializer(DEFAULT_COMPRESS_THRESHOLD, CompactRedisSerializer.WriteFormat.COMPACT);
+    }
+}
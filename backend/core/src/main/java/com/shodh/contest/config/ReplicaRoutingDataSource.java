@@ -0,0 +1,161 @@
+package com.shodh.contest.config;
+
+import com.shodh.contest.util.ReadRouting;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to a read replica, in
+ * turn, and everything else to the primary. A replica whose replay lag is
+ * above the limit, or that cannot be reached, gets no reads until it catches
+ * up; with no replica in sync, reads fall back to the primary.
+ *
+ * <p>A replica counts as in sync only once it replayed the WAL position the
+ * primary had when the check started. Comparing its received and replayed
+ * positions is not enough: both stop moving when the WAL receiver is
+ * disconnected or stalled, and a replica that stopped streaming never
+ * catches up.
+ *
+ * <p>The routing key is read when a connection is first used, so this must
+ * sit behind a lazy connection proxy: the transaction is only marked
+ * read-only after it began.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private static final String PRIMARY = "primary";
+    
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+    
+    // Zero once the replica replayed the primary's position from just before the check. Otherwise the age of
+    // the last replayed transaction, or NULL when no WAL is streaming in and the replica cannot catch up.
+    private static final String LAG_QUERY = """
+        SELECT CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0
+            WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+            ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+        END
+        """;
+    
+    private final List<String> replicaKeys;
+    private final JdbcTemplate primaryProbe;
+    private final Map<String, JdbcTemplate> lagProbes = new HashMap<>();
+    private final Map<String, Double> lagMs = new ConcurrentHashMap<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    
+    // Replicas that may take reads, replaced on every lag check
+    private volatile List<String> inSync = List.of();
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLagMs,
+                                    MeterRegistry registry) {
+        this.maxLagMs = maxLagMs;
+        this.primaryProbe = new JdbcTemplate(primary);
+        primaryProbe.setQueryTimeout(2);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            keys.add(key);
+            targets.put(key, replicas.get(i));
+            JdbcTemplate probe = new JdbcTemplate(replicas.get(i));
+            probe.setQueryTimeout(2);
+            lagProbes.put(key, probe);
+            lagMs.put(key, Double.NaN);
+            Gauge.builder("db.replica.lag", lagMs, lags -> lags.get(key))
+                .tag("replica", key)
+                .description("Replay lag of the replica in milliseconds, NaN when unreachable")
+                .baseUnit("milliseconds")
+                .register(registry);
+        }
+        this.replicaKeys = List.copyOf(keys);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+        checkLag();
+        for (String key : replicaKeys) {
+            if (!inSync.contains(key)) {
+                log.warn("{} is unreachable or behind; its reads go to the primary until it catches up", key);
+            }
+        }
+    }
+    
+    /**
+     * Closes the replica pools; the primary is closed by its owner.
+     */
+    public void close() {
+        for (Object target : getResolvedDataSources().values()) {
+            if (target != getResolvedDefaultDataSource() && target instanceof AutoCloseable pool) {
+                try {
+                    pool.close();
+                } catch (Exception e) {
+                    log.warn("Could not close replica pool", e);
+                }
+            }
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadRouting.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        List<String> candidates = inSync;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+    
+    @Scheduled(fixedDelayString = "${shodh.datasource.replicas.lag-check-ms:1000}")
+    public void checkLag() {
+        String primaryLsn;
+        try {
+            primaryLsn = primaryProbe.queryForObject(PRIMARY_LSN_QUERY, String.class);
+        } catch (Exception e) {
+            // Replicas are then judged by the age of their last replayed transaction alone
+            primaryLsn = null;
+            log.debug("Could not read the primary's WAL position", e);
+        }
+        List<String> healthy = new ArrayList<>();
+        for (String key : replicaKeys) {
+            Double lag;
+            try {
+                lag = lagProbes.get(key).queryForObject(LAG_QUERY, Double.class, primaryLsn);
+            } catch (Exception e) {
+                lag = null;
+                log.debug("Lag check of {} failed", key, e);
+            }
+            lagMs.put(key, lag == null ? Double.NaN : lag);
+            
+            boolean usable = lag != null && lag <= maxLagMs;
+            if (usable) {
+                healthy.add(key);
+            }
+            if (usable != inSync.contains(key)) {
+                if (usable) {
+                    log.info("Routing reads to {}, lag {} ms", key, Math.round(lag));
+                } else {
+                    log.warn("Stopped routing reads to {}, lag {}", key, lag == null ? "unknown" : Math.round(lag) + " ms");
+                }
+            }
+        }
+        inSync = List.copyOf(healthy);
+    }
+}
@@ -0,0 +1,52 @@
+package com.shodh.contest.dto;
+
+import com.shodh.contest.enums.SubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContestStats {
+    private UUID contestId;
+    private Long submissions; // Final verdicts, system errors excluded
+    private Long accepted;
+    private Distribution executionTime; // ms, accepted submissions of every problem
+    private Distribution memory; // KB, accepted submissions of every problem
+    private List<ProblemStats> problems;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProblemStats {
+        private UUID problemId;
+        private String title;
+        private Long attempts;
+        private Long accepted;
+        private Double acceptanceRate; // null before the first attempt
+        private Map<SubmissionStatus, Long> verdicts;
+        private Distribution executionTime;
+        private Distribution memory;
+    }
+    
+    /**
+     * Approximate percentiles, within the sketch accuracy of a real value;
+     * min and max are exact.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Distribution {
+        private Long count;
+        private Integer min;
+        private Integer p50;
+        private Integer p90;
+        private Integer p99;
+        private Integer max;
+    }
+}
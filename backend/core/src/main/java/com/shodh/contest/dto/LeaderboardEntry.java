@@ -10,8 +10,11 @@ import java.io.Serializable;
 @NoArgsConstructor
 @AllArgsConstructor
 public class LeaderboardEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
     private Integer rank;
     private String username;
     private Integer totalScore;
     private Integer problemsSolved;
+    private Integer penalty; // Penalty minutes, null unless the contest uses ICPC scoring
 }
@@ -0,0 +1,21 @@
+package com.shodh.contest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shodh.contest.enums.SubmissionStatus;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TimelineEvent {
+    private String type; // ENQUEUED, DEQUEUED, VERDICT_CACHE_HIT, TEST_START, TEST_END, TEST_REUSED, FINISHED, TRUNCATED
+    private Instant at;
+    private Integer testCase; // 1-based, as in verdict messages
+    private SubmissionStatus status;
+    private Integer wallTime; // ms, including container start
+    private Integer compileTime; // ms, measured inside the container
+    private Integer runTime; // ms, measured inside the container
+    private Integer cpuTime; // ms of user + system CPU
+    private Integer memoryKb; // peak RSS
+}
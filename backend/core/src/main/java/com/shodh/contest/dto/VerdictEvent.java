@@ -0,0 +1,29 @@
+package com.shodh.contest.dto;
+
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.enums.SubmissionStatus;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Final verdict of a submission as seen by the scoring engine and the
+ * contest analytics.
+ */
+public record VerdictEvent(UUID submissionId,
+                           UUID contestId,
+                           UUID problemId,
+                           String username,
+                           SubmissionStatus status,
+                           LocalDateTime submittedAt,
+                           LocalDateTime judgedAt,
+                           Integer executionTime,
+                           Integer memoryUsed) implements Serializable {
+    
+    public static VerdictEvent of(Submission submission) {
+        return new VerdictEvent(submission.getId(), submission.getContestId(), submission.getProblemId(),
+            submission.getUsername(), submission.getStatus(), submission.getSubmittedAt(),
+            submission.getJudgedAt(), submission.getExecutionTime(), submission.getMemoryUsed());
+    }
+}
@@ -0,0 +1,25 @@
+package com.shodh.contest.dto;
+
+import com.shodh.contest.enums.Language;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkerHeartbeat implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private String workerId;
+    private String host;
+    private Integer cores; // Leasable physical cores, 0 when pinning is off
+    private List<Language> languages;
+    private Integer slots; // Submissions judged concurrently
+    private Integer freeSlots;
+    private Integer warmWorkspaces;
+    private Long sentAt; // Epoch millis
+}
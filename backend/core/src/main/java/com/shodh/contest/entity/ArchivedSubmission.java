@@ -0,0 +1,77 @@
+package com.shodh.contest.entity;
+
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.enums.SubmissionStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only copy of a {@link Submission} belonging to a finished contest.
+ * Rows are moved here by {@code SubmissionArchiver} so the live table only
+ * holds submissions of running contests.
+ */
+@Data
+@Entity
+@Table(name = "submissions_archive", indexes = {
+    @Index(name = "idx_submissions_archive_history", columnList = "contest_id, username, submitted_at, id"),
+    @Index(name = "idx_submissions_archive_judged", columnList = "contest_id, judged_at")
+})
+public class ArchivedSubmission {
+    
+    @Id
+    private UUID id;
+    
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String code;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Language language;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SubmissionStatus status;
+    
+    @Column(name = "execution_time")
+    private Integer executionTime;
+    
+    @Column(name = "memory_used")
+    private Integer memoryUsed;
+    
+    @Column(name = "test_cases_passed")
+    private Integer testCasesPassed;
+    
+    @Column(name = "test_cases_total")
+    private Integer testCasesTotal;
+    
+    @Column(length = 1000)
+    private String verdict;
+    
+    @Column(name = "system_error", nullable = false)
+    private Boolean systemError;
+    
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+    
+    @Column(name = "judged_at")
+    private LocalDateTime judgedAt;
+    
+    @Column(nullable = false)
+    private String username;
+    
+    @Column(name = "problem_id", nullable = false)
+    private UUID problemId;
+    
+    @Column(name = "contest_id", nullable = false)
+    private UUID contestId;
+    
+    // Packed execution timeline, see SubmissionTimeline
+    @Column(name = "timeline", length = 16384)
+    private byte[] timeline;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -1,5 +1,6 @@
 package com.shodh.contest.entity;
 
+import com.shodh.contest.enums.ScoringMode;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -30,9 +31,29 @@ public class Contest {
     @Column(name = "end_time")
     private LocalDateTime endTime;
     
+    // Public standings only count submissions made before this, until the unfreeze
+    @Column(name = "freeze_time")
+    private LocalDateTime freezeTime;
+    
+    // Null keeps the standings frozen until it is set
+    @Column(name = "unfreeze_time")
+    private LocalDateTime unfreezeTime;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scoring_mode", nullable = false)
+    private ScoringMode scoringMode = ScoringMode.POINTS;
+    
+    // ICPC only: minutes added per rejected attempt on a solved problem
+    @Column(name = "penalty_minutes", nullable = false)
+    private Integer penaltyMinutes = 20;
+    
     @OneToMany(mappedBy = "contest", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Problem> problems = new ArrayList<>();
     
+    // Set once every submission has been moved to the archive
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
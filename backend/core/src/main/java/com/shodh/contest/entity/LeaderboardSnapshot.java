@@ -0,0 +1,40 @@
+package com.shodh.contest.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Standings of a contest at one point in time. Keyframes hold every ranked
+ * user, the snapshots between them only what changed since the previous
+ * sequence number; see StandingsCodec.
+ */
+@Data
+@Entity
+@Table(name = "leaderboard_snapshots",
+    uniqueConstraints = @UniqueConstraint(name = "uk_leaderboard_snapshots_sequence",
+        columnNames = {"contest_id", "sequence"}),
+    indexes = @Index(name = "idx_leaderboard_snapshots_taken", columnList = "contest_id, taken_at"))
+public class LeaderboardSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "contest_id", nullable = false)
+    private UUID contestId;
+    
+    @Column(nullable = false)
+    private Long sequence;
+    
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+    
+    @Column(nullable = false)
+    private Boolean keyframe;
+    
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
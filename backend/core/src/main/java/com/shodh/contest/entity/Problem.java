@@ -1,5 +1,6 @@
 package com.shodh.contest.entity;
 
+import com.shodh.contest.enums.CheckerType;
 import com.shodh.contest.enums.Difficulty;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -36,6 +37,18 @@ public class Problem {
     @Column(nullable = false)
     private Integer points;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "checker_type", nullable = false)
+    private CheckerType checkerType = CheckerType.EXACT;
+    
+    // EPSILON only: largest accepted absolute or relative error
+    @Column(name = "checker_epsilon")
+    private Double checkerEpsilon = 1e-6;
+    
+    // CUSTOM only: C++ source run as "checker <input> <output> <answer>", exit 0 accepts
+    @Column(name = "checker_source", columnDefinition = "TEXT")
+    private String checkerSource;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contest_id")
     private Contest contest;
@@ -10,7 +10,10 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = {
+    @Index(name = "idx_submissions_history", columnList = "contest_id, username, submitted_at, id"),
+    @Index(name = "idx_submissions_judged", columnList = "contest_id, judged_at")
+})
 public class Submission {
     
     @Id
@@ -43,9 +46,20 @@ public class Submission {
     @Column(length = 1000)
     private String verdict;
     
+    // Judging failed for reasons outside the code, so the verdict is not scored
+    @Column(name = "system_error", nullable = false)
+    private Boolean systemError = false;
+    
     @Column(name = "submitted_at")
     private LocalDateTime submittedAt;
     
+    @Column(name = "judged_at")
+    private LocalDateTime judgedAt;
+    
+    // Judge holding the claim, only ever written by SubmissionRepository.claim
+    @Column(name = "judged_by", insertable = false, updatable = false)
+    private String judgedBy;
+    
     @Column(nullable = false)
     private String username;
     
@@ -54,4 +68,8 @@ public class Submission {
     
     @Column(name = "contest_id", nullable = false)
     private UUID contestId;
+    
+    // Packed execution timeline, see SubmissionTimeline
+    @Column(name = "timeline", length = 16384)
+    private byte[] timeline;
 }
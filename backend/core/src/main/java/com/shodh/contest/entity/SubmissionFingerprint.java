@@ -0,0 +1,41 @@
+package com.shodh.contest.entity;
+
+import com.shodh.contest.enums.Language;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * MinHash signature of an accepted submission, kept apart from the
+ * submission so it outlives archiving.
+ */
+@Data
+@Entity
+@Table(name = "submission_fingerprints", indexes = {
+    @Index(name = "idx_fingerprints_problem", columnList = "problem_id, indexed_at")
+})
+public class SubmissionFingerprint {
+    
+    @Id
+    @Column(name = "submission_id")
+    private UUID submissionId;
+    
+    @Column(name = "problem_id", nullable = false)
+    private UUID problemId;
+    
+    @Column(nullable = false)
+    private String username;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Language language;
+    
+    // See CodeFingerprint
+    @Column(nullable = false, length = 512)
+    private byte[] signature;
+    
+    @Column(name = "indexed_at", nullable = false)
+    private LocalDateTime indexedAt;
+}
@@ -0,0 +1,39 @@
+package com.shodh.contest.entity;
+
+import com.shodh.contest.enums.SubmissionStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Outcome of running one submission against one test case, keyed by the
+ * test case's content hash so rejudges only rerun tests that changed.
+ */
+@Data
+@Entity
+@Table(name = "test_case_results", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"submission_id", "test_case_hash"})
+})
+public class TestCaseResult {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "submission_id", nullable = false)
+    private UUID submissionId;
+    
+    @Column(name = "test_case_hash", nullable = false, length = 64)
+    private String testCaseHash;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SubmissionStatus status;
+    
+    @Column(name = "execution_time")
+    private Integer executionTime;
+    
+    @Column(length = 1000)
+    private String error;
+}
@@ -0,0 +1,8 @@
+package com.shodh.contest.enums;
+
+public enum CheckerType {
+    EXACT,   // Whole output equal after trimming leading and trailing whitespace
+    TOKENS,  // Same whitespace-separated tokens, line breaks and spacing ignored
+    EPSILON, // Like TOKENS, but numbers within an absolute or relative error are equal
+    CUSTOM   // A problem-supplied checker program decides
+}
@@ -0,0 +1,6 @@
+package com.shodh.contest.enums;
+
+public enum ScoringMode {
+    POINTS, // Sum of problem points, ties broken by the earlier last accept
+    ICPC    // Problems solved, then penalty time: accept minute plus a fixed penalty per rejected attempt
+}
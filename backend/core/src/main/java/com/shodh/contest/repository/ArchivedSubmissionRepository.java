@@ -0,0 +1,64 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.entity.ArchivedSubmission;
+import com.shodh.contest.enums.SubmissionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedSubmissionRepository extends JpaRepository<ArchivedSubmission, UUID> {
+    
+    @Query("SELECT s FROM ArchivedSubmission s WHERE s.contestId = :contestId AND s.username = :username " +
+           "ORDER BY s.submittedAt DESC, s.id DESC")
+    List<ArchivedSubmission> findHistoryFirstPage(@Param("contestId") UUID contestId,
+                                                  @Param("username") String username,
+                                                  Pageable pageable);
+    
+    @Query("SELECT s FROM ArchivedSubmission s WHERE s.contestId = :contestId AND s.username = :username " +
+           "AND (s.submittedAt < :submittedAt OR (s.submittedAt = :submittedAt AND s.id < :id)) " +
+           "ORDER BY s.submittedAt DESC, s.id DESC")
+    List<ArchivedSubmission> findHistoryAfter(@Param("contestId") UUID contestId,
+                                              @Param("username") String username,
+                                              @Param("submittedAt") LocalDateTime submittedAt,
+                                              @Param("id") UUID id,
+                                              Pageable pageable);
+    
+    /**
+     * Streams the final verdicts of a contest, oldest submission first.
+     * System errors are left out, they say nothing about the code.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.shodh.contest.dto.VerdictEvent(s.id, s.contestId, s.problemId, s.username, s.status, s.submittedAt, " +
+           "s.judgedAt, s.executionTime, s.memoryUsed) " +
+           "FROM ArchivedSubmission s WHERE s.contestId = :contestId AND s.status NOT IN :unfinished " +
+           "AND s.submittedAt IS NOT NULL AND s.systemError = false " +
+           "ORDER BY s.submittedAt")
+    Stream<VerdictEvent> streamVerdictsByContestId(@Param("contestId") UUID contestId,
+                                                   @Param("unfinished") Collection<SubmissionStatus> unfinished);
+    
+    /**
+     * Streams the final verdicts of a contest judged at or after
+     * {@code since}, in no particular order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.shodh.contest.dto.VerdictEvent(s.id, s.contestId, s.problemId, s.username, s.status, s.submittedAt, " +
+           "s.judgedAt, s.executionTime, s.memoryUsed) " +
+           "FROM ArchivedSubmission s WHERE s.contestId = :contestId AND s.judgedAt >= :since " +
+           "AND s.status NOT IN :unfinished AND s.systemError = false")
+    Stream<VerdictEvent> streamVerdictsJudgedSince(@Param("contestId") UUID contestId,
+                                                   @Param("since") LocalDateTime since,
+                                                   @Param("unfinished") Collection<SubmissionStatus> unfinished);
+}
@@ -0,0 +1,29 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.entity.Contest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ContestRepository extends JpaRepository<Contest, UUID> {
+    List<Contest> findByEndTimeBeforeAndArchivedAtIsNull(LocalDateTime time);
+    List<Contest> findByEndTimeIsNullOrEndTimeAfter(LocalDateTime time);
+    
+    /**
+     * Contests started by {@code now} that did not end before {@code endedAfter}.
+     */
+    @Query("SELECT c FROM Contest c WHERE (c.startTime IS NULL OR c.startTime <= :now) " +
+           "AND (c.endTime IS NULL OR c.endTime >= :endedAfter)")
+    List<Contest> findRunning(@Param("now") LocalDateTime now, @Param("endedAfter") LocalDateTime endedAfter);
+    
+    @Modifying
+    @Query("UPDATE Contest c SET c.archivedAt = :archivedAt WHERE c.id = :id")
+    int markArchived(@Param("id") UUID id, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,23 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.entity.LeaderboardSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LeaderboardSnapshotRepository extends JpaRepository<LeaderboardSnapshot, UUID> {
+    Optional<LeaderboardSnapshot> findFirstByContestIdOrderBySequenceDesc(UUID contestId);
+    
+    Optional<LeaderboardSnapshot> findFirstByContestIdAndTakenAtLessThanEqualOrderBySequenceDesc(
+        UUID contestId, LocalDateTime takenAt);
+    
+    Optional<LeaderboardSnapshot> findFirstByContestIdAndKeyframeTrueAndSequenceLessThanEqualOrderBySequenceDesc(
+        UUID contestId, Long sequence);
+    
+    List<LeaderboardSnapshot> findByContestIdAndSequenceBetweenOrderBySequence(UUID contestId, Long from, Long to);
+}
@@ -4,8 +4,10 @@ import com.shodh.contest.entity.Problem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProblemRepository extends JpaRepository<Problem, UUID> {
+    List<Problem> findByContestId(UUID contestId);
 }
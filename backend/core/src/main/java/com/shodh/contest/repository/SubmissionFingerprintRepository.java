@@ -0,0 +1,16 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.entity.SubmissionFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SubmissionFingerprintRepository extends JpaRepository<SubmissionFingerprint, UUID> {
+    List<SubmissionFingerprint> findByProblemId(UUID problemId);
+    
+    List<SubmissionFingerprint> findByProblemIdAndIndexedAtGreaterThanEqual(UUID problemId, LocalDateTime indexedAt);
+}
@@ -0,0 +1,149 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.enums.SubmissionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface SubmissionRepository extends JpaRepository<Submission, UUID> {
+    boolean existsByContestId(UUID contestId);
+    
+    @Query("SELECT s.id FROM Submission s WHERE s.id IN :ids AND s.status NOT IN :unfinished")
+    List<UUID> findFinishedIds(@Param("ids") Collection<UUID> ids,
+                               @Param("unfinished") Collection<SubmissionStatus> unfinished);
+    
+    /**
+     * Marks a pending submission as running on {@code judge} and commits at
+     * once. Returns 0 when it is no longer pending, in which case another
+     * judge has it or it is finished.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE submissions SET status = 'RUNNING', judged_by = :judge " +
+                   "WHERE id = :id AND status = 'PENDING'",
+           nativeQuery = true)
+    int claim(@Param("id") UUID id, @Param("judge") String judge);
+    
+    /**
+     * Returns the running submissions of {@code judge} among {@code ids} to
+     * pending, so that another judge can claim them.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE submissions SET status = 'PENDING', judged_by = NULL " +
+                   "WHERE id IN (:ids) AND status = 'RUNNING' AND judged_by = :judge",
+           nativeQuery = true)
+    int releaseClaims(@Param("ids") Collection<UUID> ids, @Param("judge") String judge);
+    
+    /**
+     * Locks the submission row until the end of the transaction and returns
+     * the judge holding its claim. Pending changes are not flushed first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "SELECT judged_by FROM submissions WHERE id = :id FOR UPDATE", nativeQuery = true)
+    String lockClaim(@Param("id") UUID id);
+    
+    boolean existsByUsernameAndProblemIdAndStatus(String username, UUID problemId, SubmissionStatus status);
+    boolean existsByUsernameAndProblemIdAndStatusAndIdNot(String username, UUID problemId,
+                                                          SubmissionStatus status, UUID id);
+    
+    @Query("SELECT s.id AS id, s.username AS username, s.problemId AS problemId FROM Submission s " +
+           "WHERE s.problemId = :problemId ORDER BY s.submittedAt")
+    List<RejudgeTarget> findRejudgeTargetsByProblemId(@Param("problemId") UUID problemId);
+    
+    @Query("SELECT s.id AS id, s.username AS username, s.problemId AS problemId FROM Submission s " +
+           "WHERE s.contestId = :contestId ORDER BY s.submittedAt")
+    List<RejudgeTarget> findRejudgeTargetsByContestId(@Param("contestId") UUID contestId);
+    
+    @Query("SELECT s FROM Submission s WHERE s.status = :status " +
+           "AND NOT EXISTS (SELECT 1 FROM SubmissionFingerprint f WHERE f.submissionId = s.id) " +
+           "ORDER BY s.submittedAt")
+    List<Submission> findWithoutFingerprint(@Param("status") SubmissionStatus status, Pageable pageable);
+    
+    @Query("SELECT s FROM Submission s WHERE s.contestId = :contestId AND s.username = :username " +
+           "ORDER BY s.submittedAt DESC, s.id DESC")
+    List<Submission> findHistoryFirstPage(@Param("contestId") UUID contestId,
+                                          @Param("username") String username,
+                                          Pageable pageable);
+    
+    @Query("SELECT s FROM Submission s WHERE s.contestId = :contestId AND s.username = :username " +
+           "AND (s.submittedAt < :submittedAt OR (s.submittedAt = :submittedAt AND s.id < :id)) " +
+           "ORDER BY s.submittedAt DESC, s.id DESC")
+    List<Submission> findHistoryAfter(@Param("contestId") UUID contestId,
+                                      @Param("username") String username,
+                                      @Param("submittedAt") LocalDateTime submittedAt,
+                                      @Param("id") UUID id,
+                                      Pageable pageable);
+    
+    /**
+     * Moves up to {@code batchSize} finished submissions of a contest into
+     * {@code submissions_archive} in a single statement. Their per-test
+     * results are deleted with them: archived submissions are never rejudged.
+     */
+    @Modifying
+    @Query(value = "WITH moved AS (" +
+                   "  DELETE FROM submissions WHERE id IN (" +
+                   "    SELECT id FROM submissions WHERE contest_id = :contestId " +
+                   "    AND status NOT IN ('PENDING', 'RUNNING') LIMIT :batchSize)" +
+                   "  RETURNING *), " +
+                   "dropped AS (" +
+                   "  DELETE FROM test_case_results WHERE submission_id IN (SELECT id FROM moved)) " +
+                   "INSERT INTO submissions_archive (id, code, language, status, execution_time, memory_used, " +
+                   "  test_cases_passed, test_cases_total, verdict, system_error, submitted_at, judged_at, username, " +
+                   "  problem_id, contest_id, timeline, archived_at) " +
+                   "SELECT id, code, language, status, execution_time, memory_used, test_cases_passed, " +
+                   "  test_cases_total, verdict, system_error, submitted_at, judged_at, username, problem_id, contest_id, " +
+                   "  timeline, now() " +
+                   "FROM moved",
+           nativeQuery = true)
+    int archiveBatch(@Param("contestId") UUID contestId, @Param("batchSize") int batchSize);
+    
+    /**
+     * Streams the final verdicts of a contest, oldest submission first.
+     * System errors are left out, they say nothing about the code.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.shodh.contest.dto.VerdictEvent(s.id, s.contestId, s.problemId, s.username, s.status, s.submittedAt, " +
+           "s.judgedAt, s.executionTime, s.memoryUsed) " +
+           "FROM Submission s WHERE s.contestId = :contestId AND s.status NOT IN :unfinished " +
+           "AND s.submittedAt IS NOT NULL AND s.systemError = false " +
+           "ORDER BY s.submittedAt")
+    Stream<VerdictEvent> streamVerdictsByContestId(@Param("contestId") UUID contestId,
+                                                   @Param("unfinished") Collection<SubmissionStatus> unfinished);
+    
+    /**
+     * Streams the final verdicts of a contest judged at or after
+     * {@code since}, in no particular order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.shodh.contest.dto.VerdictEvent(s.id, s.contestId, s.problemId, s.username, s.status, s.submittedAt, " +
+           "s.judgedAt, s.executionTime, s.memoryUsed) " +
+           "FROM Submission s WHERE s.contestId = :contestId AND s.judgedAt >= :since " +
+           "AND s.status NOT IN :unfinished AND s.systemError = false")
+    Stream<VerdictEvent> streamVerdictsJudgedSince(@Param("contestId") UUID contestId,
+                                                   @Param("since") LocalDateTime since,
+                                                   @Param("unfinished") Collection<SubmissionStatus> unfinished);
+    
+    /** A submission to rejudge, with the (user, problem) pair its score belongs to. */
+    interface RejudgeTarget {
+        UUID getId();
+        String getUsername();
+        UUID getProblemId();
+    }
+}
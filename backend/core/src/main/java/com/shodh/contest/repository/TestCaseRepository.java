@@ -0,0 +1,13 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.entity.TestCase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TestCaseRepository extends JpaRepository<TestCase, UUID> {
+    List<TestCase> findByProblemIdAndIsSampleTrue(UUID problemId);
+}
@@ -0,0 +1,13 @@
+package com.shodh.contest.repository;
+
+import com.shodh.contest.entity.TestCaseResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TestCaseResultRepository extends JpaRepository<TestCaseResult, UUID> {
+    List<TestCaseResult> findBySubmissionId(UUID submissionId);
+}
@@ -1,7 +1,9 @@
 package com.shodh.contest.repository;
 
 import com.shodh.contest.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,5 +13,9 @@ import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsernameAndContestId(String username, UUID contestId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<User> findForUpdateByUsernameAndContestId(String username, UUID contestId);
+    
     List<User> findByContestIdOrderByTotalScoreDescProblemsSolvedDescLastSubmissionTimeAsc(UUID contestId);
 }
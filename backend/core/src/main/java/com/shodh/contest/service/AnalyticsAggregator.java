@@ -0,0 +1,283 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.ContestStats;
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.entity.Contest;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.repository.ArchivedSubmissionRepository;
+import com.shodh.contest.repository.ContestRepository;
+import com.shodh.contest.repository.ProblemRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.util.ExpiringIdSet;
+import com.shodh.contest.util.ReadRouting;
+import com.shodh.contest.util.Transactions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link ContestStatistics} per contest, fed with every final verdict
+ * like the {@link ScoringEngine}. A contest is loaded on its first stats
+ * read: from its last checkpoint in Redis plus the verdicts judged since,
+ * or from the whole submission log if there is no usable checkpoint.
+ * Changed statistics are checkpointed periodically and on shutdown.
+ *
+ * <p>A rejudge invalidates the contest and drops its checkpoint, since past
+ * verdicts changed.
+ */
+@Slf4j
+@Service
+public class AnalyticsAggregator {
+    
+    private static final String CHECKPOINT_PREFIX = "analytics:checkpoint:";
+    
+    private static final List<SubmissionStatus> UNFINISHED =
+        List.of(SubmissionStatus.PENDING, SubmissionStatus.RUNNING);
+    
+    private final ContestRepository contestRepository;
+    private final ProblemRepository problemRepository;
+    private final SubmissionRepository submissionRepository;
+    private final ArchivedSubmissionRepository archivedSubmissionRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final double accuracy;
+    private final Duration grace;
+    
+    private final Map<UUID, ContestStatistics> contests = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> checkpointedVersions = new ConcurrentHashMap<>();
+    private final ExpiringIdSet unknownContests;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    
+    // Verdicts that arrive while a contest is loading, guarded by this
+    private final List<VerdictEvent> pending = new ArrayList<>();
+    private UUID loadingContest;
+    
+    // Orders checkpoint writes against invalidation, so a stale state is never written back
+    private final Object checkpointLock = new Object();
+    
+    public AnalyticsAggregator(ContestRepository contestRepository,
+                               ProblemRepository problemRepository,
+                               SubmissionRepository submissionRepository,
+                               ArchivedSubmissionRepository archivedSubmissionRepository,
+                               RedisTemplate<String, Object> redisTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${shodh.analytics.enabled:true}") boolean enabled,
+                               @Value("${shodh.analytics.sketch-accuracy:0.01}") double accuracy,
+                               @Value("${shodh.analytics.checkpoint-grace-ms:300000}") long graceMs,
+                               @Value("${shodh.scoring.unknown-contest-ttl-ms:60000}") long unknownContestTtlMs) {
+        this.contestRepository = contestRepository;
+        this.problemRepository = problemRepository;
+        this.submissionRepository = submissionRepository;
+        this.archivedSubmissionRepository = archivedSubmissionRepository;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.accuracy = accuracy;
+        this.grace = Duration.ofMillis(graceMs);
+        this.unknownContests = new ExpiringIdSet(Duration.ofMillis(unknownContestTtlMs));
+    }
+    
+    /**
+     * Records a final verdict once the current transaction commits.
+     */
+    public void record(VerdictEvent event) {
+        Transactions.afterCommit(() -> apply(event));
+    }
+    
+    /**
+     * Applies a verdict to the statistics of its contest, if they are loaded.
+     */
+    public void apply(VerdictEvent event) {
+        if (!enabled || event.contestId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (event.contestId().equals(loadingContest)) {
+                pending.add(event);
+                return;
+            }
+        }
+        ContestStatistics statistics = contests.get(event.contestId());
+        if (statistics != null) {
+            statistics.apply(event);
+        }
+    }
+    
+    public ContestStats stats(UUID contestId) {
+        ContestStatistics statistics = load(contestId);
+        if (statistics == null) {
+            throw new RuntimeException(enabled ? "Contest not found" : "Contest analytics are disabled");
+        }
+        return statistics.snapshot();
+    }
+    
+    /**
+     * Changes whenever the stats of the contest do, for caching renders; the
+     * low bit tells whether the contest is frozen.
+     */
+    public long version(UUID contestId) {
+        ContestStatistics statistics = load(contestId);
+        return statistics == null ? 0 : statistics.version() * 2 + (statistics.isFrozen(LocalDateTime.now()) ? 1 : 0);
+    }
+    
+    /**
+     * Drops the statistics and checkpoint of a contest whose past verdicts
+     * changed; the next read rebuilds them from the submission log.
+     */
+    public void invalidate(UUID contestId) {
+        synchronized (checkpointLock) {
+            contests.remove(contestId);
+            checkpointedVersions.remove(contestId);
+            unknownContests.remove(contestId);
+            try {
+                redisTemplate.delete(CHECKPOINT_PREFIX + contestId);
+            } catch (Exception e) {
+                log.warn("Could not drop analytics checkpoint of contest {}", contestId, e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${shodh.analytics.checkpoint-interval-ms:30000}",
+               initialDelayString = "${shodh.analytics.checkpoint-interval-ms:30000}")
+    public void checkpoint() {
+        for (Map.Entry<UUID, ContestStatistics> entry : contests.entrySet()) {
+            UUID contestId = entry.getKey();
+            ContestStatistics statistics = entry.getValue();
+            long version = statistics.version();
+            if (checkpointedVersions.getOrDefault(contestId, -1L) == version) {
+                continue;
+            }
+            byte[] checkpoint = statistics.checkpoint();
+            synchronized (checkpointLock) {
+                if (contests.get(contestId) != statistics) {
+                    continue; // Invalidated meanwhile
+                }
+                try {
+                    redisTemplate.opsForValue().set(CHECKPOINT_PREFIX + contestId, checkpoint);
+                    checkpointedVersions.put(contestId, version);
+                } catch (Exception e) {
+                    log.warn("Could not checkpoint analytics of contest {}", contestId, e);
+                }
+            }
+        }
+    }
+    
+    private ContestStatistics load(UUID contestId) {
+        ContestStatistics statistics = contests.get(contestId);
+        if (statistics != null || !enabled || unknownContests.contains(contestId)) {
+            return statistics;
+        }
+        
+        loadLock.lock();
+        try {
+            statistics = contests.get(contestId);
+            if (statistics != null) {
+                return statistics; // Loaded by the thread that held the lock
+            }
+            synchronized (this) {
+                loadingContest = contestId;
+            }
+            
+            ContestStatistics loaded = null;
+            try {
+                // A replica may not have the verdicts applied before the load began
+                loaded = ReadRouting.primary(() -> readOnlyTransaction.execute(status -> build(contestId)));
+            } finally {
+                synchronized (this) {
+                    if (loaded != null) {
+                        // Pending verdicts may be part of the load already; the state skips those
+                        pending.forEach(loaded::apply);
+                        contests.put(contestId, loaded);
+                    }
+                    pending.clear();
+                    loadingContest = null;
+                }
+            }
+            if (loaded == null) {
+                unknownContests.add(contestId);
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+    
+    private ContestStatistics build(UUID contestId) {
+        Contest contest = contestRepository.findById(contestId).orElse(null);
+        if (contest == null) {
+            return null;
+        }
+        List<Problem> problems = problemRepository.findByContestId(contestId);
+        long start = System.nanoTime();
+        
+        ContestStatistics restored = restore(contest, problems);
+        if (restored != null) {
+            LocalDateTime since = restored.replayFrom();
+            long verdicts = replay(restored,
+                submissionRepository.streamVerdictsJudgedSince(contestId, since, UNFINISHED),
+                archivedSubmissionRepository.streamVerdictsJudgedSince(contestId, since, UNFINISHED));
+            restored.prune();
+            log.info("Restored analytics of contest {} from a checkpoint and {} newer verdicts in {} ms",
+                contestId, verdicts, (System.nanoTime() - start) / 1_000_000);
+            return restored;
+        }
+        
+        ContestStatistics built = new ContestStatistics(contest, problems, accuracy, grace);
+        long verdicts = replay(built,
+            submissionRepository.streamVerdictsByContestId(contestId, UNFINISHED),
+            archivedSubmissionRepository.streamVerdictsByContestId(contestId, UNFINISHED));
+        built.prune();
+        log.info("Built analytics of contest {} from {} verdicts in {} ms",
+            contestId, verdicts, (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+    
+    private ContestStatistics restore(Contest contest, List<Problem> problems) {
+        UUID contestId = contest.getId();
+        try {
+            if (!(redisTemplate.opsForValue().get(CHECKPOINT_PREFIX + contestId) instanceof byte[] checkpoint)) {
+                return null;
+            }
+            ContestStatistics restored = ContestStatistics.restore(checkpoint, contest, problems, accuracy, grace);
+            // Without a judge time there is no telling which verdicts came after it
+            return restored != null && restored.replayFrom() != null ? restored : null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable analytics checkpoint of contest {}", contestId, e);
+            return null;
+        }
+    }
+    
+    private static long replay(ContestStatistics statistics, Stream<VerdictEvent> live, Stream<VerdictEvent> archived) {
+        long[] count = new long[1];
+        Consumer<VerdictEvent> apply = event -> {
+            statistics.apply(event);
+            count[0]++;
+        };
+        try (live; archived) {
+            live.forEach(apply);
+            archived.forEach(apply);
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,165 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.util.Hashing;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles custom checker sources into static binaries, once per distinct
+ * source. Binaries are stored under the cache directory by the SHA-256 of
+ * their source, so they survive restarts and are shared by every process on
+ * the host. Judge containers bind-mount them from the Docker host, so the
+ * directory must be the same path on the host and in the backend container.
+ */
+@Slf4j
+@Component
+public class CheckerCache {
+    
+    private static final Path FALLBACK_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "shodh-checkers");
+    
+    // Static, so the binary runs in every judge image whatever its libc
+    private static final String COMPILER_IMAGE = "shodh-judge-cpp:latest";
+    private static final String COMPILE_COMMAND =
+        "cat > /tmp/checker.cpp && g++ -O2 -static -o /tmp/checker /tmp/checker.cpp >&2 && cat /tmp/checker";
+    private static final long COMPILE_TIMEOUT_MS = 60_000;
+    private static final int MAX_ERROR_LENGTH = 2000;
+    
+    /**
+     * The checker source itself is broken; unlike other failures this is
+     * remembered until the source changes.
+     */
+    public static class CompileException extends IOException {
+        private static final long serialVersionUID = 1L;
+        
+        public CompileException(String message) {
+            super(message);
+        }
+    }
+    
+    private final Path dir;
+    private final Map<String, CompletableFuture<Path>> binaries = new ConcurrentHashMap<>();
+    
+    // Same Docker client as JudgeService
+    @Setter
+    @Value("${shodh.judge.docker-binary:docker}")
+    private String dockerBinary = "docker";
+    
+    public CheckerCache(@Value("${shodh.judge.checker.cache-dir:/dev/shm/shodh-checkers}") String dir) {
+        Path requested = Paths.get(dir);
+        this.dir = Files.isDirectory(requested.getParent()) ? requested : FALLBACK_DIR;
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not prepare the checker cache at " + this.dir, e);
+        }
+    }
+    
+    /**
+     * Binary of the checker compiled from {@code source}, compiling it on
+     * first use. Concurrent callers for the same source share one compile.
+     */
+    public Path binary(String source) throws IOException {
+        String hash = Hashing.sha256(source);
+        CompletableFuture<Path> compiling = new CompletableFuture<>();
+        CompletableFuture<Path> existing = binaries.putIfAbsent(hash, compiling);
+        if (existing == null) {
+            try {
+                compiling.complete(compile(hash, source));
+            } catch (IOException | RuntimeException e) {
+                if (!(e instanceof CompileException)) {
+                    binaries.remove(hash, compiling); // Worth retrying, e.g. Docker was unavailable
+                }
+                compiling.completeExceptionally(e);
+            }
+        }
+        
+        try {
+            return (existing != null ? existing : compiling).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Could not compile checker", e.getCause());
+        }
+    }
+    
+    private Path compile(String hash, String source) throws IOException {
+        Path binary = dir.resolve(hash);
+        if (Files.isExecutable(binary)) {
+            return binary; // Compiled by an earlier process
+        }
+        
+        long start = System.nanoTime();
+        Path partial = Files.createTempFile(dir, hash, ".partial");
+        Path errors = Files.createTempFile(dir, hash, ".log");
+        try {
+            List<String> command = List.of(
+                dockerBinary, "run", "--rm", "-i",
+                "--network=none",
+                "--memory=512m",
+                "--cpus=1",
+                "--pids-limit=50",
+                COMPILER_IMAGE,
+                "sh", "-c", COMPILE_COMMAND
+            );
+            Process process = new ProcessBuilder(command)
+                .redirectError(errors.toFile())
+                .start();
+            CompletableFuture<Void> watchdog = CompletableFuture.runAsync(process::destroyForcibly,
+                CompletableFuture.delayedExecutor(COMPILE_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            try {
+                try (OutputStream stdin = process.getOutputStream()) {
+                    stdin.write(source.getBytes(StandardCharsets.UTF_8));
+                }
+                try (InputStream stdout = process.getInputStream()) {
+                    Files.copy(stdout, partial, StandardCopyOption.REPLACE_EXISTING);
+                }
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+                throw new IOException("Interrupted while compiling checker", e);
+            } finally {
+                watchdog.cancel(false);
+            }
+            
+            if (process.exitValue() != 0) {
+                String error = Files.readString(errors, StandardCharsets.UTF_8).trim();
+                if (error.length() > MAX_ERROR_LENGTH) {
+                    error = error.substring(0, MAX_ERROR_LENGTH);
+                }
+                // Docker's own failures exit with 125 and up
+                if (process.exitValue() < 125 && error.contains("checker.cpp")) {
+                    throw new CompileException("Checker does not compile: " + error);
+                }
+                throw new IOException("Checker compiler exited with " + process.exitValue() + ": " + error);
+            }
+            
+            Files.setPosixFilePermissions(partial, PosixFilePermissions.fromString("r-xr-xr-x"));
+            Files.move(partial, binary, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Compiled checker {} in {} ms", hash.substring(0, 12), (System.nanoTime() - start) / 1_000_000);
+            return binary;
+        } finally {
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(errors);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.ContestStats;
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.entity.Contest;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.util.QuantileSketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analytics of one contest: per problem the attempt and verdict counts, and
+ * sketches of the execution time and memory of accepted submissions. Applying
+ * a verdict is O(1), and a snapshot costs the same however many submissions
+ * went in. A contest with a freeze time also gets counters fed only
+ * submissions made before it, which are shown while the contest is frozen.
+ *
+ * <p>The state tracks the newest judge time it has seen and the submissions
+ * judged within the grace period before it. A checkpoint carries both, so
+ * after a restore the verdicts judged since the grace period can be replayed
+ * without counting any twice.
+ */
+public class ContestStatistics {
+    
+    private static final int CHECKPOINT_FORMAT = 2; // 2 added the pre-freeze counters
+    
+    // Shared so a rebuilt state never reuses the version of the one it replaces
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    
+    private static final class ProblemCounters {
+        private final String title;
+        private long attempts;
+        private long accepted;
+        private final long[] verdicts = new long[SubmissionStatus.values().length];
+        private final QuantileSketch executionTime;
+        private final QuantileSketch memory;
+        
+        private ProblemCounters(String title, double accuracy) {
+            this.title = title;
+            this.executionTime = new QuantileSketch(accuracy);
+            this.memory = new QuantileSketch(accuracy);
+        }
+    }
+    
+    private final UUID contestId;
+    private final LocalDateTime freezeTime;
+    private final LocalDateTime unfreezeTime;
+    private final double accuracy;
+    private final Duration grace;
+    private final Map<UUID, ProblemCounters> problems;
+    private final Map<UUID, ProblemCounters> frozenProblems; // Null without a freeze time
+    
+    private final Map<UUID, LocalDateTime> recent = new HashMap<>(); // Submission id to judge time
+    private LocalDateTime watermark; // Newest judge time applied
+    private long version = VERSIONS.incrementAndGet();
+    
+    public ContestStatistics(Contest contest, List<Problem> problems, double accuracy, Duration grace) {
+        this.contestId = contest.getId();
+        this.freezeTime = contest.getFreezeTime();
+        this.unfreezeTime = contest.getUnfreezeTime();
+        this.accuracy = accuracy;
+        this.grace = grace;
+        this.problems = emptyCounters(problems, accuracy);
+        this.frozenProblems = freezeTime != null ? emptyCounters(problems, accuracy) : null;
+    }
+    
+    /**
+     * Applies a final verdict, unless the same submission was already
+     * applied within the grace period.
+     *
+     * @return whether the verdict changed the statistics
+     */
+    public synchronized boolean apply(VerdictEvent event) {
+        ProblemCounters counters = problems.get(event.problemId());
+        if (counters == null || event.status() == null) {
+            return false;
+        }
+        if (event.submissionId() != null && event.judgedAt() != null) {
+            if (recent.putIfAbsent(event.submissionId(), event.judgedAt()) != null) {
+                return false;
+            }
+            if (watermark == null || event.judgedAt().isAfter(watermark)) {
+                watermark = event.judgedAt();
+            }
+        }
+        
+        count(counters, event);
+        if (frozenProblems != null && event.submittedAt() != null && event.submittedAt().isBefore(freezeTime)) {
+            count(frozenProblems.get(event.problemId()), event);
+        }
+        version = VERSIONS.incrementAndGet();
+        return true;
+    }
+    
+    /**
+     * Judge time from which verdicts must be replayed on top of a restored
+     * checkpoint; {@code null} if the checkpoint held none with a judge time.
+     */
+    public synchronized LocalDateTime replayFrom() {
+        return watermark == null ? null : watermark.minus(grace);
+    }
+    
+    /**
+     * Forgets submissions judged before the grace period, which no replay
+     * can deliver again.
+     */
+    public synchronized void prune() {
+        LocalDateTime from = replayFrom();
+        if (from != null) {
+            recent.values().removeIf(judgedAt -> judgedAt.isBefore(from));
+        }
+    }
+    
+    public synchronized long version() {
+        return version;
+    }
+    
+    public boolean isFrozen(LocalDateTime now) {
+        return freezeTime != null && !now.isBefore(freezeTime) && (unfreezeTime == null || now.isBefore(unfreezeTime));
+    }
+    
+    /**
+     * Statistics for public views: those of submissions made before the
+     * freeze while the contest is frozen, otherwise of all of them.
+     */
+    public synchronized ContestStats snapshot() {
+        Map<UUID, ProblemCounters> shown = isFrozen(LocalDateTime.now()) ? frozenProblems : problems;
+        long submissions = 0;
+        long accepted = 0;
+        QuantileSketch executionTime = new QuantileSketch(accuracy);
+        QuantileSketch memory = new QuantileSketch(accuracy);
+        List<ContestStats.ProblemStats> perProblem = new ArrayList<>(shown.size());
+        for (Map.Entry<UUID, ProblemCounters> entry : shown.entrySet()) {
+            ProblemCounters counters = entry.getValue();
+            Map<SubmissionStatus, Long> verdicts = new EnumMap<>(SubmissionStatus.class);
+            for (SubmissionStatus status : SubmissionStatus.values()) {
+                if (counters.verdicts[status.ordinal()] > 0) {
+                    verdicts.put(status, counters.verdicts[status.ordinal()]);
+                }
+            }
+            perProblem.add(new ContestStats.ProblemStats(
+                entry.getKey(),
+                counters.title,
+                counters.attempts,
+                counters.accepted,
+                counters.attempts == 0 ? null : (double) counters.accepted / counters.attempts,
+                verdicts,
+                distribution(counters.executionTime),
+                distribution(counters.memory)
+            ));
+            submissions += counters.attempts;
+            accepted += counters.accepted;
+            executionTime.merge(counters.executionTime);
+            memory.merge(counters.memory);
+        }
+        return new ContestStats(contestId, submissions, accepted,
+            distribution(executionTime), distribution(memory), perProblem);
+    }
+    
+    /**
+     * Serializes the statistics for {@link #restore}.
+     */
+    public synchronized byte[] checkpoint() {
+        prune();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(CHECKPOINT_FORMAT);
+            out.writeDouble(accuracy);
+            out.writeUTF(freezeTime == null ? "" : freezeTime.toString());
+            out.writeUTF(watermark == null ? "" : watermark.toString());
+            out.writeInt(recent.size());
+            for (Map.Entry<UUID, LocalDateTime> entry : recent.entrySet()) {
+                writeUuid(out, entry.getKey());
+                out.writeUTF(entry.getValue().toString());
+            }
+            writeCounters(out, problems);
+            if (frozenProblems != null) {
+                writeCounters(out, frozenProblems);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Rebuilds statistics from a checkpoint, or returns {@code null} if it
+     * was written in another format, accuracy or freeze time, or misses one
+     * of {@code problems}, in which case the contest is rebuilt from the log.
+     * Problems no longer in the contest are dropped.
+     */
+    public static ContestStatistics restore(byte[] checkpoint, Contest contest, List<Problem> problems,
+                                            double accuracy, Duration grace) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(checkpoint));
+        if (in.readInt() != CHECKPOINT_FORMAT || in.readDouble() != accuracy) {
+            return null;
+        }
+        ContestStatistics statistics = new ContestStatistics(contest, problems, accuracy, grace);
+        String freezeTime = in.readUTF();
+        if (!Objects.equals(freezeTime.isEmpty() ? null : LocalDateTime.parse(freezeTime), statistics.freezeTime)) {
+            return null;
+        }
+        String watermark = in.readUTF();
+        statistics.watermark = watermark.isEmpty() ? null : LocalDateTime.parse(watermark);
+        int recent = in.readInt();
+        for (int i = 0; i < recent; i++) {
+            statistics.recent.put(readUuid(in), LocalDateTime.parse(in.readUTF()));
+        }
+        
+        if (!readCounters(in, statistics.problems, accuracy)) {
+            return null;
+        }
+        if (statistics.frozenProblems != null && !readCounters(in, statistics.frozenProblems, accuracy)) {
+            return null;
+        }
+        return statistics;
+    }
+    
+    private static Map<UUID, ProblemCounters> emptyCounters(List<Problem> problems, double accuracy) {
+        Map<UUID, ProblemCounters> counters = new LinkedHashMap<>();
+        for (Problem problem : problems) {
+            counters.put(problem.getId(), new ProblemCounters(problem.getTitle(), accuracy));
+        }
+        return counters;
+    }
+    
+    private static void count(ProblemCounters counters, VerdictEvent event) {
+        counters.attempts++;
+        counters.verdicts[event.status().ordinal()]++;
+        if (event.status() == SubmissionStatus.ACCEPTED) {
+            counters.accepted++;
+            if (event.executionTime() != null) {
+                counters.executionTime.add(event.executionTime());
+            }
+            if (event.memoryUsed() != null) {
+                counters.memory.add(event.memoryUsed());
+            }
+        }
+    }
+    
+    private static void writeCounters(DataOutputStream out, Map<UUID, ProblemCounters> problems) throws IOException {
+        out.writeInt(problems.size());
+        for (Map.Entry<UUID, ProblemCounters> entry : problems.entrySet()) {
+            ProblemCounters counters = entry.getValue();
+            writeUuid(out, entry.getKey());
+            out.writeLong(counters.attempts);
+            out.writeLong(counters.accepted);
+            // By name, so adding a status does not shift the counts
+            int statuses = 0;
+            for (long count : counters.verdicts) {
+                statuses += count > 0 ? 1 : 0;
+            }
+            out.writeInt(statuses);
+            for (SubmissionStatus status : SubmissionStatus.values()) {
+                if (counters.verdicts[status.ordinal()] > 0) {
+                    out.writeUTF(status.name());
+                    out.writeLong(counters.verdicts[status.ordinal()]);
+                }
+            }
+            counters.executionTime.writeTo(out);
+            counters.memory.writeTo(out);
+        }
+    }
+    
+    /**
+     * Reads stored counters into {@code problems}.
+     *
+     * @return whether every problem had stored counters
+     */
+    private static boolean readCounters(DataInputStream in, Map<UUID, ProblemCounters> problems,
+                                        double accuracy) throws IOException {
+        int stored = in.readInt();
+        int matched = 0;
+        for (int i = 0; i < stored; i++) {
+            UUID problemId = readUuid(in);
+            long attempts = in.readLong();
+            long accepted = in.readLong();
+            long[] verdicts = new long[SubmissionStatus.values().length];
+            int statuses = in.readInt();
+            for (int j = 0; j < statuses; j++) {
+                String status = in.readUTF();
+                long count = in.readLong();
+                try {
+                    verdicts[SubmissionStatus.valueOf(status).ordinal()] = count;
+                } catch (IllegalArgumentException e) {
+                    return false; // Status this version does not know
+                }
+            }
+            QuantileSketch executionTime = QuantileSketch.readFrom(in, accuracy);
+            QuantileSketch memory = QuantileSketch.readFrom(in, accuracy);
+            
+            ProblemCounters counters = problems.get(problemId);
+            if (counters == null) {
+                continue;
+            }
+            counters.attempts = attempts;
+            counters.accepted = accepted;
+            System.arraycopy(verdicts, 0, counters.verdicts, 0, verdicts.length);
+            counters.executionTime.merge(executionTime);
+            counters.memory.merge(memory);
+            matched++;
+        }
+        return matched == problems.size();
+    }
+    
+    private static ContestStats.Distribution distribution(QuantileSketch sketch) {
+        return new ContestStats.Distribution(sketch.count(), sketch.min(), sketch.quantile(0.5),
+            sketch.quantile(0.9), sketch.quantile(0.99), sketch.max());
+    }
+    
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+    
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,345 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.util.JudgeLane;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Leases exclusive physical cores to judge containers. Hyperthread siblings
+ * are leased together so two runs never share a core's caches, and the
+ * first cores are kept back for the backend itself. When the host has more
+ * than one NUMA node, the lease also names the node owning the core.
+ * <p>
+ * Leases are drawn per {@link JudgeLane}. The last {@code run-cores} cores
+ * are kept for test runs, which never use any other core. Live submissions
+ * and rejudges share the rest, but a rejudge only gets a core while no live
+ * submission is waiting, and rejudges hold at most {@code rejudge-max-leases}
+ * cores at once.
+ * <p>
+ * The backend and every judge worker on a host lease from the same cores, so
+ * a lease also takes a lock file for its core under {@code lock-dir}, which
+ * must be the same host directory for all of them. Cores another process
+ * holds are skipped, and waiters poll for them since its releases cannot
+ * wake them.
+ */
+@Slf4j
+@Component
+public class CpuSetAllocator {
+    
+    private static final Path CPU_ROOT = Paths.get("/sys/devices/system/cpu");
+    private static final Path NODE_ROOT = Paths.get("/sys/devices/system/node");
+    
+    public record Lease(String cpus, Integer memNode, JudgeLane lane, CpuSetAllocator owner) implements AutoCloseable {
+        @Override
+        public void close() {
+            if (owner != null) {
+                owner.release(this);
+            }
+        }
+    }
+    
+    private static final Lease UNPINNED = new Lease(null, null, null, null);
+    
+    // How often a waiter looks again for cores held by other processes
+    private static final long HOST_POLL_MS = 50;
+    
+    private final boolean enabled;
+    private final int capacity;
+    private final int runCores;
+    private final int rejudgeMaxLeases;
+    private final Deque<Lease> shared = new ArrayDeque<>();
+    private final Deque<Lease> runReserved = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Path lockDir;
+    private final Map<String, FileLock> hostLocks = new HashMap<>();
+    private int liveWaiting;
+    private int rejudgeHeld;
+    
+    public CpuSetAllocator(@Value("${shodh.judge.cpu.pinning:true}") boolean pinning,
+                           @Value("${shodh.judge.cpu.reserved-cores:1}") int reservedCores,
+                           @Value("${shodh.judge.cpu.cores:}") String coresOverride,
+                           @Value("${shodh.judge.cpu.run-cores:0}") int runCores,
+                           @Value("${shodh.judge.cpu.rejudge-max-leases:1}") int rejudgeMaxLeases,
+                           @Value("${shodh.judge.cpu.lock-dir:}") String lockDir) {
+        List<Lease> leases = pinning ? buildLeases(reservedCores, coresOverride) : List.of();
+        this.enabled = !leases.isEmpty();
+        // Keep at least one core for submissions
+        int reserved = Math.max(0, Math.min(runCores, leases.size() - 1));
+        this.shared.addAll(leases.subList(0, leases.size() - reserved));
+        this.runReserved.addAll(leases.subList(leases.size() - reserved, leases.size()));
+        this.capacity = shared.size();
+        this.runCores = reserved;
+        this.rejudgeMaxLeases = Math.max(1, rejudgeMaxLeases);
+        this.lockDir = enabled ? prepareLockDir(lockDir) : null;
+        
+        if (enabled) {
+            log.info("CPU pinning enabled with {} leasable cores: {}; reserved for test runs: {}", capacity,
+                shared.stream().map(Lease::cpus).collect(Collectors.joining(" | ")),
+                runReserved.isEmpty() ? "none"
+                    : runReserved.stream().map(Lease::cpus).collect(Collectors.joining(" | ")));
+        } else {
+            log.info("CPU pinning disabled, judge containers use CFS quotas only");
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Number of submissions that can hold a dedicated core at the same time,
+     * or zero when pinning is disabled. Cores reserved for test runs are not
+     * counted.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Blocks until a core is free for the current {@link JudgeLane}. The
+     * returned lease must be closed once the container has exited.
+     */
+    public Lease acquire() throws InterruptedException {
+        if (!enabled) {
+            return UNPINNED;
+        }
+        JudgeLane lane = JudgeLane.current();
+        lock.lockInterruptibly();
+        try {
+            Lease core;
+            if (lane == JudgeLane.RUN && runCores > 0) {
+                while ((core = take(runReserved)) == null) {
+                    awaitRelease();
+                }
+            } else if (lane == JudgeLane.REJUDGE) {
+                while (liveWaiting > 0 || rejudgeHeld >= rejudgeMaxLeases || (core = take(shared)) == null) {
+                    awaitRelease();
+                }
+                rejudgeHeld++;
+            } else {
+                liveWaiting++;
+                try {
+                    while ((core = take(shared)) == null) {
+                        awaitRelease();
+                    }
+                } finally {
+                    if (--liveWaiting == 0) {
+                        released.signalAll(); // Rejudges may go again
+                    }
+                }
+            }
+            return new Lease(core.cpus(), core.memNode(), lane, this);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes and returns the first core of {@code cores} no other process
+     * holds, or null if there is none. Called with the lock held.
+     */
+    private Lease take(Deque<Lease> cores) {
+        Iterator<Lease> candidates = cores.iterator();
+        while (candidates.hasNext()) {
+            Lease core = candidates.next();
+            if (lockOnHost(core)) {
+                candidates.remove();
+                return core;
+            }
+        }
+        return null;
+    }
+    
+    private void awaitRelease() throws InterruptedException {
+        if (lockDir == null) {
+            released.await();
+        } else {
+            released.await(HOST_POLL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private boolean lockOnHost(Lease core) {
+        if (lockDir == null) {
+            return true;
+        }
+        Path file = lockDir.resolve("core-" + core.cpus().replace(',', '_') + ".lock");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock hostLock = channel.tryLock();
+            if (hostLock != null) {
+                hostLocks.put(core.cpus(), hostLock);
+                return true;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Held by another allocator in this JVM
+        } catch (IOException e) {
+            log.warn("Could not lock core {} in {}: {}", core.cpus(), lockDir, e.getMessage());
+        }
+        closeQuietly(channel);
+        return false;
+    }
+    
+    private void unlockOnHost(String cpus) {
+        FileLock hostLock = hostLocks.remove(cpus);
+        if (hostLock != null) {
+            // Closing the channel releases the lock
+            closeQuietly(hostLock.channel());
+        }
+    }
+    
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing core lock file", e);
+        }
+    }
+    
+    private static Path prepareLockDir(String lockDir) {
+        if (lockDir.isBlank()) {
+            log.warn("No shodh.judge.cpu.lock-dir set, core leases are exclusive within this process only");
+            return null;
+        }
+        try {
+            return Files.createDirectories(Paths.get(lockDir));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not prepare core lock directory " + lockDir, e);
+        }
+    }
+    
+    private void release(Lease lease) {
+        lock.lock();
+        try {
+            unlockOnHost(lease.cpus());
+            Lease core = new Lease(lease.cpus(), lease.memNode(), null, this);
+            if (lease.lane() == JudgeLane.RUN && runCores > 0) {
+                runReserved.offer(core);
+            } else {
+                if (lease.lane() == JudgeLane.REJUDGE) {
+                    rejudgeHeld--;
+                }
+                shared.offer(core);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private List<Lease> buildLeases(int reservedCores, String coresOverride) {
+        TreeSet<Integer> cpus = coresOverride.isBlank()
+            ? readCpuList(CPU_ROOT.resolve("online"))
+            : parseCpuList(coresOverride);
+        if (cpus.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Integer, Integer> nodeOfCpu = readNumaNodes();
+        boolean numa = new TreeSet<>(nodeOfCpu.values()).size() > 1;
+        
+        // Group logical CPUs into physical cores by their sibling list
+        Map<String, TreeSet<Integer>> cores = new LinkedHashMap<>();
+        for (int cpu : cpus) {
+            TreeSet<Integer> siblings = readCpuList(
+                CPU_ROOT.resolve("cpu" + cpu).resolve("topology").resolve("thread_siblings_list"));
+            siblings.retainAll(cpus);
+            if (siblings.isEmpty()) {
+                siblings.add(cpu);
+            }
+            cores.putIfAbsent(formatCpuList(siblings), siblings);
+        }
+        
+        List<Lease> leases = new ArrayList<>();
+        int skipped = coresOverride.isBlank() ? reservedCores : 0;
+        for (Map.Entry<String, TreeSet<Integer>> core : cores.entrySet()) {
+            if (skipped > 0) {
+                skipped--;
+                continue;
+            }
+            Integer node = numa ? nodeOfCpu.get(core.getValue().first()) : null;
+            leases.add(new Lease(core.getKey(), node, null, this));
+        }
+        return leases;
+    }
+    
+    private Map<Integer, Integer> readNumaNodes() {
+        Map<Integer, Integer> nodeOfCpu = new HashMap<>();
+        if (!Files.isDirectory(NODE_ROOT)) {
+            return nodeOfCpu;
+        }
+        try (var nodes = Files.list(NODE_ROOT)) {
+            nodes.filter(path -> path.getFileName().toString().matches("node\\d+"))
+                .forEach(path -> {
+                    int node = Integer.parseInt(path.getFileName().toString().substring(4));
+                    for (int cpu : readCpuList(path.resolve("cpulist"))) {
+                        nodeOfCpu.put(cpu, node);
+                    }
+                });
+        } catch (IOException e) {
+            log.warn("Could not read NUMA topology", e);
+        }
+        return nodeOfCpu;
+    }
+    
+    private static TreeSet<Integer> readCpuList(Path file) {
+        try {
+            return parseCpuList(Files.readString(file).trim());
+        } catch (IOException | RuntimeException e) {
+            return new TreeSet<>();
+        }
+    }
+    
+    // Parses the kernel's cpulist format, e.g. "0-3,8,10-11"
+    static TreeSet<Integer> parseCpuList(String list) {
+        TreeSet<Integer> cpus = new TreeSet<>();
+        for (String part : list.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                cpus.add(Integer.parseInt(part));
+            } else {
+                int from = Integer.parseInt(part.substring(0, dash));
+                int to = Integer.parseInt(part.substring(dash + 1));
+                for (int cpu = from; cpu <= to; cpu++) {
+                    cpus.add(cpu);
+                }
+            }
+        }
+        return cpus;
+    }
+    
+    private static String formatCpuList(TreeSet<Integer> cpus) {
+        return cpus.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,136 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.enums.Language;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stage-level timers and gauges for the judge pipeline, exposed through
+ * Actuator at {@code /actuator/prometheus}. Stage timers publish percentile
+ * histograms so p50/p99 can be computed server-side.
+ */
+@Component
+public class JudgeMetrics {
+    
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlightSandboxes = new AtomicInteger();
+    
+    private final Counter verdictCacheHits;
+    private final Counter verdictCacheMisses;
+    private final Counter leaderboardCacheHits;
+    private final Counter leaderboardCacheMisses;
+    
+    public JudgeMetrics(MeterRegistry registry,
+                        @Qualifier("taskExecutor") Executor taskExecutor,
+                        VerdictCache verdictCache) {
+        this.registry = registry;
+        
+        this.verdictCacheHits = Counter.builder("judge.verdict.cache.requests")
+            .tag("result", "hit").register(registry);
+        this.verdictCacheMisses = Counter.builder("judge.verdict.cache.requests")
+            .tag("result", "miss").register(registry);
+        this.leaderboardCacheHits = Counter.builder("leaderboard.cache.requests")
+            .tag("result", "hit").register(registry);
+        this.leaderboardCacheMisses = Counter.builder("leaderboard.cache.requests")
+            .tag("result", "miss").register(registry);
+        
+        Gauge.builder("judge.sandboxes.in.flight", inFlightSandboxes, AtomicInteger::get)
+            .description("Judge containers currently running")
+            .register(registry);
+        Gauge.builder("judge.verdict.cache.size", verdictCache, VerdictCache::size)
+            .register(registry);
+        Gauge.builder("judge.verdict.cache.hit.ratio", this,
+                metrics -> ratio(metrics.verdictCacheHits, metrics.verdictCacheMisses))
+            .register(registry);
+        Gauge.builder("leaderboard.cache.hit.ratio", this,
+                metrics -> ratio(metrics.leaderboardCacheHits, metrics.leaderboardCacheMisses))
+            .register(registry);
+        
+        if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+            Gauge.builder("judge.queue.depth", pool,
+                    p -> p.getThreadPoolExecutor().getQueue().size())
+                .description("Submissions waiting for a judge thread")
+                .register(registry);
+            Gauge.builder("judge.executor.saturation", pool,
+                    p -> (double) p.getActiveCount() / p.getMaxPoolSize())
+                .description("Busy judge threads as a fraction of the pool")
+                .register(registry);
+        }
+    }
+    
+    public void recordQueueWait(Language language, Duration wait) {
+        timer("judge.queue.wait", "language", language.name()).record(wait);
+    }
+    
+    public void recordCoreLeaseWait(Language language, long nanos) {
+        timer("judge.core.lease.wait", "language", language.name()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordSandboxRun(Language language, String resultType, long nanos) {
+        timer("judge.sandbox.run", "language", language.name(), "result", resultType)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordOutputCompare(Language language, long nanos) {
+        timer("judge.output.compare", "language", language.name()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordPersist(long nanos) {
+        timer("judge.db.persist").record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordLeaderboardUpdate(long nanos) {
+        timer("judge.leaderboard.update").record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordSubmission(Language language, String verdict, long nanos) {
+        timer("judge.submission", "language", language.name(), "verdict", verdict)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void registerSpeedFactor(Language language, Supplier<Number> factor) {
+        Gauge.builder("judge.host.speed.factor", factor)
+            .tag("language", language.name())
+            .description("Time limit multiplier for this host, from the latest calibration")
+            .register(registry);
+    }
+    
+    public void sandboxStarted() {
+        inFlightSandboxes.incrementAndGet();
+    }
+    
+    public void sandboxFinished() {
+        inFlightSandboxes.decrementAndGet();
+    }
+    
+    public void verdictCacheLookup(boolean hit) {
+        (hit ? verdictCacheHits : verdictCacheMisses).increment();
+    }
+    
+    public void leaderboardCacheLookup(boolean hit) {
+        (hit ? leaderboardCacheHits : leaderboardCacheMisses).increment();
+    }
+    
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+    
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
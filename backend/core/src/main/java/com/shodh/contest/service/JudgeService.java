@@ -0,0 +1,681 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.enums.Language;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JudgeService {
+    
+    private final CpuSetAllocator cpuSetAllocator;
+    private final JudgeMetrics judgeMetrics;
+    private final WorkspaceManager workspaceManager;
+    
+    // Replaceable so benchmarks can launch a stub runner instead of Docker
+    @Setter
+    @Value("${shodh.judge.docker-binary:docker}")
+    private String dockerBinary = "docker";
+    
+    // Prefix of the timing lines the in-container wrapper writes to stderr
+    private static final String TIMING_MARKER = "__shodh_timing ";
+    
+    // Written by GNU time or by a runner that accounts for its own child
+    private static final String USAGE_FILE = "/tmp/.shodh-usage";
+    
+    // Writable build output; the source mount is read-only
+    private static final String BUILD_DIR = "/tmp/build";
+    
+    // Header prefix of the frames the batch harness streams on stdout
+    private static final String FRAME_MARKER = "#shodh";
+    private static final int MAX_FRAME_HEADER = 512;
+    
+    // Time the whole batch session may take on top of the per-test limits
+    private static final long BATCH_COMPILE_BUDGET_MS = 15_000;
+    private static final long BATCH_PER_TEST_SLACK_MS = 500;
+    
+    // Where a checker binary appears in the sandbox
+    private static final String CHECKER_PATH = "/opt/shodh/checker";
+    private static final long CHECKER_TIME_LIMIT_MS = 5_000;
+    
+    @Value("${shodh.judge.batch.enabled:true}")
+    private boolean batchEnabled = true;
+    
+    // Time limits are for the reference host; set by SpeedCalibrator
+    private final Map<Language, Double> speedFactors = new ConcurrentHashMap<>();
+    
+    @Data
+    public static class JudgeResult {
+        private boolean success;
+        private String output;
+        private String error;
+        private Integer executionTime;
+        private String resultType; // SUCCESS, TLE, RUNTIME_ERROR, COMPILATION_ERROR, MEMORY_LIMIT_EXCEEDED, SYSTEM_ERROR
+        
+        // Measured inside the container; null when unavailable
+        private Integer compileTime;
+        private Integer runTime;
+        private Integer cpuTime;
+        private Integer memoryKb;
+        
+        // Set when a checker program judged the output; null if it did not run
+        private Integer checkerExitCode;
+        private String checkerMessage;
+        
+        public JudgeResult(boolean success, String output, String error, 
+                           Integer executionTime, String resultType) {
+            this.success = success;
+            this.output = output;
+            this.error = error;
+            this.executionTime = executionTime;
+            this.resultType = resultType;
+        }
+    }
+    
+    /**
+     * Checker program run in the sandbox after every successful test, as
+     * {@code checker <input> <output> <answer>}. {@code answers} holds the
+     * expected output for each input; each is handed to the sandbox only
+     * once the run for its input has exited.
+     */
+    public record Checker(Path binary, List<String> answers) {
+    }
+    
+    /**
+     * Receives batch results in input order. Returning {@code false} ends the
+     * session and the remaining inputs are not run.
+     */
+    @FunctionalInterface
+    public interface BatchListener {
+        boolean onResult(int index, JudgeResult result);
+    }
+    
+    /**
+     * How much slower than the reference host this host runs code in
+     * {@code language}; time limits are multiplied by it.
+     */
+    public double getSpeedFactor(Language language) {
+        return speedFactors.getOrDefault(language, 1.0);
+    }
+    
+    public void setSpeedFactor(Language language, double factor) {
+        speedFactors.put(language, factor);
+    }
+    
+    /**
+     * Runs the code once in its own container. {@code timeLimitMs}, here and
+     * in {@link #executeBatch}, is the limit on the reference host and is
+     * scaled by this host's speed factor.
+     */
+    public JudgeResult executeCode(String code, Language language, String input, 
+                                   int timeLimitMs, int memoryLimitMb) {
+        // Wait for a dedicated core; queueing time is not execution time
+        long leaseStart = System.nanoTime();
+        CpuSetAllocator.Lease lease;
+        try {
+            lease = cpuSetAllocator.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new JudgeResult(false, "", "System Error: interrupted while waiting for a core", 
+                0, "SYSTEM_ERROR");
+        }
+        judgeMetrics.recordCoreLeaseWait(language, System.nanoTime() - leaseStart);
+        
+        long runStart = System.nanoTime();
+        judgeMetrics.sandboxStarted();
+        try {
+            JudgeResult result = runInSandbox(lease, code, language, input,
+                scaledTimeLimit(language, timeLimitMs), memoryLimitMb);
+            judgeMetrics.recordSandboxRun(language, result.getResultType(), System.nanoTime() - runStart);
+            return result;
+        } finally {
+            judgeMetrics.sandboxFinished();
+            lease.close();
+        }
+    }
+    
+    /**
+     * Runs the code once per input inside a single sandbox session, compiling
+     * only once, and reports each result to {@code listener} as soon as the
+     * harness streams it back. The container's limits apply to each run since
+     * runs are sequential; the time limit is enforced per run inside the
+     * sandbox. With batching disabled every input gets its own container,
+     * except with a {@code checker}, which only the batch harness can run.
+     */
+    public void executeBatch(String code, Language language, List<String> inputs,
+                             int timeLimitMs, int memoryLimitMb, Checker checker, BatchListener listener) {
+        if (!batchEnabled && checker == null) {
+            for (int i = 0; i < inputs.size(); i++) {
+                if (!listener.onResult(i, executeCode(code, language, inputs.get(i), timeLimitMs, memoryLimitMb))) {
+                    return;
+                }
+            }
+            return;
+        }
+        if (inputs.isEmpty()) {
+            return;
+        }
+        
+        long leaseStart = System.nanoTime();
+        CpuSetAllocator.Lease lease;
+        try {
+            lease = cpuSetAllocator.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.onResult(0, new JudgeResult(false, "", "System Error: interrupted while waiting for a core", 
+                0, "SYSTEM_ERROR"));
+            return;
+        }
+        judgeMetrics.recordCoreLeaseWait(language, System.nanoTime() - leaseStart);
+        
+        long runStart = System.nanoTime();
+        judgeMetrics.sandboxStarted();
+        try {
+            runBatchInSandbox(lease, code, language, inputs, scaledTimeLimit(language, timeLimitMs),
+                memoryLimitMb, checker, listener);
+        } finally {
+            judgeMetrics.recordSandboxRun(language, "BATCH", System.nanoTime() - runStart);
+            judgeMetrics.sandboxFinished();
+            lease.close();
+        }
+    }
+    
+    private int scaledTimeLimit(Language language, int timeLimitMs) {
+        return (int) Math.round(timeLimitMs * getSpeedFactor(language));
+    }
+    
+    private JudgeResult runInSandbox(CpuSetAllocator.Lease lease, String code, Language language, 
+                                     String input, int timeLimitMs, int memoryLimitMb) {
+        WorkspaceManager.Workspace workspace = null;
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            String executionId = UUID.randomUUID().toString();
+            workspace = workspaceManager.acquire();
+            
+            // Write code to file
+            workspace.write(getFileName(language), code);
+            
+            // Build Docker command
+            List<String> command = dockerRunCommand(executionId, lease, workspace.getDir(), language, 
+                memoryLimitMb, null, false);
+            command.addAll(List.of("sh", "-c", getExecuteCommand(language)));
+            
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+            
+            Process process = processBuilder.start();
+            
+            // Provide input
+            if (input != null && !input.isEmpty()) {
+                try (OutputStreamWriter writer = new OutputStreamWriter(process.getOutputStream())) {
+                    writer.write(input);
+                    writer.flush();
+                }
+            }
+            
+            // Wait for process with timeout
+            boolean completed = process.waitFor(timeLimitMs + 1000, TimeUnit.MILLISECONDS);
+            
+            if (!completed) {
+                process.destroyForcibly();
+                // Killing the client leaves the container running on its core
+                killContainer("shodh-" + executionId);
+                long executionTime = System.currentTimeMillis() - startTime;
+                return new JudgeResult(false, "", "Time Limit Exceeded", 
+                    (int) executionTime, "TLE");
+            }
+            
+            // Capture output
+            StringBuilder output = new StringBuilder();
+            StringBuilder error = new StringBuilder();
+            List<String> timingLines = new ArrayList<>();
+            
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line).append("\n");
+                }
+            }
+            
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(TIMING_MARKER)) {
+                        timingLines.add(line.substring(TIMING_MARKER.length()));
+                    } else {
+                        error.append(line).append("\n");
+                    }
+                }
+            }
+            
+            long executionTime = System.currentTimeMillis() - startTime;
+            int exitCode = process.exitValue();
+            
+            if (exitCode != 0) {
+                // The script exits before timing the run when the compiler fails
+                boolean compileFailed = timingLines.stream().anyMatch(line -> line.startsWith("compile "))
+                    && timingLines.stream().noneMatch(line -> line.startsWith("run "));
+                String errorMsg = error.length() > 0 ? error.toString()
+                    : compileFailed ? "Compilation Error" : "Runtime Error";
+                return withTimings(new JudgeResult(false, output.toString(), errorMsg, 
+                    (int) executionTime, compileFailed ? "COMPILATION_ERROR" : "RUNTIME_ERROR"), timingLines);
+            }
+            
+            return withTimings(new JudgeResult(true, output.toString(), "", 
+                (int) executionTime, "SUCCESS"), timingLines);
+        
+        } catch (Exception e) {
+            log.error("Error executing code", e);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return new JudgeResult(false, "", "System Error: " + e.getMessage(), 
+                (int) executionTime, "SYSTEM_ERROR");
+        } finally {
+            if (workspace != null) {
+                workspace.close();
+            }
+        }
+    }
+    
+    private void runBatchInSandbox(CpuSetAllocator.Lease lease, String code, Language language, 
+                                   List<String> inputs, int timeLimitMs, int memoryLimitMb, 
+                                   Checker checker, BatchListener listener) {
+        WorkspaceManager.Workspace workspace = null;
+        long startTime = System.currentTimeMillis();
+        int next = 0; // First input without a reported result
+        
+        try {
+            String executionId = UUID.randomUUID().toString();
+            String containerName = "shodh-" + executionId;
+            workspace = workspaceManager.acquire();
+            workspace.write(getFileName(language), code);
+            
+            List<String> command = dockerRunCommand(executionId, lease, workspace.getDir(), language, 
+                memoryLimitMb, checker != null ? checker.binary() : null, true);
+            command.addAll(getBatchCommand(language, inputs.size(), timeLimitMs, checker != null));
+            
+            Process process = new ProcessBuilder(command).start();
+            // Inputs and answers are never staged where the program could read them
+            Thread feeder = new Thread(() -> writeTests(process.getOutputStream(), inputs, 
+                checker != null ? checker.answers() : null), containerName + "-input");
+            feeder.setDaemon(true);
+            feeder.start();
+            
+            // Backstop for a harness that hangs; per-run limits are enforced inside
+            long perTestMs = timeLimitMs + BATCH_PER_TEST_SLACK_MS + (checker != null ? CHECKER_TIME_LIMIT_MS : 0);
+            long budgetMs = BATCH_COMPILE_BUDGET_MS + inputs.size() * perTestMs;
+            AtomicBoolean timedOut = new AtomicBoolean();
+            CompletableFuture<Void> watchdog = CompletableFuture.runAsync(() -> {
+                timedOut.set(true);
+                process.destroyForcibly();
+                killContainer(containerName);
+            }, CompletableFuture.delayedExecutor(budgetMs, TimeUnit.MILLISECONDS));
+            
+            boolean finished = false;
+            boolean stopped = false;
+            Integer compileTime = null;
+            try (InputStream stdout = new BufferedInputStream(process.getInputStream())) {
+                String header;
+                while (!finished && !stopped && (header = readFrameHeader(stdout)) != null) {
+                    String[] fields = header.split(" ");
+                    if (!fields[0].equals(FRAME_MARKER) || fields.length < 2) {
+                        throw new IOException("Malformed frame from batch harness: " + header);
+                    }
+                    switch (fields[1]) {
+                        case "compile" -> {
+                            compileTime = nanosToMillis(fields[3], fields[4]);
+                            String error = readPayload(stdout, fields[5]);
+                            if (!fields[2].equals("0")) {
+                                JudgeResult result = new JudgeResult(false, "", 
+                                    error.isEmpty() ? "Compilation Error" : error, compileTime, "COMPILATION_ERROR");
+                                result.setCompileTime(compileTime);
+                                listener.onResult(next, result);
+                                next = inputs.size();
+                                stopped = true;
+                            }
+                        }
+                        case "test" -> {
+                            int index = Integer.parseInt(fields[2]);
+                            JudgeResult result = readTestFrame(fields, stdout, timeLimitMs);
+                            if (index == 0) {
+                                result.setCompileTime(compileTime);
+                            }
+                            next = index + 1;
+                            stopped = !listener.onResult(index, result);
+                        }
+                        case "done" -> finished = true;
+                        default -> throw new IOException("Unknown frame from batch harness: " + header);
+                    }
+                }
+            } finally {
+                watchdog.cancel(false);
+                if (stopped) {
+                    // Remaining inputs are not needed, so end the session early
+                    process.destroyForcibly();
+                    killContainer(containerName);
+                }
+            }
+            
+            if (finished || stopped || next >= inputs.size()) {
+                return;
+            }
+            
+            long executionTime = System.currentTimeMillis() - startTime;
+            if (timedOut.get()) {
+                listener.onResult(next, new JudgeResult(false, "", "Time Limit Exceeded", 
+                    (int) executionTime, "TLE"));
+                return;
+            }
+            process.waitFor(5, TimeUnit.SECONDS);
+            String error = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+            listener.onResult(next, new JudgeResult(false, "", 
+                "System Error: " + (error.isBlank() ? "batch session ended early" : error.trim()), 
+                (int) executionTime, "SYSTEM_ERROR"));
+        
+        } catch (Exception e) {
+            log.error("Error executing batch", e);
+            if (next < inputs.size()) {
+                long executionTime = System.currentTimeMillis() - startTime;
+                listener.onResult(next, new JudgeResult(false, "", "System Error: " + e.getMessage(), 
+                    (int) executionTime, "SYSTEM_ERROR"));
+            }
+        } finally {
+            if (workspace != null) {
+                workspace.close();
+            }
+        }
+    }
+    
+    /**
+     * Writes each test to the batch harness as a line "<input bytes> <answer
+     * bytes>" followed by the input and the answer. The harness reads them
+     * one test at a time, so this blocks until it is ready for the next one,
+     * and stops quietly if the session ends first.
+     */
+    static void writeTests(OutputStream stdin, List<String> inputs, List<String> answers) {
+        try (OutputStream out = new BufferedOutputStream(stdin)) {
+            for (int i = 0; i < inputs.size(); i++) {
+                byte[] input = bytes(inputs.get(i));
+                byte[] answer = answers != null ? bytes(answers.get(i)) : new byte[0];
+                out.write((input.length + " " + answer.length + "\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(input);
+                out.write(answer);
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.debug("Batch session stopped reading tests: {}", e.getMessage());
+        }
+    }
+    
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private List<String> dockerRunCommand(String executionId, CpuSetAllocator.Lease lease, Path workspaceDir, 
+                                          Language language, int memoryLimitMb, Path checkerBinary, boolean batch) {
+        List<String> command = new ArrayList<>(List.of(
+            dockerBinary, "run",
+            "--rm",
+            "--name", "shodh-" + executionId,
+            "--network=none",
+            "--memory=" + memoryLimitMb + "m",
+            "--memory-swap=" + memoryLimitMb + "m",
+            "--cpus=1",
+            "--pids-limit=50"
+        ));
+        if (batch) {
+            // The harness starts as root with only what it needs to run the
+            // program as another uid, time it out and clean up after it
+            command.addAll(List.of(
+                "-i",
+                "--user=0:0",
+                "--cap-drop=ALL",
+                "--cap-add=SETUID",
+                "--cap-add=SETGID",
+                "--cap-add=KILL",
+                "--security-opt=no-new-privileges"
+            ));
+        }
+        if (lease.cpus() != null) {
+            command.add("--cpuset-cpus=" + lease.cpus());
+        }
+        if (lease.memNode() != null) {
+            command.add("--cpuset-mems=" + lease.memNode());
+        }
+        if (checkerBinary != null) {
+            command.addAll(List.of("-v", checkerBinary.toAbsolutePath() + ":" + CHECKER_PATH + ":ro"));
+        }
+        command.addAll(List.of(
+            "-v", workspaceDir.toAbsolutePath() + ":/app:ro",
+            "-w", "/app",
+            getDockerImage(language)
+        ));
+        return command;
+    }
+    
+    private void killContainer(String containerName) {
+        try {
+            new ProcessBuilder(dockerBinary, "kill", containerName)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start()
+                .waitFor(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Error killing container {}", containerName, e);
+        }
+    }
+    
+    private String getFileName(Language language) {
+        return switch (language) {
+            case JAVA -> "Solution.java";
+            case PYTHON -> "solution.py";
+            case CPP -> "solution.cpp";
+        };
+    }
+    
+    private String getDockerImage(Language language) {
+        return switch (language) {
+            case JAVA -> "shodh-judge-java:latest";
+            case PYTHON -> "shodh-judge-python:latest";
+            case CPP -> "shodh-judge-cpp:latest";
+        };
+    }
+    
+    private String getCompileCommand(Language language) {
+        return switch (language) {
+            case JAVA -> "mkdir -p " + BUILD_DIR + " && javac -d " + BUILD_DIR + " Solution.java";
+            case PYTHON -> null;
+            case CPP -> "mkdir -p " + BUILD_DIR + " && g++ -o " + BUILD_DIR + "/solution solution.cpp";
+        };
+    }
+    
+    private String getRunCommand(Language language) {
+        return switch (language) {
+            // A JVM cannot fork, so Java starts from the image's CDS archive instead
+            case JAVA -> "java -Xshare:auto -XX:SharedArchiveFile=/opt/shodh/jdk.jsa "
+                + "-Xlog:disable -Xlog:all=warning:stderr -cp " + BUILD_DIR + " Solution";
+            case PYTHON -> "python3 /opt/shodh/zygote.py solution.py --usage " + USAGE_FILE;
+            case CPP -> BUILD_DIR + "/solution";
+        };
+    }
+    
+    /**
+     * Command running the batch harness over the tests written to its stdin,
+     * checking each output with the mounted checker when there is one.
+     * Python uses its fork server, which speaks the same protocols.
+     */
+    private List<String> getBatchCommand(Language language, int count, int timeLimitMs, boolean checker) {
+        List<String> command = new ArrayList<>();
+        if (language == Language.PYTHON) {
+            command.addAll(List.of("python3", "/opt/shodh/zygote.py", getFileName(language),
+                "--batch", String.valueOf(count), "--time-limit", String.valueOf(timeLimitMs)));
+            if (checker) {
+                command.addAll(List.of("--checker", CHECKER_PATH, String.valueOf(CHECKER_TIME_LIMIT_MS)));
+            }
+            return command;
+        }
+        command.addAll(List.of("sh", "/opt/shodh/harness.sh", String.valueOf(count), 
+            String.valueOf(timeLimitMs), getCompileCommand(language), getRunCommand(language)));
+        if (checker) {
+            command.addAll(List.of(CHECKER_PATH, String.valueOf(CHECKER_TIME_LIMIT_MS)));
+        }
+        return command;
+    }
+    
+    /**
+     * Reads the payloads of a test frame and turns it into a result, with the
+     * checker's verdict when the checker ran.
+     */
+    static JudgeResult readTestFrame(String[] fields, InputStream in, int timeLimitMs) throws IOException {
+        if (fields.length != 11 && fields.length != 13) {
+            throw new IOException("Malformed test frame from batch harness: " + String.join(" ", fields));
+        }
+        JudgeResult result = toBatchResult(fields, readPayload(in, fields[9]), readPayload(in, fields[10]), 
+            timeLimitMs);
+        if (fields.length == 13) {
+            String message = readPayload(in, fields[12]);
+            if (!fields[11].equals("-")) {
+                result.setCheckerExitCode(Integer.parseInt(fields[11]));
+                result.setCheckerMessage(message);
+            }
+        }
+        return result;
+    }
+    
+    // fields: #shodh test <index> <rc> <start> <end> <user> <sys> <rss> <out bytes> <err bytes> [<checker rc> <checker bytes>]
+    static JudgeResult toBatchResult(String[] fields, String output, String error, int timeLimitMs) {
+        int exitCode = Integer.parseInt(fields[3]);
+        int runTime = nanosToMillis(fields[4], fields[5]);
+        
+        JudgeResult result;
+        // 124 is timeout's own status; a run that ignored SIGTERM is killed
+        // and reports 128 + SIGKILL instead, as do killed Python children
+        if (exitCode == 124 || (exitCode == 128 + 9 && runTime >= timeLimitMs)) {
+            result = new JudgeResult(false, "", "Time Limit Exceeded", runTime, "TLE");
+        } else if (exitCode != 0) {
+            result = new JudgeResult(false, output, error.isEmpty() ? "Runtime Error" : error, 
+                runTime, "RUNTIME_ERROR");
+        } else {
+            result = new JudgeResult(true, output, "", runTime, "SUCCESS");
+        }
+        result.setRunTime(runTime);
+        if (!fields[6].equals("-")) {
+            double cpuSeconds = Double.parseDouble(fields[6]) + Double.parseDouble(fields[7]);
+            result.setCpuTime((int) Math.round(cpuSeconds * 1000));
+            result.setMemoryKb(Integer.parseInt(fields[8]));
+        }
+        return result;
+    }
+    
+    static String readFrameHeader(InputStream in) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (header.size() == 0) {
+                    return null;
+                }
+                throw new IOException("Truncated frame header from batch harness");
+            }
+            if (header.size() >= MAX_FRAME_HEADER) {
+                throw new IOException("Oversized frame header from batch harness");
+            }
+            header.write(b);
+        }
+        return header.toString(StandardCharsets.UTF_8).trim();
+    }
+    
+    static String readPayload(InputStream in, String length) throws IOException {
+        int size = Integer.parseInt(length);
+        byte[] payload = in.readNBytes(size);
+        if (payload.length != size) {
+            throw new IOException("Truncated frame payload from batch harness");
+        }
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Whether the run command writes its own usage line, reporting only the
+     * forked child instead of the runner process as GNU time would.
+     */
+    private boolean reportsOwnUsage(Language language) {
+        return language == Language.PYTHON;
+    }
+    
+    /**
+     * Wraps compile and run so the container reports their own start/end
+     * times, plus CPU time and peak RSS from GNU time when the image has it.
+     */
+    private String getExecuteCommand(Language language) {
+        String compile = getCompileCommand(language);
+        String run = getRunCommand(language);
+        StringBuilder script = new StringBuilder();
+        if (compile != null) {
+            script.append("c0=$(date +%s%N); ").append(compile).append("; rc=$?; c1=$(date +%s%N); ")
+                .append("echo \"").append(TIMING_MARKER).append("compile $c0 $c1\" >&2; ")
+                .append("[ $rc -eq 0 ] || exit $rc; ");
+        }
+        script.append("r0=$(date +%s%N); ");
+        if (reportsOwnUsage(language)) {
+            script.append("timeout 5s ").append(run).append("; rc=$?; ");
+        } else {
+            script.append("if [ -x /usr/bin/time ]; then /usr/bin/time -f '%U %S %M' -o ").append(USAGE_FILE)
+                .append(" timeout 5s ").append(run).append("; else timeout 5s ").append(run).append("; fi; rc=$?; ");
+        }
+        script.append("r1=$(date +%s%N); ")
+            .append("echo \"").append(TIMING_MARKER)
+            .append("run $r0 $r1 $(tail -n 1 ").append(USAGE_FILE).append(" 2>/dev/null)\" >&2; exit $rc");
+        return script.toString();
+    }
+    
+    private JudgeResult withTimings(JudgeResult result, List<String> timingLines) {
+        for (String line : timingLines) {
+            String[] parts = line.trim().split("\\s+");
+            try {
+                if (parts[0].equals("compile") && parts.length >= 3) {
+                    result.setCompileTime(nanosToMillis(parts[1], parts[2]));
+                } else if (parts[0].equals("run") && parts.length >= 3) {
+                    result.setRunTime(nanosToMillis(parts[1], parts[2]));
+                    if (parts.length >= 6) {
+                        double cpuSeconds = Double.parseDouble(parts[3]) + Double.parseDouble(parts[4]);
+                        result.setCpuTime((int) Math.round(cpuSeconds * 1000));
+                        result.setMemoryKb(Integer.parseInt(parts[5]));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed timing line: {}", line);
+            }
+        }
+        return result;
+    }
+    
+    private static int nanosToMillis(String start, String end) {
+        return (int) ((Long.parseLong(end) - Long.parseLong(start)) / 1_000_000);
+    }
+}
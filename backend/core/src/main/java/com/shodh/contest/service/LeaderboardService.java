@@ -0,0 +1,77 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+    
+    private static final String CACHE_PREFIX = "leaderboard:";
+    private static final String FROZEN_CACHE_PREFIX = "leaderboard:frozen:";
+    private static final String VERSION_PREFIX = "leaderboard:version:";
+    
+    private final ScoringEngine scoringEngine;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JudgeMetrics judgeMetrics;
+    
+    /**
+     * Public standings of a contest, which stop at the freeze while it is
+     * frozen.
+     */
+    public List<LeaderboardEntry> getLeaderboard(UUID contestId) {
+        // Cached apart from the live standings, so a freeze takes effect at once
+        String cacheKey = (scoringEngine.isFrozen(contestId) ? FROZEN_CACHE_PREFIX : CACHE_PREFIX) + contestId;
+        
+        // Check cache
+        Object cached = redisTemplate.opsForValue().get(cacheKey);
+        if (cached instanceof List<?>) {
+            try {
+                @SuppressWarnings("unchecked")
+                List<LeaderboardEntry> cachedList = (List<LeaderboardEntry>) cached;
+                judgeMetrics.leaderboardCacheLookup(true);
+                log.info("Returning cached leaderboard for contest: {}", contestId);
+                return cachedList;
+            } catch (ClassCastException e) {
+                log.warn("Cache type mismatch, fetching from database");
+            }
+        }
+        
+        judgeMetrics.leaderboardCacheLookup(false);
+        
+        // Rank from the in-memory score matrix
+        List<LeaderboardEntry> leaderboard = scoringEngine.publicStandings(contestId);
+        
+        // Cache for 30 seconds
+        redisTemplate.opsForValue().set(cacheKey, leaderboard, Duration.ofSeconds(30));
+        
+        log.info("Built leaderboard from the score matrix for contest: {}", contestId);
+        return leaderboard;
+    }
+    
+    /**
+     * Counter bumped on every eviction, shared by all instances through
+     * Redis, with the low bit telling whether the contest is frozen.
+     * Responses rendered at the same version are still current. A plain
+     * read: the counter only exists once the contest was first evicted.
+     */
+    public long version(UUID contestId) {
+        Object counter = redisTemplate.opsForValue().get(VERSION_PREFIX + contestId);
+        long version = counter instanceof Number number ? number.longValue() : 0;
+        return version * 2 + (scoringEngine.isFrozen(contestId) ? 1 : 0);
+    }
+    
+    public void evict(UUID contestId) {
+        redisTemplate.opsForValue().increment(VERSION_PREFIX + contestId);
+        redisTemplate.delete(CACHE_PREFIX + contestId);
+        redisTemplate.delete(FROZEN_CACHE_PREFIX + contestId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.enums.CheckerType;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.util.OutputComparison;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decides whether the output of a successful run answers a test, using the
+ * checker configured on its problem. Built-in comparators run here; custom
+ * checker programs run in the sandbox right after each test, so only their
+ * exit status is read here.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutputChecker {
+    
+    public static final double DEFAULT_EPSILON = 1e-6;
+    
+    // Exit statuses of testlib-style checkers
+    private static final int CHECKER_OK = 0;
+    private static final int CHECKER_WRONG_ANSWER = 1;
+    private static final int CHECKER_PRESENTATION_ERROR = 2;
+    
+    private final CheckerCache checkerCache;
+    
+    /**
+     * Checker program to hand to the judge for a problem with a custom
+     * checker, compiled on first use, or {@code null} for built-in ones.
+     *
+     * @param answers expected output for each input that will be run
+     */
+    public JudgeService.Checker prepare(Problem problem, List<String> answers) throws IOException {
+        if (problem.getCheckerType() != CheckerType.CUSTOM) {
+            return null;
+        }
+        if (problem.getCheckerSource() == null || problem.getCheckerSource().isBlank()) {
+            throw new IOException("Problem has a custom checker but no checker source");
+        }
+        return new JudgeService.Checker(checkerCache.binary(problem.getCheckerSource()), answers);
+    }
+    
+    /**
+     * Verdict for the output of a run that exited normally: ACCEPTED or
+     * WRONG_ANSWER, or {@code null} if the checker itself failed.
+     */
+    public SubmissionStatus check(Problem problem, JudgeService.JudgeResult result, String expectedOutput) {
+        CheckerType type = problem.getCheckerType() == null ? CheckerType.EXACT : problem.getCheckerType();
+        if (type == CheckerType.CUSTOM) {
+            Integer status = result.getCheckerExitCode();
+            if (status == null || status != CHECKER_OK
+                    && status != CHECKER_WRONG_ANSWER && status != CHECKER_PRESENTATION_ERROR) {
+                return null; // Crashed, timed out or reported a checker failure
+            }
+            return status == CHECKER_OK ? SubmissionStatus.ACCEPTED : SubmissionStatus.WRONG_ANSWER;
+        }
+        
+        String output = result.getOutput() == null ? "" : result.getOutput();
+        boolean accepted = switch (type) {
+            case TOKENS -> OutputComparison.tokensMatch(output, expectedOutput);
+            case EPSILON -> OutputComparison.numbersMatch(output, expectedOutput,
+                problem.getCheckerEpsilon() == null ? DEFAULT_EPSILON : problem.getCheckerEpsilon());
+            default -> OutputComparison.matches(output, expectedOutput);
+        };
+        return accepted ? SubmissionStatus.ACCEPTED : SubmissionStatus.WRONG_ANSWER;
+    }
+}
@@ -0,0 +1,238 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.enums.ScoringMode;
+import com.shodh.contest.enums.SubmissionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Scoreboard state of one contest in flat primitive arrays. Each (user,
+ * problem) cell holds the rejected attempts before the first accept, the
+ * accept time and the time of the newest submission applied to it. Per-user
+ * totals are kept in step, so applying a verdict is O(1).
+ *
+ * <p>Verdicts may arrive out of submission order since submissions are
+ * judged in parallel. A reject submitted before the accept still costs
+ * penalty; if an earlier accept arrives after a later one, rejects between
+ * the two stay counted until the next rebuild, which replays in order.
+ */
+public class ScoreMatrix {
+    
+    private static final long UNSOLVED = Long.MAX_VALUE;
+    
+    /**
+     * Totals of one user, all that ranking needs; {@code lastAcceptAt} is
+     * millis since the start and breaks ties.
+     */
+    public record Totals(String username, int score, int solved, long penalty, long lastAcceptAt) {
+    }
+    private static final int INITIAL_USERS = 16;
+    
+    private final ScoringMode mode;
+    private final LocalDateTime startTime;
+    private final int penaltyMinutes;
+    private final Map<UUID, Integer> problemIndex = new HashMap<>();
+    private final int[] points;
+    private final int problems;
+    
+    private final Map<String, Integer> userIndex = new HashMap<>();
+    private String[] usernames = new String[INITIAL_USERS];
+    private int users;
+    
+    // Cells, row-major by user; times are millis since the start
+    private int[] rejected;
+    private long[] acceptedAt;
+    private long[] lastSeen;
+    
+    // Per-user totals
+    private int[] solved;
+    private int[] score;
+    private long[] penalty; // Minutes
+    private long[] lastAcceptAt;
+    
+    public ScoreMatrix(ScoringMode mode, LocalDateTime startTime, int penaltyMinutes,
+                       List<UUID> problemIds, List<Integer> problemPoints) {
+        this.mode = mode;
+        this.startTime = startTime;
+        this.penaltyMinutes = penaltyMinutes;
+        this.problems = problemIds.size();
+        this.points = new int[problems];
+        for (int i = 0; i < problems; i++) {
+            problemIndex.put(problemIds.get(i), i);
+            Integer value = problemPoints.get(i);
+            points[i] = value == null ? 0 : value;
+        }
+        
+        rejected = new int[INITIAL_USERS * problems];
+        acceptedAt = new long[INITIAL_USERS * problems];
+        lastSeen = new long[INITIAL_USERS * problems];
+        Arrays.fill(acceptedAt, UNSOLVED);
+        Arrays.fill(lastSeen, Long.MIN_VALUE);
+        solved = new int[INITIAL_USERS];
+        score = new int[INITIAL_USERS];
+        penalty = new long[INITIAL_USERS];
+        lastAcceptAt = new long[INITIAL_USERS];
+    }
+    
+    /**
+     * Applies a final verdict. Verdicts of submissions made after the first
+     * accept of their cell change nothing, and compilation errors cost no
+     * penalty.
+     *
+     * @return whether the verdict changed the matrix
+     */
+    public synchronized boolean record(String username, UUID problemId,
+                                       SubmissionStatus status, LocalDateTime submittedAt) {
+        return apply(username, problemId, status, submittedAt, false);
+    }
+    
+    /**
+     * Like {@link #record}, but ignores verdicts not newer than the last one
+     * applied to the cell. Used for verdicts that arrived while the matrix was
+     * being rebuilt and may already be part of it.
+     */
+    public synchronized boolean replay(String username, UUID problemId,
+                                       SubmissionStatus status, LocalDateTime submittedAt) {
+        return apply(username, problemId, status, submittedAt, true);
+    }
+    
+    private boolean apply(String username, UUID problemId, SubmissionStatus status,
+                          LocalDateTime submittedAt, boolean replay) {
+        Integer problem = problemIndex.get(problemId);
+        if (problem == null || submittedAt == null) {
+            return false;
+        }
+        
+        int user = userIndex(username);
+        int cell = user * problems + problem;
+        long at = Math.max(0, Duration.between(startTime, submittedAt).toMillis());
+        if (replay && at <= lastSeen[cell]) {
+            return false;
+        }
+        lastSeen[cell] = Math.max(lastSeen[cell], at);
+        
+        long accepted = acceptedAt[cell];
+        if (at >= accepted || status == SubmissionStatus.COMPILATION_ERROR) {
+            return false;
+        }
+        
+        if (accepted != UNSOLVED) {
+            penalty[user] -= cellPenalty(cell);
+        }
+        if (status == SubmissionStatus.ACCEPTED) {
+            acceptedAt[cell] = at;
+            if (accepted == UNSOLVED) {
+                solved[user]++;
+                score[user] += points[problem];
+                lastAcceptAt[user] = Math.max(lastAcceptAt[user], at);
+            } else {
+                lastAcceptAt[user] = latestAccept(user);
+            }
+        } else {
+            rejected[cell]++;
+        }
+        if (acceptedAt[cell] != UNSOLVED) {
+            penalty[user] += cellPenalty(cell);
+        }
+        return true;
+    }
+    
+    /**
+     * Ranks every user with at least one solved problem.
+     */
+    public List<LeaderboardEntry> standings() {
+        return rank(mode, totals());
+    }
+    
+    /**
+     * Totals of every user with at least one solved problem, unordered.
+     */
+    public synchronized List<Totals> totals() {
+        List<Totals> totals = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            if (solved[user] > 0) {
+                totals.add(new Totals(usernames[user], score[user], solved[user], penalty[user], lastAcceptAt[user]));
+            }
+        }
+        return totals;
+    }
+    
+    /**
+     * Orders totals into standings the way the matrix itself ranks them.
+     */
+    public static List<LeaderboardEntry> rank(ScoringMode mode, Collection<Totals> totals) {
+        List<Totals> ranked = new ArrayList<>(totals);
+        Comparator<Totals> order = mode == ScoringMode.ICPC
+            ? Comparator.<Totals>comparingInt(user -> -user.solved())
+                .thenComparingLong(Totals::penalty)
+            : Comparator.<Totals>comparingInt(user -> -user.score())
+                .thenComparingInt(user -> -user.solved());
+        // Username last, so standings rebuilt from stored totals order ties the same way
+        ranked.sort(order.thenComparingLong(Totals::lastAcceptAt).thenComparing(Totals::username));
+        
+        List<LeaderboardEntry> standings = new ArrayList<>(ranked.size());
+        int rank = 1;
+        for (Totals user : ranked) {
+            standings.add(new LeaderboardEntry(
+                rank++,
+                user.username(),
+                user.score(),
+                user.solved(),
+                mode == ScoringMode.ICPC ? (int) user.penalty() : null
+            ));
+        }
+        return standings;
+    }
+    
+    // Whole minutes to the accept plus a fixed cost per earlier reject
+    private long cellPenalty(int cell) {
+        return acceptedAt[cell] / 60_000 + (long) rejected[cell] * penaltyMinutes;
+    }
+    
+    private long latestAccept(int user) {
+        long latest = 0;
+        for (int cell = user * problems; cell < (user + 1) * problems; cell++) {
+            if (acceptedAt[cell] != UNSOLVED) {
+                latest = Math.max(latest, acceptedAt[cell]);
+            }
+        }
+        return latest;
+    }
+    
+    private int userIndex(String username) {
+        Integer index = userIndex.get(username);
+        if (index != null) {
+            return index;
+        }
+        if (users == usernames.length) {
+            grow(users * 2);
+        }
+        usernames[users] = username;
+        userIndex.put(username, users);
+        return users++;
+    }
+    
+    private void grow(int capacity) {
+        int cells = users * problems;
+        usernames = Arrays.copyOf(usernames, capacity);
+        rejected = Arrays.copyOf(rejected, capacity * problems);
+        acceptedAt = Arrays.copyOf(acceptedAt, capacity * problems);
+        lastSeen = Arrays.copyOf(lastSeen, capacity * problems);
+        Arrays.fill(acceptedAt, cells, acceptedAt.length, UNSOLVED);
+        Arrays.fill(lastSeen, cells, lastSeen.length, Long.MIN_VALUE);
+        solved = Arrays.copyOf(solved, capacity);
+        score = Arrays.copyOf(score, capacity);
+        penalty = Arrays.copyOf(penalty, capacity);
+        lastAcceptAt = Arrays.copyOf(lastAcceptAt, capacity);
+    }
+}
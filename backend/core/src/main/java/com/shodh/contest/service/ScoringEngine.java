@@ -0,0 +1,326 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.entity.Contest;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.repository.ArchivedSubmissionRepository;
+import com.shodh.contest.repository.ContestRepository;
+import com.shodh.contest.repository.ProblemRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.util.ExpiringIdSet;
+import com.shodh.contest.util.ReadRouting;
+import com.shodh.contest.util.Transactions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link ScoreMatrix} per contest, fed with every final verdict.
+ * A contest's matrices are rebuilt from the live and archived submission
+ * tables in one streaming pass: at startup for contests that are running or
+ * ended recently, otherwise on the first read and after a rejudge
+ * invalidates them.
+ *
+ * <p>A contest with a freeze time gets a second matrix fed only submissions
+ * made before it, which public standings show while the contest is frozen.
+ *
+ * <p>Judge workers run with the matrix disabled and publish their verdicts
+ * on {@link #VERDICT_CHANNEL} for the API instances instead.
+ */
+@Slf4j
+@Service
+public class ScoringEngine {
+    
+    public static final String VERDICT_CHANNEL = "scoring:verdicts";
+    
+    private static final List<SubmissionStatus> UNFINISHED =
+        List.of(SubmissionStatus.PENDING, SubmissionStatus.RUNNING);
+    
+    private final ContestRepository contestRepository;
+    private final ProblemRepository problemRepository;
+    private final SubmissionRepository submissionRepository;
+    private final ArchivedSubmissionRepository archivedSubmissionRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final boolean publishVerdicts;
+    private final Duration eagerRebuildWindow;
+    
+    private final Map<UUID, Board> boards = new ConcurrentHashMap<>();
+    private final ExpiringIdSet unknownContests;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    
+    // Verdicts that arrive while a rebuild is streaming, guarded by this
+    private final List<VerdictEvent> pending = new ArrayList<>();
+    private UUID rebuildingContest; // Null while no rebuild is streaming
+    
+    /**
+     * Matrices of one contest; {@code frozen} is null without a freeze time.
+     */
+    private record Board(ScoreMatrix live, ScoreMatrix frozen, LocalDateTime freezeTime,
+                         LocalDateTime unfreezeTime) {
+        
+        void record(VerdictEvent event, boolean replay) {
+            apply(live, event, replay);
+            if (frozen != null && event.submittedAt() != null && event.submittedAt().isBefore(freezeTime)) {
+                apply(frozen, event, replay);
+            }
+        }
+        
+        boolean isFrozen(LocalDateTime now) {
+            return frozen != null && !now.isBefore(freezeTime) && (unfreezeTime == null || now.isBefore(unfreezeTime));
+        }
+        
+        private static void apply(ScoreMatrix matrix, VerdictEvent event, boolean replay) {
+            if (replay) {
+                matrix.replay(event.username(), event.problemId(), event.status(), event.submittedAt());
+            } else {
+                matrix.record(event.username(), event.problemId(), event.status(), event.submittedAt());
+            }
+        }
+    }
+    
+    public ScoringEngine(ContestRepository contestRepository,
+                         ProblemRepository problemRepository,
+                         SubmissionRepository submissionRepository,
+                         ArchivedSubmissionRepository archivedSubmissionRepository,
+                         RedisTemplate<String, Object> redisTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${shodh.scoring.matrix.enabled:true}") boolean enabled,
+                         @Value("${shodh.scoring.publish-verdicts:false}") boolean publishVerdicts,
+                         @Value("${shodh.scoring.eager-rebuild-hours:24}") long eagerRebuildHours,
+                         @Value("${shodh.scoring.unknown-contest-ttl-ms:60000}") long unknownContestTtlMs) {
+        this.contestRepository = contestRepository;
+        this.problemRepository = problemRepository;
+        this.submissionRepository = submissionRepository;
+        this.archivedSubmissionRepository = archivedSubmissionRepository;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.publishVerdicts = publishVerdicts;
+        this.eagerRebuildWindow = Duration.ofHours(eagerRebuildHours);
+        this.unknownContests = new ExpiringIdSet(Duration.ofMillis(unknownContestTtlMs));
+    }
+    
+    /**
+     * Records a final verdict. Inside a transaction the verdict is applied
+     * once it commits, so a concurrent rebuild either streams it or sees it
+     * arrive.
+     */
+    public void record(VerdictEvent event) {
+        Transactions.afterCommit(() -> {
+            if (publishVerdicts) {
+                try {
+                    redisTemplate.convertAndSend(VERDICT_CHANNEL, event);
+                } catch (Exception e) {
+                    log.warn("Could not publish verdict of {} for contest {}", event.username(), event.contestId(), e);
+                }
+            }
+            apply(event);
+        });
+    }
+    
+    /**
+     * Applies a verdict to the local matrices of its contest, if they are loaded.
+     */
+    public void apply(VerdictEvent event) {
+        if (!enabled || event.contestId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (event.contestId().equals(rebuildingContest)) {
+                pending.add(event);
+                return;
+            }
+        }
+        Board board = boards.get(event.contestId());
+        if (board != null) {
+            board.record(event, false);
+        }
+    }
+    
+    /**
+     * Ranked standings of a contest including every verdict, rebuilding its
+     * matrices first if needed.
+     */
+    public List<LeaderboardEntry> standings(UUID contestId) {
+        Board board = board(contestId);
+        return board == null ? List.of() : board.live().standings();
+    }
+    
+    /**
+     * Standings for public views: those at the freeze while the contest is
+     * frozen, otherwise the live ones.
+     */
+    public List<LeaderboardEntry> publicStandings(UUID contestId) {
+        Board board = board(contestId);
+        if (board == null) {
+            return List.of();
+        }
+        return board.isFrozen(LocalDateTime.now()) ? board.frozen().standings() : board.live().standings();
+    }
+    
+    public boolean isFrozen(UUID contestId) {
+        Board board = board(contestId);
+        return board != null && board.isFrozen(LocalDateTime.now());
+    }
+    
+    /**
+     * Live totals of every ranked user of a contest, unordered.
+     */
+    public List<ScoreMatrix.Totals> totals(UUID contestId) {
+        Board board = board(contestId);
+        return board == null ? List.of() : board.live().totals();
+    }
+    
+    /**
+     * Drops the matrices of a contest whose past verdicts changed; the next
+     * read rebuilds them from the submission log.
+     */
+    public void invalidate(UUID contestId) {
+        boards.remove(contestId);
+        unknownContests.remove(contestId);
+    }
+    
+    private Board board(UUID contestId) {
+        Board board = boards.get(contestId);
+        if (board == null && enabled && !unknownContests.contains(contestId)) {
+            rebuild(contestId);
+            board = boards.get(contestId);
+        }
+        return board;
+    }
+    
+    /**
+     * Rebuilds the contests that are running or ended within the eager
+     * rebuild window, so their first leaderboard read is fast. Older
+     * contests are rebuilt when they are first read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildRecent() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime endedAfter = LocalDateTime.now().minus(eagerRebuildWindow);
+        for (Contest contest : contestRepository.findByEndTimeIsNullOrEndTimeAfter(endedAfter)) {
+            board(contest.getId());
+        }
+    }
+    
+    /**
+     * Rebuilds the matrices of one contest in a single pass over its live
+     * and archived submissions merged by submission time.
+     */
+    private void rebuild(UUID contestId) {
+        rebuildLock.lock();
+        try {
+            if (boards.containsKey(contestId)) {
+                return; // Rebuilt by the thread that held the lock
+            }
+            synchronized (this) {
+                rebuildingContest = contestId;
+            }
+            
+            Map<UUID, Board> built = new HashMap<>();
+            try {
+                long start = System.nanoTime();
+                // A replica may not have the verdicts applied before the rebuild began
+                long verdicts = ReadRouting.primary(() -> readOnlyTransaction.execute(status -> {
+                    built.putAll(emptyBoards(contestId));
+                    try (Stream<VerdictEvent> live = submissionRepository.streamVerdictsByContestId(contestId, UNFINISHED);
+                         Stream<VerdictEvent> archived =
+                             archivedSubmissionRepository.streamVerdictsByContestId(contestId, UNFINISHED)) {
+                        return replayInOrder(live.iterator(), archived.iterator(), built);
+                    }
+                }));
+                log.info("Rebuilt scores of contest {} from {} verdicts in {} ms",
+                    contestId, verdicts, (System.nanoTime() - start) / 1_000_000);
+            } finally {
+                synchronized (this) {
+                    boards.putAll(built);
+                    for (VerdictEvent event : pending) {
+                        Board board = boards.get(event.contestId());
+                        if (board != null) {
+                            board.record(event, true);
+                        }
+                    }
+                    pending.clear();
+                    rebuildingContest = null;
+                }
+            }
+            if (!built.containsKey(contestId)) {
+                unknownContests.add(contestId);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private Map<UUID, Board> emptyBoards(UUID contestId) {
+        List<Contest> contests = contestRepository.findById(contestId).map(List::of).orElse(List.of());
+        Map<UUID, Board> empty = new HashMap<>();
+        for (Contest contest : contests) {
+            List<Problem> problems = problemRepository.findByContestId(contest.getId());
+            Supplier<ScoreMatrix> matrix = () -> new ScoreMatrix(
+                contest.getScoringMode(),
+                contest.getStartTime() != null ? contest.getStartTime() : contest.getCreatedAt(),
+                contest.getPenaltyMinutes(),
+                problems.stream().map(Problem::getId).toList(),
+                problems.stream().map(Problem::getPoints).toList()
+            );
+            empty.put(contest.getId(), new Board(
+                matrix.get(),
+                contest.getFreezeTime() != null ? matrix.get() : null,
+                contest.getFreezeTime(),
+                contest.getUnfreezeTime()
+            ));
+        }
+        return empty;
+    }
+    
+    private static long replayInOrder(Iterator<VerdictEvent> live, Iterator<VerdictEvent> archived,
+                                      Map<UUID, Board> boards) {
+        Comparator<VerdictEvent> bySubmittedAt = Comparator.comparing(VerdictEvent::submittedAt);
+        VerdictEvent nextLive = live.hasNext() ? live.next() : null;
+        VerdictEvent nextArchived = archived.hasNext() ? archived.next() : null;
+        long count = 0;
+        while (nextLive != null || nextArchived != null) {
+            VerdictEvent event;
+            if (nextArchived == null || nextLive != null && bySubmittedAt.compare(nextLive, nextArchived) <= 0) {
+                event = nextLive;
+                nextLive = live.hasNext() ? live.next() : null;
+            } else {
+                event = nextArchived;
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            Board board = boards.get(event.contestId());
+            if (board != null) {
+                board.record(event, false);
+            }
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,161 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.enums.Language;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how long this host takes to run a fixed CPU-bound program in each
+ * language, through the same sandbox as submissions, and gives
+ * {@link JudgeService} the ratio to the time measured on the reference host
+ * as its speed factor. Problem time limits are set for the reference host,
+ * so a solution gets the same verdict whichever judge host runs it.
+ *
+ * <p>Calibration runs at startup and again periodically while submissions
+ * are being judged, so the factor follows the host's speed under load.
+ */
+@Slf4j
+@Component
+public class SpeedCalibrator {
+    
+    // 64-bit LCG steps with a xorshift, printed so nothing is optimized away
+    private static final Map<Language, String> PROGRAMS = Map.of(
+        Language.JAVA, """
+            public class Solution {
+                public static void main(String[] args) {
+                    long x = 1;
+                    for (int i = 0; i < 100_000_000; i++) {
+                        x = x * 6364136223846793005L + 1442695040888963407L;
+                        x ^= x >>> 29;
+                    }
+                    System.out.println(x);
+                }
+            }
+            """,
+        Language.CPP, """
+            #include <cstdint>
+            #include <cstdio>
+            int main() {
+                uint64_t x = 1;
+                for (int i = 0; i < 100000000; i++) {
+                    x = x * 6364136223846793005ULL + 1442695040888963407ULL;
+                    x ^= x >> 29;
+                }
+                std::printf("%llu\\n", (unsigned long long) x);
+            }
+            """,
+        Language.PYTHON, """
+            x = 1
+            for _ in range(1_200_000):
+                x = (x * 6364136223846793005 + 1442695040888963407) & 0xFFFFFFFFFFFFFFFF
+                x ^= x >> 29
+            print(x)
+            """
+    );
+    
+    private static final int RUNS = 3;
+    private static final int TIME_LIMIT_MS = 10_000;
+    private static final int MEMORY_LIMIT_MB = 256;
+    
+    // Weight of a new measurement against the current factor
+    private static final double SMOOTHING = 0.5;
+    
+    private final JudgeService judgeService;
+    private final boolean enabled;
+    private final Map<Language, Integer> baselineMs = new EnumMap<>(Language.class);
+    private final double minFactor;
+    private final double maxFactor;
+    private final Set<Language> calibrated = ConcurrentHashMap.newKeySet();
+    
+    public SpeedCalibrator(JudgeService judgeService,
+                           JudgeMetrics judgeMetrics,
+                           @Value("${shodh.judge.calibration.enabled:true}") boolean enabled,
+                           @Value("${shodh.judge.calibration.baseline-ms:JAVA:300,PYTHON:270,CPP:250}") String baselines,
+                           @Value("${shodh.judge.calibration.min-factor:0.5}") double minFactor,
+                           @Value("${shodh.judge.calibration.max-factor:3.0}") double maxFactor) {
+        this.judgeService = judgeService;
+        this.enabled = enabled;
+        this.minFactor = minFactor;
+        this.maxFactor = maxFactor;
+        for (String part : baselines.split(",")) {
+            String[] languageAndMs = part.trim().split(":");
+            baselineMs.put(Language.valueOf(languageAndMs[0]), Integer.parseInt(languageAndMs[1]));
+        }
+        for (Language language : Language.values()) {
+            judgeMetrics.registerSpeedFactor(language, () -> judgeService.getSpeedFactor(language));
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibrateAtStartup() {
+        if (enabled) {
+            calibrate();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${shodh.judge.calibration.interval-ms:600000}",
+               initialDelayString = "${shodh.judge.calibration.interval-ms:600000}")
+    public void recalibrate() {
+        if (enabled) {
+            calibrate();
+        }
+    }
+    
+    private void calibrate() {
+        for (Map.Entry<Language, Integer> baseline : baselineMs.entrySet()) {
+            Language language = baseline.getKey();
+            Integer measuredMs = measure(language);
+            if (measuredMs == null) {
+                continue; // Keep the current factor
+            }
+            
+            double factor = Math.min(maxFactor, Math.max(minFactor, (double) measuredMs / baseline.getValue()));
+            if (!calibrated.add(language)) {
+                factor = SMOOTHING * factor + (1 - SMOOTHING) * judgeService.getSpeedFactor(language);
+            }
+            judgeService.setSpeedFactor(language, factor);
+            log.info("Calibrated {}: reference program ran in {} ms ({} ms on the reference host), speed factor {}",
+                language, measuredMs, baseline.getValue(), String.format("%.2f", factor));
+        }
+    }
+    
+    /**
+     * Fastest of several runs of the reference program in one sandbox
+     * session, or {@code null} if it could not be run. Slower runs mostly
+     * measure noise.
+     */
+    private Integer measure(Language language) {
+        AtomicInteger fastest = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicReference<String> failure = new AtomicReference<>();
+        judgeService.executeBatch(PROGRAMS.get(language), language, Collections.nCopies(RUNS, ""),
+            TIME_LIMIT_MS, MEMORY_LIMIT_MB, null,
+            (index, result) -> {
+                if (!result.isSuccess()) {
+                    failure.set(result.getResultType() + ": " + result.getError());
+                    return false;
+                }
+                // Wall time inside the sandbox, which is what the time limit bounds
+                Integer runTime = result.getRunTime() != null ? result.getRunTime() : result.getExecutionTime();
+                fastest.accumulateAndGet(runTime, Math::min);
+                return true;
+            });
+        
+        if (failure.get() != null || fastest.get() == Integer.MAX_VALUE) {
+            log.warn("Could not calibrate {}: {}", language, failure.get() != null ? failure.get() : "no result");
+            return null;
+        }
+        return fastest.get();
+    }
+}
@@ -0,0 +1,103 @@
+package com.shodh.contest.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary form of leaderboard snapshots. A snapshot lists user totals to set
+ * and usernames to drop; a full one replaces whatever it is applied to, a
+ * delta only touches the users it names. Ranks are not stored, they follow
+ * from the totals, so a verdict that moves one user up changes one row
+ * rather than every rank in between. Bodies are deflated.
+ */
+public final class StandingsCodec {
+    
+    private static final int FULL = 0;
+    private static final int DELTA = 1;
+    
+    private StandingsCodec() {
+    }
+    
+    public static byte[] full(Collection<ScoreMatrix.Totals> totals) {
+        return write(FULL, totals, List.of());
+    }
+    
+    /**
+     * Delta taking the totals in {@code previous} to those in {@code next},
+     * both keyed by username.
+     */
+    public static byte[] delta(Map<String, ScoreMatrix.Totals> previous, Map<String, ScoreMatrix.Totals> next) {
+        List<ScoreMatrix.Totals> changed = next.values().stream()
+            .filter(totals -> !totals.equals(previous.get(totals.username())))
+            .toList();
+        List<String> dropped = previous.keySet().stream()
+            .filter(username -> !next.containsKey(username))
+            .toList();
+        return write(DELTA, changed, dropped);
+    }
+    
+    /**
+     * Applies a full or delta snapshot to totals keyed by username.
+     */
+    public static void apply(byte[] snapshot, Map<String, ScoreMatrix.Totals> totals) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(snapshot)))) {
+            if (in.readUnsignedByte() == FULL) {
+                totals.clear();
+            }
+            int changed = in.readInt();
+            for (int i = 0; i < changed; i++) {
+                ScoreMatrix.Totals row = new ScoreMatrix.Totals(
+                    in.readUTF(), in.readInt(), in.readInt(), in.readLong(), in.readLong());
+                totals.put(row.username(), row);
+            }
+            int dropped = in.readInt();
+            for (int i = 0; i < dropped; i++) {
+                totals.remove(in.readUTF());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt leaderboard snapshot", e);
+        }
+    }
+    
+    public static Map<String, ScoreMatrix.Totals> byUsername(Collection<ScoreMatrix.Totals> totals) {
+        Map<String, ScoreMatrix.Totals> byUsername = new HashMap<>();
+        totals.forEach(row -> byUsername.put(row.username(), row));
+        return byUsername;
+    }
+    
+    private static byte[] write(int kind, Collection<ScoreMatrix.Totals> changed, Collection<String> dropped) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeByte(kind);
+            out.writeInt(changed.size());
+            for (ScoreMatrix.Totals row : changed) {
+                out.writeUTF(row.username());
+                out.writeInt(row.score());
+                out.writeInt(row.solved());
+                out.writeLong(row.penalty());
+                out.writeLong(row.lastAcceptAt());
+            }
+            out.writeInt(dropped.size());
+            for (String username : dropped) {
+                out.writeUTF(username);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,526 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.entity.Submission;
+import com.shodh.contest.entity.TestCase;
+import com.shodh.contest.entity.TestCaseResult;
+import com.shodh.contest.entity.User;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.repository.ProblemRepository;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.repository.TestCaseResultRepository;
+import com.shodh.contest.repository.UserRepository;
+import com.shodh.contest.util.Hashing;
+import com.shodh.contest.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubmissionProcessor {
+    
+    private final SubmissionRepository submissionRepository;
+    private final ProblemRepository problemRepository;
+    private final UserRepository userRepository;
+    private final TestCaseResultRepository testCaseResultRepository;
+    private final JudgeService judgeService;
+    private final OutputChecker outputChecker;
+    private final VerdictCache verdictCache;
+    private final LeaderboardService leaderboardService;
+    private final ScoringEngine scoringEngine;
+    private final AnalyticsAggregator analyticsAggregator;
+    private final JudgeMetrics judgeMetrics;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * Judges a pending submission on behalf of {@code judgeId}. The
+     * submission is claimed in a transaction of its own first, so a judge
+     * handed one that another judge already took drops it. The verdict is
+     * only saved if the claim still holds at the end: the claims of a worker
+     * presumed dead are released, and its late verdicts are thrown away.
+     */
+    @Async("taskExecutor")
+    public CompletableFuture<Void> processSubmission(UUID submissionId, String judgeId) {
+        if (submissionRepository.claim(submissionId, judgeId) == 0) {
+            log.info("Submission {} is already judged or claimed, skipping", submissionId);
+            return CompletableFuture.completedFuture(null);
+        }
+        transactionTemplate.executeWithoutResult(status -> judge(submissionId, judgeId, status));
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    private void judge(UUID submissionId, String judgeId, TransactionStatus transaction) {
+        Submission submission = null;
+        SubmissionTimeline timeline = null;
+        boolean systemError = false;
+        long processingStart = System.nanoTime();
+        
+        try {
+            // Fetch submission
+            submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new RuntimeException("Submission not found"));
+            timeline = new SubmissionTimeline(submission.getSubmittedAt());
+            timeline.dequeued();
+            
+            if (submission.getSubmittedAt() != null) {
+                judgeMetrics.recordQueueWait(submission.getLanguage(),
+                    Duration.between(submission.getSubmittedAt(), LocalDateTime.now()));
+            }
+            
+            // Fetch problem and test cases
+            Problem problem = problemRepository.findById(submission.getProblemId())
+                .orElseThrow(() -> new RuntimeException("Problem not found"));
+            
+            VerdictCache.Key cacheKey = cacheKey(submission, problem);
+            
+            // Exact duplicate of an already judged submission
+            VerdictCache.CachedVerdict cached = verdictCache.get(cacheKey);
+            judgeMetrics.verdictCacheLookup(cached != null);
+            if (cached != null) {
+                timeline.verdictCacheHit();
+                applyCachedVerdict(submission, cached);
+            } else {
+                List<TestCaseResult> results = runTestCases(submission, problem, new HashMap<>(), timeline);
+                // System errors say nothing about the code, so they are never memoized
+                if (results != null) {
+                    verdictCache.put(cacheKey, toCachedVerdict(submission, results));
+                } else {
+                    systemError = true;
+                }
+            }
+            
+            if (submission.getStatus() == SubmissionStatus.ACCEPTED) {
+                // Update user score
+                long leaderboardStart = System.nanoTime();
+                updateUserScore(submission.getUsername(), submission.getContestId(),
+                    submission.getProblemId(), problem.getPoints());
+                judgeMetrics.recordLeaderboardUpdate(System.nanoTime() - leaderboardStart);
+            }
+        
+        } catch (Exception e) {
+            log.error("Error processing submission", e);
+            systemError = true;
+            if (submission != null) {
+                submission.setStatus(SubmissionStatus.RUNTIME_ERROR);
+                submission.setVerdict("System Error: " + e.getMessage());
+            }
+        } finally {
+            if (submission != null && !judgeId.equals(submissionRepository.lockClaim(submissionId))) {
+                log.warn("Submission {} was handed to another judge, dropping the verdict of {}",
+                    submissionId, judgeId);
+                transaction.setRollbackOnly();
+            } else if (submission != null) {
+                if (timeline != null) {
+                    timeline.finished(submission.getStatus());
+                    submission.setTimeline(timeline.encode());
+                }
+                submission.setSystemError(systemError);
+                submission.setJudgedAt(LocalDateTime.now());
+                long persistStart = System.nanoTime();
+                submissionRepository.saveAndFlush(submission);
+                judgeMetrics.recordPersist(System.nanoTime() - persistStart);
+                // A system error says nothing about the code, so it costs no penalty
+                if (!systemError) {
+                    VerdictEvent verdict = VerdictEvent.of(submission);
+                    scoringEngine.record(verdict);
+                    analyticsAggregator.record(verdict);
+                }
+                if (submission.getStatus() == SubmissionStatus.ACCEPTED) {
+                    UUID contestId = submission.getContestId();
+                    Transactions.afterCommit(() -> leaderboardService.evict(contestId));
+                }
+                judgeMetrics.recordSubmission(submission.getLanguage(), submission.getStatus().name(),
+                    System.nanoTime() - processingStart);
+            }
+        }
+    }
+    
+    /**
+     * Re-evaluates a finished submission against the problem's current test
+     * set. Tests whose content hash already has a stored result are not rerun,
+     * and the owner's score is adjusted by the difference only.
+     */
+    @Transactional
+    public void rejudge(UUID submissionId) {
+        Submission submission = submissionRepository.findById(submissionId)
+            .orElseThrow(() -> new RuntimeException("Submission not found"));
+        if (submission.getStatus() == SubmissionStatus.PENDING
+                || submission.getStatus() == SubmissionStatus.RUNNING) {
+            return; // Still in the regular pipeline
+        }
+        
+        Problem problem = problemRepository.findById(submission.getProblemId())
+            .orElseThrow(() -> new RuntimeException("Problem not found"));
+        
+        SubmissionStatus previousStatus = submission.getStatus();
+        Boolean previousSystemError = submission.getSystemError();
+        Integer previousExecutionTime = submission.getExecutionTime();
+        Integer previousMemoryUsed = submission.getMemoryUsed();
+        boolean wasAccepted = previousStatus == SubmissionStatus.ACCEPTED;
+        
+        Map<String, TestCaseResult> previous = new HashMap<>();
+        for (TestCaseResult result : testCaseResultRepository.findBySubmissionId(submissionId)) {
+            previous.put(result.getTestCaseHash(), result);
+        }
+        
+        SubmissionTimeline timeline = new SubmissionTimeline(null);
+        timeline.dequeued();
+        List<TestCaseResult> results = runTestCases(submission, problem, previous, timeline);
+        timeline.finished(submission.getStatus());
+        submission.setTimeline(timeline.encode());
+        submission.setSystemError(results == null);
+        if (results != null) {
+            verdictCache.put(cacheKey(submission, problem), toCachedVerdict(submission, results));
+        }
+        
+        // Drop results of tests that are no longer part of the problem
+        Set<String> current = new HashSet<>();
+        String checkerHash = Hashing.checkerHash(problem);
+        for (TestCase testCase : problem.getTestCases()) {
+            current.add(Hashing.testCaseHash(testCase, checkerHash));
+        }
+        List<TestCaseResult> stale = previous.values().stream()
+            .filter(result -> !current.contains(result.getTestCaseHash()))
+            .toList();
+        testCaseResultRepository.deleteAll(stale);
+        
+        boolean nowAccepted = submission.getStatus() == SubmissionStatus.ACCEPTED;
+        if (wasAccepted != nowAccepted) {
+            adjustUserScore(submission, problem.getPoints(), nowAccepted);
+        }
+        // A system error is left out of scoring, so gaining or losing one counts as a change
+        boolean outcomeChanged = submission.getStatus() != previousStatus
+            || !submission.getSystemError().equals(previousSystemError);
+        if (outcomeChanged) {
+            // Attempt counts and accept times changed, so standings are rebuilt from the log
+            UUID contestId = submission.getContestId();
+            Transactions.afterCommit(() -> {
+                scoringEngine.invalidate(contestId);
+                leaderboardService.evict(contestId);
+            });
+        }
+        if (outcomeChanged
+                || !Objects.equals(submission.getExecutionTime(), previousExecutionTime)
+                || !Objects.equals(submission.getMemoryUsed(), previousMemoryUsed)) {
+            UUID contestId = submission.getContestId();
+            Transactions.afterCommit(() -> analyticsAggregator.invalidate(contestId));
+        }
+        
+        submissionRepository.save(submission);
+    }
+    
+    /**
+     * Runs the submission against each test case in order, stopping at the
+     * first failure, and sets the final status on the submission. Results
+     * found in {@code previous} are reused instead of executing the test.
+     * Every test is recorded on {@code timeline}.
+     *
+     * @return the per-test results, or {@code null} if a system error made
+     *         the outcome non-deterministic
+     */
+    private List<TestCaseResult> runTestCases(Submission submission, Problem problem,
+                                              Map<String, TestCaseResult> previous,
+                                              SubmissionTimeline timeline) {
+        int passedTests = 0;
+        int totalTests = problem.getTestCases().size();
+        int maxExecutionTime = 0;
+        List<TestCaseResult> results = new ArrayList<>();
+        
+        submission.setTestCasesTotal(totalTests);
+        
+        Set<String> executed = new HashSet<>();
+        JudgeService.JudgeResult systemError = executePending(submission, problem, previous, executed, timeline);
+        
+        // Walk the tests in order over stored and freshly executed results
+        String checkerHash = Hashing.checkerHash(problem);
+        for (TestCase testCase : problem.getTestCases()) {
+            String testCaseHash = Hashing.testCaseHash(testCase, checkerHash);
+            TestCaseResult result = previous.get(testCaseHash);
+            int testNumber = passedTests + 1;
+            
+            if (result == null) {
+                // The session failed before reaching this test
+                String error = systemError != null ? systemError.getError() : "test case was not executed";
+                int executionTime = systemError != null ? systemError.getExecutionTime() : 0;
+                submission.setStatus(SubmissionStatus.RUNTIME_ERROR);
+                submission.setVerdict("System Error: " + error);
+                submission.setTestCasesPassed(passedTests);
+                submission.setExecutionTime(Math.max(maxExecutionTime, executionTime));
+                return null;
+            }
+            if (!executed.contains(testCaseHash)) {
+                timeline.testReused(testNumber, result.getStatus());
+            }
+            
+            results.add(result);
+            maxExecutionTime = Math.max(maxExecutionTime, result.getExecutionTime());
+            
+            if (result.getStatus() != SubmissionStatus.ACCEPTED) {
+                submission.setStatus(result.getStatus());
+                submission.setVerdict(failureVerdict(result, testCase, testNumber));
+                submission.setTestCasesPassed(passedTests);
+                submission.setExecutionTime(maxExecutionTime);
+                return results;
+            }
+            
+            passedTests++;
+        }
+        
+        // All tests passed
+        submission.setStatus(SubmissionStatus.ACCEPTED);
+        submission.setVerdict("Accepted! All test cases passed.");
+        submission.setTestCasesPassed(passedTests);
+        submission.setExecutionTime(maxExecutionTime);
+        return results;
+    }
+    
+    /**
+     * Executes, in one sandbox session, the tests the walk in
+     * {@link #runTestCases} will reach that have no stored result, stopping at
+     * the first failure. New results are saved and added to {@code previous},
+     * and their hashes to {@code executed}.
+     *
+     * @return the sandbox result that caused a system error, or {@code null}
+     */
+    private JudgeService.JudgeResult executePending(Submission submission, Problem problem,
+                                                    Map<String, TestCaseResult> previous,
+                                                    Set<String> executed, SubmissionTimeline timeline) {
+        List<TestCase> pending = new ArrayList<>();
+        List<String> pendingHashes = new ArrayList<>();
+        List<Integer> testNumbers = new ArrayList<>();
+        int testNumber = 0;
+        String checkerHash = Hashing.checkerHash(problem);
+        for (TestCase testCase : problem.getTestCases()) {
+            testNumber++;
+            String testCaseHash = Hashing.testCaseHash(testCase, checkerHash);
+            TestCaseResult stored = previous.get(testCaseHash);
+            if (stored != null && stored.getStatus() != SubmissionStatus.ACCEPTED) {
+                break; // The walk stops at this stored failure
+            }
+            // Identical test cases share a hash and run once
+            if (stored == null && !pendingHashes.contains(testCaseHash)) {
+                pending.add(testCase);
+                pendingHashes.add(testCaseHash);
+                testNumbers.add(testNumber);
+            }
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+        
+        JudgeService.Checker checker;
+        try {
+            checker = outputChecker.prepare(problem, pending.stream().map(TestCase::getExpectedOutput).toList());
+        } catch (IOException e) {
+            log.error("Checker of problem {} is unavailable", problem.getId(), e);
+            return new JudgeService.JudgeResult(false, "", "checker unavailable: " + e.getMessage(), 0, "SYSTEM_ERROR");
+        }
+        
+        submission.setMemoryUsed(null);
+        AtomicReference<JudgeService.JudgeResult> systemError = new AtomicReference<>();
+        judgeService.executeBatch(
+            submission.getCode(),
+            submission.getLanguage(),
+            pending.stream().map(TestCase::getInput).toList(),
+            problem.getTimeLimit(),
+            problem.getMemoryLimit(),
+            checker,
+            (index, judged) -> {
+                int number = testNumbers.get(index);
+                timeline.testStarted(number, System.currentTimeMillis() - judged.getExecutionTime());
+                
+                long compareStart = System.nanoTime();
+                SubmissionStatus status = classify(judged, pending.get(index), problem);
+                judgeMetrics.recordOutputCompare(submission.getLanguage(), System.nanoTime() - compareStart);
+                timeline.testFinished(number, status, judged);
+                if (judged.getMemoryKb() != null) {
+                    Integer memoryUsed = submission.getMemoryUsed();
+                    submission.setMemoryUsed(memoryUsed == null
+                        ? judged.getMemoryKb() : Math.max(memoryUsed, judged.getMemoryKb()));
+                }
+                if (status == null) {
+                    if (judged.isSuccess()) {
+                        judged.setError("checker failed with exit status " + judged.getCheckerExitCode()
+                            + ": " + judged.getCheckerMessage());
+                    }
+                    systemError.set(judged);
+                    return false;
+                }
+                
+                TestCaseResult result = new TestCaseResult();
+                result.setSubmissionId(submission.getId());
+                result.setTestCaseHash(pendingHashes.get(index));
+                result.setStatus(status);
+                result.setExecutionTime(judged.getExecutionTime());
+                result.setError(truncate(judged.getError()));
+                previous.put(result.getTestCaseHash(), testCaseResultRepository.save(result));
+                executed.add(result.getTestCaseHash());
+                return status == SubmissionStatus.ACCEPTED;
+            });
+        return systemError.get();
+    }
+    
+    /**
+     * Maps a sandbox result to a per-test status, or {@code null} for a
+     * system error.
+     */
+    private SubmissionStatus classify(JudgeService.JudgeResult result, TestCase testCase, Problem problem) {
+        if (!result.isSuccess()) {
+            if ("TLE".equals(result.getResultType())) {
+                return SubmissionStatus.TLE;
+            } else if ("RUNTIME_ERROR".equals(result.getResultType())) {
+                return SubmissionStatus.RUNTIME_ERROR;
+            } else if ("COMPILATION_ERROR".equals(result.getResultType())) {
+                return SubmissionStatus.COMPILATION_ERROR;
+            }
+            return null;
+        }
+        
+        return outputChecker.check(problem, result, testCase.getExpectedOutput());
+    }
+    
+    /**
+     * Verdict text for a failed test. A program's stderr can echo the input
+     * it was given, so it is only shown for sample tests.
+     */
+    private String failureVerdict(TestCaseResult result, TestCase testCase, int testNumber) {
+        return switch (result.getStatus()) {
+            case TLE -> "Time Limit Exceeded on test case " + testNumber;
+            case RUNTIME_ERROR -> Boolean.TRUE.equals(testCase.getIsSample())
+                ? "Runtime Error on test case " + testNumber + ": " + result.getError()
+                : "Runtime Error on test case " + testNumber;
+            case COMPILATION_ERROR -> "Compilation Error: " + result.getError();
+            default -> "Wrong Answer on test case " + testNumber;
+        };
+    }
+    
+    private VerdictCache.Key cacheKey(Submission submission, Problem problem) {
+        return new VerdictCache.Key(
+            problem.getId(),
+            Hashing.testSetHash(problem.getTestCases(), Hashing.checkerHash(problem)),
+            problem.getTimeLimit(),
+            problem.getMemoryLimit(),
+            submission.getLanguage(),
+            Hashing.sha256(submission.getCode())
+        );
+    }
+    
+    private VerdictCache.CachedVerdict toCachedVerdict(Submission submission, List<TestCaseResult> results) {
+        List<VerdictCache.TestOutcome> outcomes = results.stream()
+            .map(result -> new VerdictCache.TestOutcome(result.getTestCaseHash(), result.getStatus(),
+                result.getExecutionTime(), result.getError()))
+            .toList();
+        return new VerdictCache.CachedVerdict(
+            submission.getStatus(),
+            submission.getVerdict(),
+            submission.getTestCasesPassed(),
+            submission.getTestCasesTotal(),
+            submission.getExecutionTime(),
+            submission.getMemoryUsed(),
+            outcomes
+        );
+    }
+    
+    private void applyCachedVerdict(Submission submission, VerdictCache.CachedVerdict cached) {
+        submission.setStatus(cached.status());
+        submission.setVerdict(cached.verdict());
+        submission.setTestCasesPassed(cached.testCasesPassed());
+        submission.setTestCasesTotal(cached.testCasesTotal());
+        submission.setExecutionTime(cached.executionTime());
+        submission.setMemoryUsed(cached.memoryUsed());
+        
+        // Identical test cases share a hash and therefore a single stored result
+        Set<String> seen = new HashSet<>();
+        List<TestCaseResult> results = new ArrayList<>();
+        for (VerdictCache.TestOutcome outcome : cached.testOutcomes()) {
+            if (!seen.add(outcome.testCaseHash())) {
+                continue;
+            }
+            TestCaseResult result = new TestCaseResult();
+            result.setSubmissionId(submission.getId());
+            result.setTestCaseHash(outcome.testCaseHash());
+            result.setStatus(outcome.status());
+            result.setExecutionTime(outcome.executionTime());
+            result.setError(outcome.error());
+            results.add(result);
+        }
+        testCaseResultRepository.saveAll(results);
+    }
+    
+    private String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+    
+    private void updateUserScore(String username, UUID contestId, UUID problemId, Integer points) {
+        // Find or create user
+        User user = findOrCreateUser(username, contestId);
+        
+        // Check if this problem was already solved
+        boolean alreadySolved = submissionRepository.existsByUsernameAndProblemIdAndStatus(
+            username, problemId, SubmissionStatus.ACCEPTED);
+        
+        if (!alreadySolved) {
+            user.setTotalScore(user.getTotalScore() + points);
+            user.setProblemsSolved(user.getProblemsSolved() + 1);
+        }
+        
+        user.setLastSubmissionTime(LocalDateTime.now());
+        userRepository.save(user);
+    }
+    
+    /**
+     * Applies the score delta of a rejudged submission flipping into or out of
+     * ACCEPTED. Nothing changes if another accepted submission for the same
+     * problem still exists. The user row is locked first, so concurrent
+     * rejudges of the same user see each other's committed statuses.
+     */
+    private void adjustUserScore(Submission submission, Integer points, boolean nowAccepted) {
+        User user = userRepository.findForUpdateByUsernameAndContestId(submission.getUsername(), submission.getContestId())
+            .orElseGet(() -> newUser(submission.getUsername(), submission.getContestId()));
+        boolean otherAccepted = submissionRepository.existsByUsernameAndProblemIdAndStatusAndIdNot(
+            submission.getUsername(), submission.getProblemId(), SubmissionStatus.ACCEPTED, submission.getId());
+        if (otherAccepted) {
+            return;
+        }
+        
+        int sign = nowAccepted ? 1 : -1;
+        user.setTotalScore(user.getTotalScore() + sign * points);
+        user.setProblemsSolved(user.getProblemsSolved() + sign);
+        userRepository.save(user);
+    }
+    
+    private User findOrCreateUser(String username, UUID contestId) {
+        return userRepository.findByUsernameAndContestId(username, contestId)
+            .orElseGet(() -> newUser(username, contestId));
+    }
+    
+    private User newUser(String username, UUID contestId) {
+        User newUser = new User();
+        newUser.setUsername(username);
+        newUser.setContestId(contestId);
+        newUser.setTotalScore(0);
+        newUser.setProblemsSolved(0);
+        return newUser;
+    }
+}
@@ -0,0 +1,207 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.TimelineEvent;
+import com.shodh.contest.enums.SubmissionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact per-submission execution timeline, stored as a packed binary
+ * column. Each event is a type byte, a varint millisecond offset from the
+ * first event and a few varint fields, so a typical submission fits in a
+ * few hundred bytes. Recording stops after {@link #MAX_EVENTS} events.
+ */
+public class SubmissionTimeline {
+    
+    public static final int MAX_EVENTS = 512;
+    
+    private static final byte VERSION = 1;
+    
+    private static final String[] TYPES = {
+        "ENQUEUED", "DEQUEUED", "VERDICT_CACHE_HIT", "TEST_START", "TEST_END", "TEST_REUSED", "FINISHED", "TRUNCATED"
+    };
+    private static final int ENQUEUED = 0;
+    private static final int DEQUEUED = 1;
+    private static final int VERDICT_CACHE_HIT = 2;
+    private static final int TEST_START = 3;
+    private static final int TEST_END = 4;
+    private static final int TEST_REUSED = 5;
+    private static final int FINISHED = 6;
+    private static final int TRUNCATED = 7;
+    
+    private final long baseEpochMillis;
+    private final ByteArrayOutputStream events = new ByteArrayOutputStream(128);
+    private int eventCount;
+    private boolean truncated;
+    
+    public SubmissionTimeline(LocalDateTime submittedAt) {
+        long now = System.currentTimeMillis();
+        this.baseEpochMillis = submittedAt == null
+            ? now
+            : Math.min(now, submittedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        if (submittedAt != null) {
+            begin(ENQUEUED, baseEpochMillis);
+        }
+    }
+    
+    public void dequeued() {
+        begin(DEQUEUED, System.currentTimeMillis());
+    }
+    
+    public void verdictCacheHit() {
+        begin(VERDICT_CACHE_HIT, System.currentTimeMillis());
+    }
+    
+    public void testStarted(int testCase) {
+        testStarted(testCase, System.currentTimeMillis());
+    }
+    
+    public void testStarted(int testCase, long epochMillis) {
+        if (begin(TEST_START, epochMillis)) {
+            writeVarint(testCase);
+        }
+    }
+    
+    public void testFinished(int testCase, SubmissionStatus status, JudgeService.JudgeResult result) {
+        if (begin(TEST_END, System.currentTimeMillis())) {
+            writeVarint(testCase);
+            writeStatus(status);
+            writeOptional(result.getExecutionTime());
+            writeOptional(result.getCompileTime());
+            writeOptional(result.getRunTime());
+            writeOptional(result.getCpuTime());
+            writeOptional(result.getMemoryKb());
+        }
+    }
+    
+    public void testReused(int testCase, SubmissionStatus status) {
+        if (begin(TEST_REUSED, System.currentTimeMillis())) {
+            writeVarint(testCase);
+            writeStatus(status);
+        }
+    }
+    
+    public void finished(SubmissionStatus status) {
+        if (begin(FINISHED, System.currentTimeMillis())) {
+            writeStatus(status);
+        }
+    }
+    
+    public byte[] encode() {
+        ByteBuffer header = ByteBuffer.allocate(1 + Long.BYTES);
+        header.put(VERSION).putLong(baseEpochMillis);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(header.capacity() + 5 + events.size());
+        out.writeBytes(header.array());
+        writeVarint(out, eventCount);
+        out.writeBytes(events.toByteArray());
+        return out.toByteArray();
+    }
+    
+    public static List<TimelineEvent> decode(byte[] data) {
+        List<TimelineEvent> decoded = new ArrayList<>();
+        if (data == null || data.length == 0) {
+            return decoded;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.get() != VERSION) {
+            throw new IllegalArgumentException("Unsupported timeline version");
+        }
+        long base = buffer.getLong();
+        int count = readVarint(buffer);
+        
+        for (int i = 0; i < count; i++) {
+            int type = buffer.get();
+            TimelineEvent event = new TimelineEvent();
+            event.setType(TYPES[type]);
+            event.setAt(Instant.ofEpochMilli(base + readVarint(buffer)));
+            switch (type) {
+                case TEST_START -> event.setTestCase(readVarint(buffer));
+                case TEST_END -> {
+                    event.setTestCase(readVarint(buffer));
+                    event.setStatus(readStatus(buffer));
+                    event.setWallTime(readOptional(buffer));
+                    event.setCompileTime(readOptional(buffer));
+                    event.setRunTime(readOptional(buffer));
+                    event.setCpuTime(readOptional(buffer));
+                    event.setMemoryKb(readOptional(buffer));
+                }
+                case TEST_REUSED -> {
+                    event.setTestCase(readVarint(buffer));
+                    event.setStatus(readStatus(buffer));
+                }
+                case FINISHED -> event.setStatus(readStatus(buffer));
+                default -> {
+                    // No payload
+                }
+            }
+            decoded.add(event);
+        }
+        return decoded;
+    }
+    
+    private boolean begin(int type, long epochMillis) {
+        // The last two slots are kept for TRUNCATED and FINISHED
+        if (eventCount >= MAX_EVENTS - 2 && type != FINISHED) {
+            if (!truncated) {
+                truncated = true;
+                events.write(TRUNCATED);
+                writeVarint(Math.max(0, epochMillis - baseEpochMillis));
+                eventCount++;
+            }
+            return false;
+        }
+        events.write(type);
+        writeVarint(Math.max(0, epochMillis - baseEpochMillis));
+        eventCount++;
+        return true;
+    }
+    
+    private void writeStatus(SubmissionStatus status) {
+        writeVarint(status == null ? 0 : status.ordinal() + 1);
+    }
+    
+    private static SubmissionStatus readStatus(ByteBuffer buffer) {
+        int value = readVarint(buffer);
+        return value == 0 ? null : SubmissionStatus.values()[value - 1];
+    }
+    
+    private void writeOptional(Integer value) {
+        writeVarint(value == null || value < 0 ? 0 : value + 1L);
+    }
+    
+    private static Integer readOptional(ByteBuffer buffer) {
+        int value = readVarint(buffer);
+        return value == 0 ? null : value - 1;
+    }
+    
+    private void writeVarint(long value) {
+        writeVarint(events, value);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static int readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (int) value;
+    }
+}
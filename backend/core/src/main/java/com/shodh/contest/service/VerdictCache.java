@@ -0,0 +1,62 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.enums.SubmissionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded LRU cache of final verdicts for exact duplicate submissions.
+ * The key embeds the test-set content hash and the problem's limits, so
+ * editing a problem's test cases or limits makes old entries unreachable and
+ * they age out on their own. Time limit verdicts are never cached: they
+ * depend on the host's load and speed factor, not only on the code.
+ */
+@Slf4j
+@Component
+public class VerdictCache {
+    
+    public record Key(UUID problemId, String testSetHash, Integer timeLimit, Integer memoryLimit,
+                      Language language, String codeHash) {
+    }
+    
+    public record CachedVerdict(SubmissionStatus status, String verdict, Integer testCasesPassed,
+                                Integer testCasesTotal, Integer executionTime, Integer memoryUsed,
+                                List<TestOutcome> testOutcomes) {
+    }
+    
+    public record TestOutcome(String testCaseHash, SubmissionStatus status, Integer executionTime, String error) {
+    }
+    
+    private final Map<Key, CachedVerdict> entries;
+    
+    public VerdictCache(@Value("${shodh.judge.verdict-cache.max-entries:10000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedVerdict> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    public synchronized CachedVerdict get(Key key) {
+        return entries.get(key);
+    }
+    
+    public synchronized void put(Key key, CachedVerdict verdict) {
+        if (verdict.status() == SubmissionStatus.TLE) {
+            return;
+        }
+        entries.put(key, verdict);
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,160 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.WorkerHeartbeat;
+import com.shodh.contest.enums.SubmissionStatus;
+import com.shodh.contest.repository.SubmissionRepository;
+import com.shodh.contest.util.ReadRouting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Redis-backed registry of judge workers and their work queues. Each worker
+ * refreshes a heartbeat key that expires if it dies, and owns a queue plus a
+ * processing list that holds the submissions it has taken but not finished.
+ * Submissions no worker could take wait on a shared queue.
+ *
+ * <p>A worker whose heartbeat lapsed may still be alive and finish what it
+ * took. Its claims on the submissions it was judging are released before
+ * they are requeued, so a late verdict from it is discarded, and requeued
+ * submissions that are already judged are dropped again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkerRegistry {
+    
+    private static final String WORKERS_KEY = "judge:workers";
+    private static final String HEARTBEAT_PREFIX = "judge:worker:";
+    private static final String QUEUE_PREFIX = "judge:queue:";
+    private static final String PROCESSING_PREFIX = "judge:processing:";
+    private static final String SHARED_QUEUE = "judge:queue";
+    
+    private static final List<SubmissionStatus> UNFINISHED =
+        List.of(SubmissionStatus.PENDING, SubmissionStatus.RUNNING);
+    
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final SubmissionRepository submissionRepository;
+    
+    public void heartbeat(WorkerHeartbeat heartbeat, Duration ttl) {
+        redisTemplate.opsForValue().set(HEARTBEAT_PREFIX + heartbeat.getWorkerId(), heartbeat, ttl);
+        redisTemplate.opsForSet().add(WORKERS_KEY, heartbeat.getWorkerId());
+    }
+    
+    public void deregister(String workerId) {
+        redisTemplate.delete(HEARTBEAT_PREFIX + workerId);
+    }
+    
+    public List<WorkerHeartbeat> liveWorkers() {
+        List<WorkerHeartbeat> live = new ArrayList<>();
+        for (String workerId : registeredIds()) {
+            if (redisTemplate.opsForValue().get(HEARTBEAT_PREFIX + workerId) instanceof WorkerHeartbeat heartbeat) {
+                live.add(heartbeat);
+            }
+        }
+        return live;
+    }
+    
+    /**
+     * Moves the queued and unfinished submissions of workers whose heartbeat
+     * expired to the shared queue and forgets those workers. Their claims are
+     * released first, so that the judge taking them over can claim them.
+     * Submissions the database already has a verdict for are taken off the
+     * queue again.
+     *
+     * @return the number of submissions requeued
+     */
+    public int reapDeadWorkers() {
+        int requeued = 0;
+        for (String workerId : registeredIds()) {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(HEARTBEAT_PREFIX + workerId))) {
+                continue;
+            }
+            // Released before they reach the shared queue, or a live worker could take one still claimed
+            List<UUID> taken = ids(PROCESSING_PREFIX + workerId);
+            if (!taken.isEmpty()) {
+                submissionRepository.releaseClaims(taken, workerId);
+            }
+            List<UUID> moved = new ArrayList<>();
+            drain(PROCESSING_PREFIX + workerId, moved);
+            drain(QUEUE_PREFIX + workerId, moved);
+            // Moved first and dropped after, so nothing is lost if this instance stops in between
+            List<UUID> finished = moved.isEmpty() ? List.of()
+                : ReadRouting.primary(() -> submissionRepository.findFinishedIds(moved, UNFINISHED));
+            for (UUID submissionId : finished) {
+                redisTemplate.opsForList().remove(SHARED_QUEUE, 1, submissionId.toString());
+            }
+            requeued += moved.size() - finished.size();
+            redisTemplate.opsForSet().remove(WORKERS_KEY, workerId);
+            log.warn("Judge worker {} stopped sending heartbeats", workerId);
+        }
+        return requeued;
+    }
+    
+    /**
+     * Queues a submission for a worker, or on the shared queue when
+     * {@code workerId} is null.
+     */
+    public void enqueue(String workerId, UUID submissionId) {
+        String queue = workerId == null ? SHARED_QUEUE : QUEUE_PREFIX + workerId;
+        redisTemplate.opsForList().leftPush(queue, submissionId.toString());
+    }
+    
+    public long queueLength(String workerId) {
+        Long length = redisTemplate.opsForList().size(QUEUE_PREFIX + workerId);
+        return length == null ? 0 : length;
+    }
+    
+    /**
+     * Takes the next submission for a worker, preferring its own queue, and
+     * records it as in progress. Blocks up to {@code timeout} on the shared
+     * queue.
+     */
+    public UUID take(String workerId, Duration timeout) {
+        String processing = PROCESSING_PREFIX + workerId;
+        Object next = redisTemplate.opsForList().rightPopAndLeftPush(QUEUE_PREFIX + workerId, processing);
+        if (next == null) {
+            next = redisTemplate.opsForList().rightPopAndLeftPush(SHARED_QUEUE, processing, timeout);
+        }
+        return next == null ? null : UUID.fromString(next.toString());
+    }
+    
+    public void complete(String workerId, UUID submissionId) {
+        redisTemplate.opsForList().remove(PROCESSING_PREFIX + workerId, 1, submissionId.toString());
+    }
+    
+    private Set<String> registeredIds() {
+        Set<Object> members = redisTemplate.opsForSet().members(WORKERS_KEY);
+        if (members == null) {
+            return Set.of();
+        }
+        Set<String> ids = new HashSet<>();
+        members.forEach(member -> ids.add(member.toString()));
+        return ids;
+    }
+    
+    private List<UUID> ids(String queue) {
+        List<Object> members = redisTemplate.opsForList().range(queue, 0, -1);
+        if (members == null) {
+            return List.of();
+        }
+        List<UUID> ids = new ArrayList<>();
+        members.forEach(member -> ids.add(UUID.fromString(member.toString())));
+        return ids;
+    }
+    
+    private void drain(String queue, List<UUID> moved) {
+        Object next;
+        while ((next = redisTemplate.opsForList().rightPopAndLeftPush(queue, SHARED_QUEUE)) != null) {
+            moved.add(UUID.fromString(next.toString()));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.shodh.contest.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Hands out execution workspaces from a pool of directories created once at
+ * startup, by default on the RAM-backed tmpfs at /dev/shm. Released
+ * workspaces are reset by deleting only the files written into them.
+ * Judge containers bind-mount workspace paths from the Docker host, so the
+ * root must be the same path on the host and in the backend container.
+ * <p>
+ * The backend and every judge worker on a host share the root, so each
+ * process claims its own {@code instance-<n>} directory under it by holding
+ * a lock on {@code instance-<n>.lock} while it runs. The lowest unclaimed
+ * number is taken, and anything a previous owner left in that directory is
+ * removed at startup.
+ */
+@Slf4j
+@Component
+public class WorkspaceManager {
+    
+    private static final Path FALLBACK_ROOT = Paths.get(System.getProperty("java.io.tmpdir"), "shodh-executions");
+    
+    public final class Workspace implements AutoCloseable {
+        private final Path dir;
+        private final boolean pooled;
+        private final List<Path> created = new ArrayList<>();
+        private long bytesWritten;
+        
+        private Workspace(Path dir, boolean pooled) {
+            this.dir = dir;
+            this.pooled = pooled;
+        }
+        
+        public Path getDir() {
+            return dir;
+        }
+        
+        /**
+         * Writes a file relative to the workspace, failing once the workspace
+         * quota would be exceeded.
+         */
+        public Path write(String relativePath, String content) throws IOException {
+            byte[] data = content.getBytes(StandardCharsets.UTF_8);
+            if (bytesWritten + data.length > quotaBytes) {
+                throw new IOException("Workspace quota of " + (quotaBytes >> 20) + " MB exceeded");
+            }
+            
+            Path file = dir.resolve(relativePath);
+            Path parent = file.getParent();
+            if (!parent.equals(dir) && !Files.isDirectory(parent)) {
+                Files.createDirectories(parent);
+                created.add(parent);
+            }
+            Files.write(file, data);
+            created.add(file);
+            bytesWritten += data.length;
+            return file;
+        }
+        
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+    
+    private final Path root;
+    private final long quotaBytes;
+    private final ConcurrentLinkedQueue<Workspace> pool = new ConcurrentLinkedQueue<>();
+    // Held for the life of the process; released by the OS if it dies
+    private final FileLock instanceLock;
+    
+    public WorkspaceManager(@Value("${shodh.judge.workspace.root:/dev/shm/shodh-executions}") String root,
+                            @Value("${shodh.judge.workspace.slots:16}") int slots,
+                            @Value("${shodh.judge.workspace.quota-mb:64}") int quotaMb) {
+        Path requested = Paths.get(root);
+        Path shared = Files.isDirectory(requested.getParent()) ? requested : FALLBACK_ROOT;
+        this.quotaBytes = (long) quotaMb << 20;
+        
+        try {
+            Files.createDirectories(shared);
+            int instance = 0;
+            FileLock claimed;
+            while ((claimed = tryLock(shared.resolve("instance-" + instance + ".lock"))) == null) {
+                instance++;
+            }
+            this.instanceLock = claimed;
+            this.root = Files.createDirectories(shared.resolve("instance-" + instance));
+            collectOrphans();
+            for (int i = 0; i < slots; i++) {
+                Path slot = Files.createDirectories(this.root.resolve("slot-" + i));
+                pool.add(new Workspace(slot, true));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not prepare workspaces under " + shared, e);
+        }
+        
+        String fileSystem = fileSystemType(this.root);
+        if ("tmpfs".equals(fileSystem)) {
+            log.info("Prepared {} execution workspaces on tmpfs at {}", slots, this.root);
+        } else {
+            log.warn("Execution workspaces at {} are on {}, not tmpfs", this.root, fileSystem);
+        }
+    }
+    
+    /**
+     * Takes a pooled workspace, or creates a temporary one if all are in
+     * use. The workspace must be closed once the container has exited.
+     */
+    public Workspace acquire() throws IOException {
+        Workspace workspace = pool.poll();
+        if (workspace != null) {
+            return workspace;
+        }
+        Path dir = Files.createDirectories(root.resolve("overflow-" + UUID.randomUUID()));
+        return new Workspace(dir, false);
+    }
+    
+    public Path getRoot() {
+        return root;
+    }
+    
+    /**
+     * Number of pooled workspaces currently free.
+     */
+    public int available() {
+        return pool.size();
+    }
+    
+    private void release(Workspace workspace) {
+        if (!workspace.pooled) {
+            deleteRecursively(workspace.dir);
+            return;
+        }
+        
+        // Files were created before their contents, so delete in reverse order
+        boolean clean = true;
+        for (int i = workspace.created.size() - 1; i >= 0; i--) {
+            try {
+                Files.deleteIfExists(workspace.created.get(i));
+            } catch (IOException e) {
+                clean = false;
+            }
+        }
+        workspace.created.clear();
+        workspace.bytesWritten = 0;
+        
+        if (!clean || !isEmpty(workspace.dir)) {
+            log.warn("Workspace {} was not reset cleanly, wiping it", workspace.dir);
+            deleteRecursively(workspace.dir);
+            try {
+                Files.createDirectories(workspace.dir);
+            } catch (IOException e) {
+                log.error("Dropping workspace {} from the pool", workspace.dir, e);
+                return;
+            }
+        }
+        pool.add(workspace);
+    }
+    
+    /**
+     * Locks {@code file}, or returns null if another process or another
+     * manager in this one holds it.
+     */
+    private static FileLock tryLock(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Held within this JVM
+        }
+        channel.close();
+        return null;
+    }
+    
+    private void collectOrphans() throws IOException {
+        int removed = 0;
+        try (Stream<Path> entries = Files.list(root)) {
+            for (Path entry : entries.toList()) {
+                deleteRecursively(entry);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} orphaned workspace entries from {}", removed, root);
+        }
+    }
+    
+    private static boolean isEmpty(Path dir) {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.findAny().isEmpty();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private static void deleteRecursively(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        } catch (IOException e) {
+            log.error("Error deleting {}", path, e);
+        }
+    }
+    
+    private static String fileSystemType(Path path) {
+        try {
+            return Files.getFileStore(path).type();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+}
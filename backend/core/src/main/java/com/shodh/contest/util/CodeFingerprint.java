@@ -0,0 +1,180 @@
+package com.shodh.contest.util;
+
+import com.shodh.contest.enums.Language;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MinHash signatures of source code for near-duplicate detection. Code is
+ * tokenized per language with comments dropped, identifiers folded to one
+ * token and literals to another, so renaming variables or editing strings
+ * does not hide a copy. Signatures estimate the Jaccard similarity of the
+ * sets of five-token shingles.
+ */
+public final class CodeFingerprint {
+    
+    public static final int SIGNATURE_SIZE = 128;
+    
+    private static final int SHINGLE_TOKENS = 5;
+    
+    private static final Set<String> JAVA_KEYWORDS = Set.of(
+        "abstract", "boolean", "break", "byte", "case", "catch", "char", "class", "continue", "default",
+        "do", "double", "else", "extends", "final", "finally", "float", "for", "if", "implements",
+        "import", "instanceof", "int", "interface", "long", "new", "null", "private", "protected",
+        "public", "return", "short", "static", "super", "switch", "this", "throw", "throws", "try",
+        "var", "void", "while", "true", "false"
+    );
+    
+    private static final Set<String> CPP_KEYWORDS = Set.of(
+        "auto", "bool", "break", "case", "catch", "char", "class", "const", "continue", "default",
+        "delete", "do", "double", "else", "enum", "false", "float", "for", "if", "int", "long",
+        "namespace", "new", "nullptr", "private", "public", "return", "short", "signed", "sizeof",
+        "static", "struct", "switch", "template", "this", "throw", "true", "try", "typedef", "typename",
+        "unsigned", "using", "void", "while"
+    );
+    
+    private static final Set<String> PYTHON_KEYWORDS = Set.of(
+        "and", "as", "break", "class", "continue", "def", "del", "elif", "else", "except", "False",
+        "finally", "for", "from", "if", "import", "in", "is", "lambda", "None", "not", "or", "pass",
+        "raise", "return", "True", "try", "while", "with", "yield"
+    );
+    
+    // Fixed seeds so signatures stay comparable across restarts and hosts
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+    
+    static {
+        long seed = 0x5EED_C0DEL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+    
+    private CodeFingerprint() {
+    }
+    
+    public static int[] signature(String code, Language language) {
+        List<String> tokens = tokenize(code, language);
+        long[] minimums = new long[SIGNATURE_SIZE];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        
+        int windows = Math.max(1, tokens.size() - SHINGLE_TOKENS + 1);
+        for (int start = 0; start < windows; start++) {
+            long shingle = 0;
+            for (int i = start; i < Math.min(start + SHINGLE_TOKENS, tokens.size()); i++) {
+                shingle = mix(shingle * 31 + tokens.get(i).hashCode());
+            }
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                long hash = mix(shingle ^ SEEDS[i]);
+                if (hash < minimums[i]) {
+                    minimums[i] = hash;
+                }
+            }
+        }
+        
+        int[] signature = new int[SIGNATURE_SIZE];
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            signature[i] = (int) (minimums[i] >>> 32);
+        }
+        return signature;
+    }
+    
+    /**
+     * Estimated Jaccard similarity of the shingle sets behind two signatures.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+    
+    public static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(SIGNATURE_SIZE * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+    
+    public static int[] decode(byte[] bytes) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+    
+    static List<String> tokenize(String code, Language language) {
+        Set<String> keywords = switch (language) {
+            case JAVA -> JAVA_KEYWORDS;
+            case CPP -> CPP_KEYWORDS;
+            case PYTHON -> PYTHON_KEYWORDS;
+        };
+        boolean python = language == Language.PYTHON;
+        
+        List<String> tokens = new ArrayList<>();
+        int length = code.length();
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (python && c == '#' || !python && code.startsWith("//", i)) {
+                i = skipLine(code, i);
+            } else if (!python && code.startsWith("/*", i)) {
+                int end = code.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (language == Language.CPP && c == '#') {
+                // Preprocessor lines are the same boilerplate in every solution
+                i = skipLine(code, i);
+            } else if (python && (code.startsWith("\"\"\"", i) || code.startsWith("'''", i))) {
+                int end = code.indexOf(code.substring(i, i + 3), i + 3);
+                i = end < 0 ? length : end + 3;
+                tokens.add("S");
+            } else if (c == '"' || c == '\'') {
+                i = skipQuoted(code, i, c);
+                tokens.add("S");
+            } else if (Character.isDigit(c)) {
+                while (i < length && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add("N");
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < length && Character.isJavaIdentifierPart(code.charAt(i))) {
+                    i++;
+                }
+                String word = code.substring(start, i);
+                tokens.add(keywords.contains(word) ? word : "I");
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+    
+    private static int skipLine(String code, int i) {
+        int end = code.indexOf('\n', i);
+        return end < 0 ? code.length() : end + 1;
+    }
+    
+    private static int skipQuoted(String code, int i, char quote) {
+        i++;
+        while (i < code.length() && code.charAt(i) != quote && code.charAt(i) != '\n') {
+            i += code.charAt(i) == '\\' ? 2 : 1;
+        }
+        return Math.min(i + 1, code.length());
+    }
+    
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
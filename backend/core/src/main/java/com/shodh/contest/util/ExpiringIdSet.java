@@ -0,0 +1,43 @@
+package com.shodh.contest.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids remembered for a fixed time, such as contests a lookup found missing.
+ * The lookup is not repeated on every request, but is tried again once the
+ * entry expires. Expired entries are dropped whenever one is added.
+ */
+public final class ExpiringIdSet {
+    
+    private final Map<UUID, Long> expiresAt = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    
+    public ExpiringIdSet(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+    
+    public boolean contains(UUID id) {
+        Long expiry = expiresAt.get(id);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry >= 0) {
+            expiresAt.remove(id, expiry);
+            return false;
+        }
+        return true;
+    }
+    
+    public void add(UUID id) {
+        long now = System.nanoTime();
+        expiresAt.values().removeIf(expiry -> now - expiry >= 0);
+        expiresAt.put(id, now + ttlNanos);
+    }
+    
+    public void remove(UUID id) {
+        expiresAt.remove(id);
+    }
+}
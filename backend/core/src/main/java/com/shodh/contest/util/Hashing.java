@@ -0,0 +1,95 @@
+package com.shodh.contest.util;
+
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.entity.TestCase;
+import com.shodh.contest.enums.CheckerType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+public final class Hashing {
+    
+    private Hashing() {
+    }
+    
+    public static String sha256(String value) {
+        MessageDigest digest = newDigest();
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    public static String sha256(byte[] value) {
+        return HexFormat.of().formatHex(newDigest().digest(value));
+    }
+    
+    /**
+     * Hash of how a problem's output is checked, or {@code null} for the
+     * default exact comparison so hashes from before checkers stay valid.
+     */
+    public static String checkerHash(Problem problem) {
+        CheckerType type = problem.getCheckerType();
+        if (type == null || type == CheckerType.EXACT) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        update(digest, type.name());
+        if (type == CheckerType.EPSILON) {
+            update(digest, String.valueOf(problem.getCheckerEpsilon()));
+        } else if (type == CheckerType.CUSTOM) {
+            update(digest, problem.getCheckerSource());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Content hash of a single test case as checked by {@code checkerHash}.
+     * Changes whenever its input, expected output or checker changes.
+     */
+    public static String testCaseHash(TestCase testCase, String checkerHash) {
+        MessageDigest digest = newDigest();
+        update(digest, testCase.getInput());
+        update(digest, testCase.getExpectedOutput());
+        if (checkerHash != null) {
+            update(digest, checkerHash);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Content hash of a problem's whole test set, in judging order. Adding,
+     * removing, reordering or editing any test case, or changing the
+     * checker, yields a new value.
+     */
+    public static String testSetHash(List<TestCase> testCases, String checkerHash) {
+        MessageDigest digest = newDigest();
+        for (TestCase testCase : testCases) {
+            update(digest, testCase.getInput());
+            update(digest, testCase.getExpectedOutput());
+        }
+        if (checkerHash != null) {
+            update(digest, checkerHash);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    // Length-prefixed so ("ab", "c") and ("a", "bc") hash differently
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int length = value == null ? -1 : bytes.length;
+        digest.update(new byte[] {
+            (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length
+        });
+        digest.update(bytes);
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.shodh.contest.util;
+
+import java.util.function.Supplier;
+
+/**
+ * The kind of work a sandbox run belongs to, which decides the cores it may
+ * lease. Runs default to {@link #LIVE}; test runs and rejudges mark
+ * themselves with {@link #run}.
+ */
+public enum JudgeLane {
+    /** Submissions of a running contest. */
+    LIVE,
+    /** Test runs against samples or custom input, on their reserved cores. */
+    RUN,
+    /** Rejudges, which only get a shared core no live submission is waiting for. */
+    REJUDGE;
+    
+    private static final ThreadLocal<JudgeLane> CURRENT = new ThreadLocal<>();
+    
+    /**
+     * Runs {@code work} with every core lease it takes drawn for {@code lane}.
+     */
+    public static <T> T call(JudgeLane lane, Supplier<T> work) {
+        JudgeLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+    
+    public static void run(JudgeLane lane, Runnable work) {
+        call(lane, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    public static JudgeLane current() {
+        JudgeLane lane = CURRENT.get();
+        return lane != null ? lane : LIVE;
+    }
+}
@@ -0,0 +1,193 @@
+package com.shodh.contest.util;
+
+/**
+ * Built-in output comparators. Each one scans the two outputs in place,
+ * without trimming, splitting or parsing into new objects, so comparing a
+ * large output allocates nothing. Whitespace is any character up to the
+ * space, as for {@link String#trim()}.
+ */
+public final class OutputComparison {
+    
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    
+    // Exactly representable powers of ten
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    private OutputComparison() {
+    }
+    
+    /**
+     * Judges program output against the expected answer, ignoring leading
+     * and trailing whitespace.
+     */
+    public static boolean matches(String actualOutput, String expectedOutput) {
+        int actualStart = skipWhitespace(actualOutput, 0);
+        int actualEnd = trimEnd(actualOutput, actualStart);
+        int expectedStart = skipWhitespace(expectedOutput, 0);
+        int expectedEnd = trimEnd(expectedOutput, expectedStart);
+        int length = actualEnd - actualStart;
+        return length == expectedEnd - expectedStart
+            && actualOutput.regionMatches(actualStart, expectedOutput, expectedStart, length);
+    }
+    
+    /**
+     * Whether both outputs hold the same whitespace-separated tokens, however
+     * they are spaced or split into lines.
+     */
+    public static boolean tokensMatch(String actualOutput, String expectedOutput) {
+        return compareTokens(actualOutput, expectedOutput, -1);
+    }
+    
+    /**
+     * Like {@link #tokensMatch}, but a pair of numeric tokens also matches
+     * when the absolute or the relative error is at most {@code epsilon}.
+     * Non-numeric tokens must be identical.
+     */
+    public static boolean numbersMatch(String actualOutput, String expectedOutput, double epsilon) {
+        return compareTokens(actualOutput, expectedOutput, epsilon);
+    }
+    
+    // A negative epsilon compares tokens as text only
+    private static boolean compareTokens(String actual, String expected, double epsilon) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            i = skipWhitespace(actual, i);
+            j = skipWhitespace(expected, j);
+            if (i == actual.length() || j == expected.length()) {
+                return i == actual.length() && j == expected.length();
+            }
+            
+            int actualEnd = tokenEnd(actual, i);
+            int expectedEnd = tokenEnd(expected, j);
+            int length = actualEnd - i;
+            boolean same = length == expectedEnd - j && actual.regionMatches(i, expected, j, length);
+            if (!same && (epsilon < 0 || !numbersClose(actual, i, actualEnd, expected, j, expectedEnd, epsilon))) {
+                return false;
+            }
+            i = actualEnd;
+            j = expectedEnd;
+        }
+    }
+    
+    private static boolean numbersClose(String actual, int actualStart, int actualEnd,
+                                        String expected, int expectedStart, int expectedEnd, double epsilon) {
+        double a = parseNumber(actual, actualStart, actualEnd);
+        double e = parseNumber(expected, expectedStart, expectedEnd);
+        if (Double.isNaN(a) || Double.isNaN(e)) {
+            return false;
+        }
+        if (a == e) {
+            return true;
+        }
+        double error = Math.abs(a - e);
+        return error <= epsilon || error <= epsilon * Math.abs(e);
+    }
+    
+    /**
+     * Parses a decimal number such as {@code -12}, {@code 3.25} or
+     * {@code 1e-9} from {@code text[start, end)}, or returns NaN if the
+     * token is not one. Digits past the 18th only shift the exponent, which
+     * is far below any useful epsilon.
+     */
+    static double parseNumber(String text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    if (mantissa != 0 || c != '0') {
+                        digits++;
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                } else if (!seenPoint) {
+                    exponent++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                return Double.NaN;
+            }
+            int written = 0;
+            for (; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Double.NaN;
+                }
+                // Saturate; anything this large is 0 or infinity anyway
+                written = Math.min(written * 10 + (c - '0'), 10_000);
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+        
+        double value = mantissa;
+        if (exponent < 0) {
+            value = -exponent < POWERS_OF_TEN.length
+                ? value / POWERS_OF_TEN[-exponent]
+                : value / Math.pow(10, -exponent);
+        } else if (exponent > 0) {
+            value = exponent < POWERS_OF_TEN.length
+                ? value * POWERS_OF_TEN[exponent]
+                : value * Math.pow(10, exponent);
+        }
+        return negative ? -value : value;
+    }
+    
+    private static int skipWhitespace(String text, int i) {
+        while (i < text.length() && text.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+    
+    private static int tokenEnd(String text, int i) {
+        while (i < text.length() && text.charAt(i) > ' ') {
+            i++;
+        }
+        return i;
+    }
+    
+    private static int trimEnd(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+}
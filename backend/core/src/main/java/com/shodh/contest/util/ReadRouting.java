@@ -0,0 +1,39 @@
+package com.shodh.contest.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads on the primary database where they must see the caller's own
+ * writes. Read-only transactions otherwise go to a read replica when
+ * replicas are configured.
+ */
+public final class ReadRouting {
+    
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = ThreadLocal.withInitial(() -> 0);
+    
+    private ReadRouting() {
+    }
+    
+    /**
+     * Runs {@code reads} with every connection taken from the primary,
+     * including those of read-only transactions it starts or joins before
+     * their first statement.
+     */
+    public static <T> T primary(Supplier<T> reads) {
+        PRIMARY_DEPTH.set(PRIMARY_DEPTH.get() + 1);
+        try {
+            return reads.get();
+        } finally {
+            int depth = PRIMARY_DEPTH.get() - 1;
+            if (depth == 0) {
+                PRIMARY_DEPTH.remove();
+            } else {
+                PRIMARY_DEPTH.set(depth);
+            }
+        }
+    }
+    
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,169 @@
+package com.shodh.contest.config;
+
+import com.shodh.contest.config.CompactRedisSerializer.WriteFormat;
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.dto.VerdictEvent;
+import com.shodh.contest.dto.WorkerHeartbeat;
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.enums.SubmissionStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactRedisSerializerTest {
+    
+    private static final byte MAGIC = (byte) 0xC5;
+    
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(512, WriteFormat.COMPACT);
+    private final CompactRedisSerializer json = new CompactRedisSerializer(512, WriteFormat.JSON);
+    
+    @Test
+    void roundTripsLeaderboards() {
+        List<LeaderboardEntry> standings = List.of(
+            new LeaderboardEntry(1, "alice", 300, 2, 75),
+            new LeaderboardEntry(2, "bob", 100, 1, null),
+            new LeaderboardEntry(2, "carol", 100, 1, null),
+            new LeaderboardEntry(null, null, null, null, null));
+        
+        assertThat(compact.deserialize(compact.serialize(standings))).isEqualTo(standings);
+        assertThat(json.deserialize(json.serialize(standings))).isEqualTo(standings);
+    }
+    
+    @Test
+    void roundTripsEmptyImmutableLists() {
+        assertThat(compact.deserialize(compact.serialize(List.of()))).isEqualTo(List.of());
+        assertThat(json.deserialize(json.serialize(List.of()))).isEqualTo(List.of());
+    }
+    
+    @Test
+    void compressesLargeLeaderboards() {
+        List<LeaderboardEntry> standings = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            standings.add(new LeaderboardEntry(i, "contestant-" + i, 1_000 - i, i % 7, i * 3));
+        }
+        
+        byte[] deflated = compact.serialize(standings);
+        byte[] plain = new CompactRedisSerializer(0, WriteFormat.COMPACT).serialize(standings);
+        
+        assertThat(deflated.length).isLessThan(plain.length);
+        assertThat(compact.deserialize(deflated)).isEqualTo(standings);
+        assertThat(compact.deserialize(plain)).isEqualTo(standings);
+    }
+    
+    @Test
+    void roundTripsStrings() {
+        assertThat(compact.deserialize(compact.serialize("naïve ✓"))).isEqualTo("naïve ✓");
+        assertThat(compact.deserialize(compact.serialize(""))).isEqualTo("");
+    }
+    
+    @Test
+    void roundTripsHeartbeats() {
+        WorkerHeartbeat heartbeat = new WorkerHeartbeat("worker-1", "judge-01", 8,
+            List.of(Language.values()), 6, 2, 4, 1_700_000_000_000L);
+        WorkerHeartbeat empty = new WorkerHeartbeat();
+        
+        assertThat(compact.deserialize(compact.serialize(heartbeat))).isEqualTo(heartbeat);
+        assertThat(compact.deserialize(compact.serialize(empty))).isEqualTo(empty);
+    }
+    
+    @Test
+    void roundTripsVerdictsInEitherWriteFormat() {
+        VerdictEvent verdict = new VerdictEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+            "alice", SubmissionStatus.ACCEPTED, LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000),
+            LocalDateTime.of(2024, 3, 1, 12, 30, 17), 250, 65_536);
+        
+        byte[] bytes = json.serialize(verdict);
+        
+        assertThat(bytes[0]).isEqualTo(MAGIC);
+        assertThat(json.deserialize(bytes)).isEqualTo(verdict);
+        assertThat(compact.deserialize(compact.serialize(verdict))).isEqualTo(verdict);
+    }
+    
+    @Test
+    void roundTripsByteArraysInEitherWriteFormat() {
+        byte[] raw = new byte[2_000];
+        Arrays.fill(raw, 0, 1_000, (byte) 7);
+        
+        assertThat((byte[]) json.deserialize(json.serialize(raw))).isEqualTo(raw);
+        assertThat((byte[]) compact.deserialize(compact.serialize(raw))).isEqualTo(raw);
+        assertThat((byte[]) compact.deserialize(compact.serialize(new byte[0]))).isEmpty();
+    }
+    
+    @Test
+    void embedsOtherTypesAsJson() {
+        Map<String, Object> value = new HashMap<>(Map.of("contest", "spring-cup", "round", 3));
+        
+        assertThat(compact.deserialize(compact.serialize(value))).isEqualTo(value);
+    }
+    
+    @Test
+    void jsonWriteFormatIsReadableByThePlainJsonSerializer() {
+        List<LeaderboardEntry> standings = List.of(new LeaderboardEntry(1, "alice", 100, 1, 20));
+        
+        byte[] bytes = json.serialize(standings);
+        
+        assertThat(bytes[0]).isNotEqualTo(MAGIC);
+        assertThat(new GenericJackson2JsonRedisSerializer().deserialize(bytes)).isEqualTo(standings);
+    }
+    
+    @Test
+    void readsValuesWrittenByThePlainJsonSerializer() {
+        List<LeaderboardEntry> standings = new ArrayList<>(List.of(new LeaderboardEntry(1, "alice", 100, 1, null)));
+        
+        byte[] bytes = new GenericJackson2JsonRedisSerializer().serialize(standings);
+        
+        assertThat(compact.deserialize(bytes)).isEqualTo(standings);
+    }
+    
+    @Test
+    void nullAndEmptyPayloads() {
+        assertThat(compact.serialize(null)).isEmpty();
+        assertThat(compact.deserialize(null)).isNull();
+        assertThat(compact.deserialize(new byte[0])).isNull();
+    }
+    
+    @Test
+    void payloadsOfANewerVersionReadAsMisses() {
+        byte[] bytes = compact.serialize("value");
+        bytes[1]++;
+        
+        assertThat(compact.deserialize(bytes)).isNull();
+    }
+    
+    @Test
+    void unknownTypesReadAsMisses() {
+        byte[] bytes = compact.serialize("value");
+        bytes[3] = 99;
+        
+        assertThat(compact.deserialize(bytes)).isNull();
+    }
+    
+    @Test
+    void corruptPayloadsFailAsSerializationErrors() {
+        byte[] leaderboard = compact.serialize(List.of(new LeaderboardEntry(1, "alice", 100, 1, 20)));
+        
+        assertThatThrownBy(() -> compact.deserialize(Arrays.copyOf(leaderboard, leaderboard.length - 3)))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> compact.deserialize(new byte[] {MAGIC, 1}))
+            .isInstanceOf(SerializationException.class);
+    }
+    
+    @Test
+    void truncatedCompressedPayloadsFailAsSerializationErrors() {
+        byte[] deflated = compact.serialize("x".repeat(10_000));
+        
+        assertThatThrownBy(() -> compact.deserialize(Arrays.copyOf(deflated, deflated.length / 2)))
+            .isInstanceOf(SerializationException.class);
+    }
+}
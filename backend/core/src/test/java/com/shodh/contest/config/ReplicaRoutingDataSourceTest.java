@@ -0,0 +1,137 @@
+package com.shodh.contest.config;
+
+import com.shodh.contest.util.ReadRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    
+    private static final String PRIMARY_LSN = "0/3000148";
+    private static final long MAX_LAG_MS = 1_000;
+    
+    private final AtomicReference<Double> firstLag = new AtomicReference<>(0.0);
+    private final AtomicReference<Double> secondLag = new AtomicReference<>(0.0);
+    private final PreparedStatement firstLagCheck = mock(PreparedStatement.class);
+    
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+    
+    @Test
+    void readOnlyTransactionsTakeTurnsOnReplicasInSync() throws SQLException {
+        ReplicaRoutingDataSource routing = routing();
+        
+        assertThat(List.of(readKey(routing), readKey(routing), readKey(routing)))
+            .containsExactly("replica-0", "replica-1", "replica-0");
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("primary");
+    }
+    
+    @Test
+    void replicaBehindTheLimitGetsNoReadsUntilItCatchesUp() throws SQLException {
+        firstLag.set(5_000.0);
+        ReplicaRoutingDataSource routing = routing();
+        
+        assertThat(List.of(readKey(routing), readKey(routing))).containsOnly("replica-1");
+        
+        firstLag.set(200.0);
+        routing.checkLag();
+        assertThat(List.of(readKey(routing), readKey(routing))).containsExactlyInAnyOrder("replica-0", "replica-1");
+    }
+    
+    @Test
+    void replicasThatStoppedStreamingGetNoReads() throws SQLException {
+        firstLag.set(null);
+        secondLag.set(null);
+        
+        assertThat(readKey(routing())).isEqualTo("primary");
+    }
+    
+    @Test
+    void unreachableReplicasGetNoReads() throws SQLException {
+        DataSource unreachable = mock(DataSource.class);
+        when(unreachable.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary(), List.of(unreachable),
+            MAX_LAG_MS, new SimpleMeterRegistry());
+        
+        assertThat(readKey(routing)).isEqualTo("primary");
+    }
+    
+    @Test
+    void readsThatMustSeeTheirOwnWritesStayOnThePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing();
+        
+        assertThat(ReadRouting.primary(() -> readKey(routing))).isEqualTo("primary");
+    }
+    
+    @Test
+    void replicasAreCheckedAgainstThePrimaryPosition() throws SQLException {
+        routing();
+        
+        verify(firstLagCheck, atLeastOnce()).setString(1, PRIMARY_LSN);
+    }
+    
+    private ReplicaRoutingDataSource routing() throws SQLException {
+        return new ReplicaRoutingDataSource(primary(), List.of(replica(firstLag, firstLagCheck),
+            replica(secondLag, mock(PreparedStatement.class))), MAX_LAG_MS, new SimpleMeterRegistry());
+    }
+    
+    private static Object readKey(ReplicaRoutingDataSource routing) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return routing.determineCurrentLookupKey();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+    
+    private static DataSource primary() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> row(PRIMARY_LSN));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(connection);
+        return primary;
+    }
+    
+    private static DataSource replica(AtomicReference<Double> lag, PreparedStatement lagCheck) throws SQLException {
+        when(lagCheck.executeQuery()).thenAnswer(invocation -> row(lag.get()));
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(lagCheck);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(connection);
+        return replica;
+    }
+    
+    private static ResultSet row(Object value) throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getMetaData()).thenReturn(metaData);
+        when(row.next()).thenReturn(true, false);
+        when(row.getString(1)).thenReturn(value instanceof String text ? text : null);
+        when(row.getDouble(1)).thenReturn(value instanceof Double number ? number : 0.0);
+        when(row.wasNull()).thenReturn(value == null);
+        return row;
+    }
+}
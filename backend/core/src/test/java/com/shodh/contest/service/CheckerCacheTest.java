@@ -0,0 +1,81 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.util.Hashing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CheckerCacheTest {
+    
+    private static final String SOURCE = "int main() { return 0; }";
+    
+    @TempDir
+    Path tmp;
+    
+    @Test
+    void compilesEachSourceOnceAndKeysItByHash() throws IOException {
+        CheckerCache cache = cache("cat");
+        
+        Path binary = cache.binary(SOURCE);
+        
+        assertThat(binary).isEqualTo(tmp.resolve("checkers").resolve(Hashing.sha256(SOURCE)));
+        assertThat(binary).isExecutable().hasContent(SOURCE);
+        assertThat(cache.binary(SOURCE)).isEqualTo(binary);
+        assertThat(cache.binary(SOURCE + "\n")).isNotEqualTo(binary);
+        assertThat(compiles()).isEqualTo(2);
+    }
+    
+    @Test
+    void binariesCompiledByAnotherProcessAreReused() throws IOException {
+        Path binary = cache("cat").binary(SOURCE);
+        
+        assertThat(cache("cat").binary(SOURCE)).isEqualTo(binary);
+        assertThat(compiles()).isEqualTo(1);
+    }
+    
+    @Test
+    void brokenSourcesAreNotCompiledAgain() throws IOException {
+        CheckerCache cache = cache("cat > /dev/null; echo 'checker.cpp:1:1: error: expected' >&2; exit 1");
+        
+        assertThatThrownBy(() -> cache.binary(SOURCE)).isInstanceOf(CheckerCache.CompileException.class)
+            .hasMessageContaining("expected");
+        assertThatThrownBy(() -> cache.binary(SOURCE)).isInstanceOf(CheckerCache.CompileException.class);
+        assertThat(compiles()).isEqualTo(1);
+    }
+    
+    @Test
+    void dockerFailuresAreRetried() throws IOException {
+        CheckerCache cache = cache("cat > /dev/null; echo 'Unable to find image' >&2; exit 125");
+        
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> cache.binary(SOURCE)).isInstanceOf(IOException.class)
+                .isNotInstanceOf(CheckerCache.CompileException.class);
+        }
+        assertThat(compiles()).isEqualTo(2);
+    }
+    
+    /**
+     * Cache whose Docker client runs {@code script} on the checker source
+     * instead of the compiler, counting the compiles.
+     */
+    private CheckerCache cache(String script) throws IOException {
+        Path docker = tmp.resolve("docker");
+        Files.writeString(docker, "#!/bin/sh\necho >> '" + tmp.resolve("compiles") + "'\n" + script + "\n");
+        Files.setPosixFilePermissions(docker, PosixFilePermissions.fromString("rwx------"));
+        CheckerCache cache = new CheckerCache(tmp.resolve("checkers").toString());
+        cache.setDockerBinary(docker.toString());
+        return cache;
+    }
+    
+    private long compiles() throws IOException {
+        Path log = tmp.resolve("compiles");
+        return Files.exists(log) ? Files.readAllLines(log).size() : 0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.util.JudgeLane;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CpuSetAllocatorTest {
+    
+    // Not present on any real host, so each is a core of its own with no NUMA node
+    private static final String CORES = "4096-4099";
+    
+    @TempDir
+    Path lockDir;
+    
+    private final ExecutorService waiters = Executors.newCachedThreadPool();
+    
+    @AfterEach
+    void stopWaiters() {
+        waiters.shutdownNow();
+    }
+    
+    @Test
+    void parsesRangesAndSingleCpus() {
+        assertThat(CpuSetAllocator.parseCpuList("0-3,8,10-11")).containsExactly(0, 1, 2, 3, 8, 10, 11);
+    }
+    
+    @Test
+    void parsesASingleCpu() {
+        assertThat(CpuSetAllocator.parseCpuList("5")).containsExactly(5);
+        assertThat(CpuSetAllocator.parseCpuList("2-2")).containsExactly(2);
+    }
+    
+    @Test
+    void sortsAndDeduplicatesOverlappingParts() {
+        assertThat(CpuSetAllocator.parseCpuList("6-7,0-2,1-3,7")).containsExactly(0, 1, 2, 3, 6, 7);
+    }
+    
+    @Test
+    void ignoresWhitespaceAndEmptyParts() {
+        assertThat(CpuSetAllocator.parseCpuList(" 0-1 , 4 ,,")).containsExactly(0, 1, 4);
+        assertThat(CpuSetAllocator.parseCpuList("")).isEmpty();
+        assertThat(CpuSetAllocator.parseCpuList(" ")).isEmpty();
+    }
+    
+    @Test
+    void reversedRangesAreEmpty() {
+        assertThat(CpuSetAllocator.parseCpuList("3-1")).isEmpty();
+    }
+    
+    @Test
+    void rejectsMalformedLists() {
+        assertThatThrownBy(() -> CpuSetAllocator.parseCpuList("0-"))
+            .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> CpuSetAllocator.parseCpuList("cpu0"))
+            .isInstanceOf(NumberFormatException.class);
+    }
+    
+    @Test
+    void disabledPinningLeasesNoCores() throws InterruptedException {
+        CpuSetAllocator allocator = new CpuSetAllocator(false, 0, CORES, 0, 1, lockDir.toString());
+        
+        assertThat(allocator.isEnabled()).isFalse();
+        assertThat(allocator.getCapacity()).isZero();
+        assertThat(allocator.acquire().cpus()).isNull();
+    }
+    
+    @Test
+    void leasesEachCoreToOneRunAtATime() throws Exception {
+        CpuSetAllocator allocator = allocator("4096-4097", 0, 1);
+        CpuSetAllocator.Lease first = allocator.acquire();
+        CpuSetAllocator.Lease second = allocator.acquire();
+        
+        assertThat(first.cpus()).isNotEqualTo(second.cpus());
+        CompletableFuture<CpuSetAllocator.Lease> third = acquireAsync(allocator, JudgeLane.LIVE);
+        assertWaiting(third);
+        
+        first.close();
+        assertThat(third.get(5, TimeUnit.SECONDS).cpus()).isEqualTo(first.cpus());
+    }
+    
+    @Test
+    void testRunsOnlyUseTheirReservedCores() throws Exception {
+        CpuSetAllocator allocator = allocator(CORES, 1, 1);
+        
+        assertThat(allocator.getCapacity()).isEqualTo(3);
+        CpuSetAllocator.Lease run = acquire(allocator, JudgeLane.RUN);
+        assertThat(run.cpus()).isEqualTo("4099");
+        
+        CompletableFuture<CpuSetAllocator.Lease> secondRun = acquireAsync(allocator, JudgeLane.RUN);
+        assertWaiting(secondRun);
+        assertThat(allocator.acquire().cpus()).isNotEqualTo("4099");
+        
+        run.close();
+        assertThat(secondRun.get(5, TimeUnit.SECONDS).cpus()).isEqualTo("4099");
+    }
+    
+    @Test
+    void rejudgesWaitWhileLiveSubmissionsAreWaiting() throws Exception {
+        CpuSetAllocator allocator = allocator("4096-4097", 0, 2);
+        CpuSetAllocator.Lease first = allocator.acquire();
+        CpuSetAllocator.Lease second = allocator.acquire();
+        
+        CompletableFuture<CpuSetAllocator.Lease> live = acquireAsync(allocator, JudgeLane.LIVE);
+        assertWaiting(live);
+        CompletableFuture<CpuSetAllocator.Lease> rejudge = acquireAsync(allocator, JudgeLane.REJUDGE);
+        assertWaiting(rejudge);
+        
+        first.close();
+        assertThat(live.get(5, TimeUnit.SECONDS).lane()).isEqualTo(JudgeLane.LIVE);
+        assertWaiting(rejudge);
+        
+        second.close();
+        assertThat(rejudge.get(5, TimeUnit.SECONDS).lane()).isEqualTo(JudgeLane.REJUDGE);
+    }
+    
+    @Test
+    void rejudgesHoldAtMostTheirShareOfCores() throws Exception {
+        CpuSetAllocator allocator = allocator(CORES, 0, 1);
+        CpuSetAllocator.Lease rejudge = acquire(allocator, JudgeLane.REJUDGE);
+        
+        CompletableFuture<CpuSetAllocator.Lease> secondRejudge = acquireAsync(allocator, JudgeLane.REJUDGE);
+        assertWaiting(secondRejudge);
+        assertThat(allocator.acquire().lane()).isEqualTo(JudgeLane.LIVE);
+        
+        rejudge.close();
+        assertThat(secondRejudge.get(5, TimeUnit.SECONDS).lane()).isEqualTo(JudgeLane.REJUDGE);
+    }
+    
+    @Test
+    void coresLeasedByAnotherProcessOnTheHostAreSkipped() throws Exception {
+        CpuSetAllocator backend = allocator("4096-4097", 0, 1);
+        CpuSetAllocator worker = allocator("4096-4097", 0, 1);
+        
+        CpuSetAllocator.Lease held = backend.acquire();
+        CpuSetAllocator.Lease other = worker.acquire();
+        assertThat(other.cpus()).isNotEqualTo(held.cpus());
+        
+        CompletableFuture<CpuSetAllocator.Lease> waiting = acquireAsync(worker, JudgeLane.LIVE);
+        assertWaiting(waiting);
+        
+        held.close();
+        assertThat(waiting.get(5, TimeUnit.SECONDS).cpus()).isEqualTo(held.cpus());
+    }
+    
+    private CpuSetAllocator allocator(String cores, int runCores, int rejudgeMaxLeases) {
+        return new CpuSetAllocator(true, 0, cores, runCores, rejudgeMaxLeases, lockDir.toString());
+    }
+    
+    private CompletableFuture<CpuSetAllocator.Lease> acquireAsync(CpuSetAllocator allocator, JudgeLane lane) {
+        return CompletableFuture.supplyAsync(() -> acquire(allocator, lane), waiters);
+    }
+    
+    private static CpuSetAllocator.Lease acquire(CpuSetAllocator allocator, JudgeLane lane) {
+        return JudgeLane.call(lane, () -> {
+            try {
+                return allocator.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+    
+    private static void assertWaiting(CompletableFuture<CpuSetAllocator.Lease> lease) throws InterruptedException {
+        Thread.sleep(200);
+        assertThat(lease).isNotDone();
+    }
+}
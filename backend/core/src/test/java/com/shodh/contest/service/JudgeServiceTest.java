@@ -0,0 +1,158 @@
+package com.shodh.contest.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class JudgeServiceTest {
+    
+    private static final Path HARNESS = Paths.get("../../docker/runners/harness.sh");
+    
+    @Test
+    void readsTestFramesWithPayloads() throws IOException {
+        InputStream in = stream("#shodh test 0 0 0 250000000 0.20 0.01 2048 3 0\n42\n");
+        
+        JudgeService.JudgeResult result = JudgeService.readTestFrame(JudgeService.readFrameHeader(in).split(" "),
+            in, 1_000);
+        
+        assertThat(result.getResultType()).isEqualTo("SUCCESS");
+        assertThat(result.getOutput()).isEqualTo("42\n");
+        assertThat(result.getRunTime()).isEqualTo(250);
+        assertThat(result.getCpuTime()).isEqualTo(210);
+        assertThat(result.getMemoryKb()).isEqualTo(2048);
+        assertThat(result.getCheckerExitCode()).isNull();
+        assertThat(JudgeService.readFrameHeader(in)).isNull();
+    }
+    
+    @Test
+    void readsCheckerVerdicts() throws IOException {
+        InputStream in = stream("#shodh test 1 0 0 1000000 - - - 2 0 1 5\n7\nwrong");
+        
+        JudgeService.JudgeResult result = JudgeService.readTestFrame(JudgeService.readFrameHeader(in).split(" "),
+            in, 1_000);
+        
+        assertThat(result.getCheckerExitCode()).isEqualTo(1);
+        assertThat(result.getCheckerMessage()).isEqualTo("wrong");
+        assertThat(result.getCpuTime()).isNull();
+    }
+    
+    @Test
+    void skippedCheckerLeavesNoCheckerVerdict() throws IOException {
+        InputStream in = stream("#shodh test 0 1 0 1000000 - - - 0 4 - 0\noops");
+        
+        JudgeService.JudgeResult result = JudgeService.readTestFrame(JudgeService.readFrameHeader(in).split(" "),
+            in, 1_000);
+        
+        assertThat(result.getResultType()).isEqualTo("RUNTIME_ERROR");
+        assertThat(result.getError()).isEqualTo("oops");
+        assertThat(result.getCheckerExitCode()).isNull();
+        assertThat(result.getCheckerMessage()).isNull();
+    }
+    
+    @Test
+    void timeoutStatusIsTimeLimitExceeded() {
+        assertThat(JudgeService.toBatchResult(testFields(124, 1_000), "partial", "", 1_000).getResultType())
+            .isEqualTo("TLE");
+    }
+    
+    @Test
+    void killAfterTheTimeLimitIsTimeLimitExceeded() {
+        JudgeService.JudgeResult result = JudgeService.toBatchResult(testFields(137, 1_100), "", "Killed", 1_000);
+        
+        assertThat(result.getResultType()).isEqualTo("TLE");
+        assertThat(result.getOutput()).isEmpty();
+    }
+    
+    @Test
+    void killBeforeTheTimeLimitIsARuntimeError() {
+        // Killed early, by the memory limit for instance
+        JudgeService.JudgeResult result = JudgeService.toBatchResult(testFields(137, 400), "", "", 1_000);
+        
+        assertThat(result.getResultType()).isEqualTo("RUNTIME_ERROR");
+        assertThat(result.getError()).isEqualTo("Runtime Error");
+    }
+    
+    @Test
+    void rejectsTruncatedHeaders() {
+        InputStream in = stream("#shodh test 0 0 0 1");
+        
+        assertThatThrownBy(() -> JudgeService.readFrameHeader(in)).isInstanceOf(IOException.class);
+    }
+    
+    @Test
+    void rejectsOversizedHeaders() {
+        InputStream in = stream("#shodh " + "x".repeat(1_000) + "\n");
+        
+        assertThatThrownBy(() -> JudgeService.readFrameHeader(in)).isInstanceOf(IOException.class);
+    }
+    
+    @Test
+    void rejectsTruncatedPayloads() throws IOException {
+        InputStream in = stream("#shodh test 0 0 0 1000000 - - - 10 0\nshort");
+        String[] fields = JudgeService.readFrameHeader(in).split(" ");
+        
+        assertThatThrownBy(() -> JudgeService.readTestFrame(fields, in, 1_000)).isInstanceOf(IOException.class);
+    }
+    
+    @Test
+    void rejectsTestFramesWithMissingFields() throws IOException {
+        InputStream in = stream("#shodh test 0 0 0 1000000 - - - 0 0 1\n");
+        String[] fields = JudgeService.readFrameHeader(in).split(" ");
+        
+        assertThatThrownBy(() -> JudgeService.readTestFrame(fields, in, 1_000)).isInstanceOf(IOException.class);
+    }
+    
+    @Test
+    void harnessReportsATermIgnoringLoopAsTimeLimitExceeded(@TempDir Path tmp) throws Exception {
+        assumeTrue(Files.isRegularFile(HARNESS) && new File("/usr/bin/timeout").canExecute());
+        
+        List<JudgeService.JudgeResult> results = runHarness(tmp, List.of("", "1 2\n"), 300,
+            "sh -c 'if read a b; then echo $((a + b)); else trap \"\" TERM; while :; do :; done; fi'");
+        
+        assertThat(results).extracting(JudgeService.JudgeResult::getResultType).containsExactly("TLE", "SUCCESS");
+        assertThat(results.get(0).getRunTime()).isGreaterThanOrEqualTo(300);
+        assertThat(results.get(1).getOutput()).isEqualTo("3\n");
+    }
+    
+    private List<JudgeService.JudgeResult> runHarness(Path tmp, List<String> inputs, int timeLimitMs, String run)
+            throws Exception {
+        ProcessBuilder builder = new ProcessBuilder("sh", HARNESS.toString(), String.valueOf(inputs.size()),
+            String.valueOf(timeLimitMs), "", run);
+        builder.environment().put("TMPDIR", tmp.toString());
+        Process process = builder.redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        JudgeService.writeTests(process.getOutputStream(), inputs, null);
+        
+        List<JudgeService.JudgeResult> results = new ArrayList<>();
+        try (InputStream stdout = process.getInputStream()) {
+            String header;
+            while ((header = JudgeService.readFrameHeader(stdout)) != null && !header.equals("#shodh done")) {
+                results.add(JudgeService.readTestFrame(header.split(" "), stdout, timeLimitMs));
+            }
+        }
+        assertThat(process.waitFor(10, TimeUnit.SECONDS)).isTrue();
+        return results;
+    }
+    
+    private static String[] testFields(int exitCode, long runTimeMs) {
+        return ("#shodh test 0 " + exitCode + " 0 " + runTimeMs * 1_000_000 + " - - - 0 0").split(" ");
+    }
+    
+    private static InputStream stream(String frames) {
+        return new ByteArrayInputStream(frames.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.entity.Problem;
+import com.shodh.contest.enums.CheckerType;
+import com.shodh.contest.enums.SubmissionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OutputCheckerTest {
+    
+    private final CheckerCache checkerCache = mock(CheckerCache.class);
+    private final OutputChecker checker = new OutputChecker(checkerCache);
+    
+    @Test
+    void checkerAcceptsOnlyWithExitStatusZero() {
+        Problem problem = problem(CheckerType.CUSTOM);
+        
+        assertThat(checker.check(problem, checked(0), "ignored")).isEqualTo(SubmissionStatus.ACCEPTED);
+        assertThat(checker.check(problem, checked(1), "ignored")).isEqualTo(SubmissionStatus.WRONG_ANSWER);
+        assertThat(checker.check(problem, checked(2), "ignored")).isEqualTo(SubmissionStatus.WRONG_ANSWER);
+    }
+    
+    @Test
+    void checkerFailuresGiveNoVerdict() {
+        Problem problem = problem(CheckerType.CUSTOM);
+        
+        // testlib's "fail", a timeout, a crash, and a checker that never ran
+        assertThat(checker.check(problem, checked(3), "")).isNull();
+        assertThat(checker.check(problem, checked(124), "")).isNull();
+        assertThat(checker.check(problem, checked(139), "")).isNull();
+        assertThat(checker.check(problem, checked(null), "")).isNull();
+    }
+    
+    @Test
+    void customCheckersIgnoreTheOutputItself() {
+        JudgeService.JudgeResult result = checked(0);
+        result.setOutput("anything");
+        
+        assertThat(checker.check(problem(CheckerType.CUSTOM), result, "42")).isEqualTo(SubmissionStatus.ACCEPTED);
+    }
+    
+    @Test
+    void builtInCheckersCompareTheOutput() {
+        assertThat(checker.check(problem(CheckerType.EXACT), output("42\n"), "42")).isEqualTo(SubmissionStatus.ACCEPTED);
+        assertThat(checker.check(problem(CheckerType.EXACT), output("4 2"), "4\n2"))
+            .isEqualTo(SubmissionStatus.WRONG_ANSWER);
+        assertThat(checker.check(problem(CheckerType.TOKENS), output("4 2"), "4\n2"))
+            .isEqualTo(SubmissionStatus.ACCEPTED);
+    }
+    
+    @Test
+    void onlyCustomCheckersAreCompiled() throws IOException {
+        assertThat(checker.prepare(problem(CheckerType.TOKENS), List.of("1"))).isNull();
+        verifyNoInteractions(checkerCache);
+        
+        Problem custom = problem(CheckerType.CUSTOM);
+        custom.setCheckerSource("int main() {}");
+        when(checkerCache.binary("int main() {}")).thenReturn(Path.of("/checkers/abc"));
+        
+        JudgeService.Checker prepared = checker.prepare(custom, List.of("1", "2"));
+        
+        assertThat(prepared.binary()).isEqualTo(Path.of("/checkers/abc"));
+        assertThat(prepared.answers()).containsExactly("1", "2");
+    }
+    
+    @Test
+    void customCheckerWithoutSourceIsAnError() {
+        assertThatThrownBy(() -> checker.prepare(problem(CheckerType.CUSTOM), List.of()))
+            .isInstanceOf(IOException.class);
+    }
+    
+    private static Problem problem(CheckerType type) {
+        Problem problem = new Problem();
+        problem.setCheckerType(type);
+        return problem;
+    }
+    
+    private static JudgeService.JudgeResult checked(Integer exitCode) {
+        JudgeService.JudgeResult result = output("");
+        result.setCheckerExitCode(exitCode);
+        return result;
+    }
+    
+    private static JudgeService.JudgeResult output(String output) {
+        return new JudgeService.JudgeResult(true, output, "", 10, "SUCCESS");
+    }
+}
@@ -0,0 +1,160 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.dto.LeaderboardEntry;
+import com.shodh.contest.enums.ScoringMode;
+import com.shodh.contest.enums.SubmissionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.shodh.contest.enums.SubmissionStatus.ACCEPTED;
+import static com.shodh.contest.enums.SubmissionStatus.COMPILATION_ERROR;
+import static com.shodh.contest.enums.SubmissionStatus.WRONG_ANSWER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreMatrixTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private static final UUID A = UUID.randomUUID();
+    private static final UUID B = UUID.randomUUID();
+    
+    private final ScoreMatrix matrix = new ScoreMatrix(ScoringMode.ICPC, START, 20, List.of(A, B), List.of(100, 200));
+    
+    @Test
+    void penaltyIsMinutesToAcceptPlusCostPerEarlierReject() {
+        judge("alice", A, WRONG_ANSWER, 5);
+        judge("alice", A, COMPILATION_ERROR, 8);
+        judge("alice", A, WRONG_ANSWER, 12);
+        judge("alice", A, ACCEPTED, 30);
+        judge("alice", B, ACCEPTED, 45);
+        
+        ScoreMatrix.Totals alice = totals("alice");
+        assertThat(alice.solved()).isEqualTo(2);
+        assertThat(alice.score()).isEqualTo(300);
+        assertThat(alice.penalty()).isEqualTo(30 + 2 * 20 + 45);
+        assertThat(alice.lastAcceptAt()).isEqualTo(45 * 60_000L);
+    }
+    
+    @Test
+    void penaltyCountsWholeMinutes() {
+        matrix.record("alice", A, ACCEPTED, START.plusMinutes(30).plusSeconds(59));
+        
+        assertThat(totals("alice").penalty()).isEqualTo(30);
+    }
+    
+    @Test
+    void verdictsAfterTheAcceptChangeNothing() {
+        judge("alice", A, ACCEPTED, 30);
+        
+        assertThat(judge("alice", A, WRONG_ANSWER, 40)).isFalse();
+        assertThat(judge("alice", A, ACCEPTED, 50)).isFalse();
+        assertThat(totals("alice").penalty()).isEqualTo(30);
+        assertThat(totals("alice").solved()).isEqualTo(1);
+    }
+    
+    @Test
+    void rejectJudgedAfterALaterAcceptStillCostsPenalty() {
+        judge("alice", A, ACCEPTED, 30);
+        
+        assertThat(judge("alice", A, WRONG_ANSWER, 10)).isTrue();
+        assertThat(totals("alice").penalty()).isEqualTo(30 + 20);
+    }
+    
+    @Test
+    void earlierAcceptJudgedLateMovesTheSolveBack() {
+        judge("alice", A, ACCEPTED, 30);
+        judge("alice", B, ACCEPTED, 50);
+        
+        assertThat(judge("alice", B, ACCEPTED, 20)).isTrue();
+        
+        ScoreMatrix.Totals alice = totals("alice");
+        assertThat(alice.solved()).isEqualTo(2);
+        assertThat(alice.score()).isEqualTo(300);
+        assertThat(alice.penalty()).isEqualTo(30 + 20);
+        assertThat(alice.lastAcceptAt()).isEqualTo(30 * 60_000L);
+    }
+    
+    @Test
+    void replayIgnoresVerdictsNotNewerThanTheCell() {
+        judge("alice", A, WRONG_ANSWER, 10);
+        
+        assertThat(matrix.replay("alice", A, WRONG_ANSWER, START.plusMinutes(10))).isFalse();
+        assertThat(matrix.replay("alice", A, WRONG_ANSWER, START.plusMinutes(5))).isFalse();
+        assertThat(matrix.replay("alice", A, ACCEPTED, START.plusMinutes(25))).isTrue();
+        assertThat(totals("alice").penalty()).isEqualTo(25 + 20);
+    }
+    
+    @Test
+    void outOfOrderVerdictsMatchInOrderReplay() {
+        ScoreMatrix inOrder = new ScoreMatrix(ScoringMode.ICPC, START, 20, List.of(A, B), List.of(100, 200));
+        inOrder.record("bob", A, WRONG_ANSWER, START.plusMinutes(3));
+        inOrder.record("bob", A, WRONG_ANSWER, START.plusMinutes(7));
+        inOrder.record("bob", A, ACCEPTED, START.plusMinutes(15));
+        inOrder.record("bob", B, ACCEPTED, START.plusMinutes(40));
+        
+        judge("bob", B, ACCEPTED, 40);
+        judge("bob", A, ACCEPTED, 15);
+        judge("bob", A, WRONG_ANSWER, 7);
+        judge("bob", A, WRONG_ANSWER, 3);
+        
+        assertThat(matrix.totals()).isEqualTo(inOrder.totals());
+    }
+    
+    @Test
+    void unknownProblemsAreIgnored() {
+        assertThat(judge("alice", UUID.randomUUID(), ACCEPTED, 10)).isFalse();
+        assertThat(matrix.totals()).isEmpty();
+    }
+    
+    @Test
+    void icpcRanksBySolvedThenPenaltyThenLastAccept() {
+        judge("slow", A, ACCEPTED, 50);
+        judge("fast", A, ACCEPTED, 10);
+        judge("both", A, ACCEPTED, 40);
+        judge("both", B, ACCEPTED, 60);
+        judge("tied", A, WRONG_ANSWER, 1);
+        judge("tied", A, ACCEPTED, 30);
+        
+        List<LeaderboardEntry> standings = matrix.standings();
+        
+        assertThat(standings).extracting(LeaderboardEntry::getUsername)
+            .containsExactly("both", "fast", "tied", "slow");
+        assertThat(standings).extracting(LeaderboardEntry::getRank).containsExactly(1, 2, 3, 4);
+        assertThat(standings).extracting(LeaderboardEntry::getPenalty).containsExactly(100, 10, 50, 50);
+    }
+    
+    @Test
+    void pointsModeRanksByScoreWithoutPenalty() {
+        ScoreMatrix points = new ScoreMatrix(ScoringMode.POINTS, START, 20, List.of(A, B), List.of(100, 200));
+        points.record("alice", A, ACCEPTED, START.plusMinutes(5));
+        points.record("bob", B, ACCEPTED, START.plusMinutes(50));
+        
+        List<LeaderboardEntry> standings = points.standings();
+        
+        assertThat(standings).extracting(LeaderboardEntry::getUsername).containsExactly("bob", "alice");
+        assertThat(standings).extracting(LeaderboardEntry::getPenalty).containsOnlyNulls();
+    }
+    
+    @Test
+    void growsPastTheInitialUserCapacity() {
+        for (int i = 0; i < 100; i++) {
+            judge("user" + i, A, ACCEPTED, i);
+        }
+        
+        assertThat(matrix.standings()).hasSize(100);
+        assertThat(totals("user99").penalty()).isEqualTo(99);
+    }
+    
+    private boolean judge(String username, UUID problemId, SubmissionStatus status, int minute) {
+        return matrix.record(username, problemId, status, START.plusMinutes(minute));
+    }
+    
+    private ScoreMatrix.Totals totals(String username) {
+        return matrix.totals().stream()
+            .filter(totals -> totals.username().equals(username))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,98 @@
+package com.shodh.contest.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StandingsCodecTest {
+    
+    private static final ScoreMatrix.Totals ALICE = new ScoreMatrix.Totals("alice", 300, 2, 75, 2_700_000);
+    private static final ScoreMatrix.Totals BOB = new ScoreMatrix.Totals("bob", 100, 1, 20, 1_200_000);
+    private static final ScoreMatrix.Totals CAROL = new ScoreMatrix.Totals("carol", 100, 1, 45, 2_400_000);
+    
+    @Test
+    void fullSnapshotReplacesWhateverItIsAppliedTo() {
+        Map<String, ScoreMatrix.Totals> totals = new HashMap<>(StandingsCodec.byUsername(List.of(CAROL)));
+        
+        StandingsCodec.apply(StandingsCodec.full(List.of(ALICE, BOB)), totals);
+        
+        assertThat(totals).isEqualTo(StandingsCodec.byUsername(List.of(ALICE, BOB)));
+    }
+    
+    @Test
+    void deltaTakesPreviousTotalsToNext() {
+        Map<String, ScoreMatrix.Totals> previous = StandingsCodec.byUsername(List.of(ALICE, BOB));
+        ScoreMatrix.Totals bobSolvedAgain = new ScoreMatrix.Totals("bob", 400, 2, 80, 3_000_000);
+        Map<String, ScoreMatrix.Totals> next = StandingsCodec.byUsername(List.of(bobSolvedAgain, CAROL));
+        
+        Map<String, ScoreMatrix.Totals> totals = new HashMap<>(previous);
+        StandingsCodec.apply(StandingsCodec.delta(previous, next), totals);
+        
+        assertThat(totals).isEqualTo(next);
+    }
+    
+    @Test
+    void deltaOfUnchangedTotalsLeavesThemAlone() {
+        Map<String, ScoreMatrix.Totals> previous = StandingsCodec.byUsername(List.of(ALICE, BOB));
+        
+        Map<String, ScoreMatrix.Totals> totals = new HashMap<>(previous);
+        StandingsCodec.apply(StandingsCodec.delta(previous, new HashMap<>(previous)), totals);
+        
+        assertThat(totals).isEqualTo(previous);
+    }
+    
+    @Test
+    void keyframeAndDeltasReplayToTheLatestStandings() {
+        List<ScoreMatrix.Totals> frame = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            frame.add(new ScoreMatrix.Totals("user" + i, i, 1, i * 2L, i * 1_000L));
+        }
+        List<byte[]> history = new ArrayList<>();
+        history.add(StandingsCodec.full(frame));
+        Map<String, ScoreMatrix.Totals> latest = StandingsCodec.byUsername(frame);
+        for (int step = 0; step < 10; step++) {
+            Map<String, ScoreMatrix.Totals> next = new HashMap<>(latest);
+            ScoreMatrix.Totals moved = next.get("user" + step);
+            next.put(moved.username(), new ScoreMatrix.Totals(moved.username(), moved.score() + 100,
+                moved.solved() + 1, moved.penalty() + 30, moved.lastAcceptAt() + 60_000));
+            next.remove("user" + (499 - step));
+            history.add(StandingsCodec.delta(latest, next));
+            latest = next;
+        }
+        
+        Map<String, ScoreMatrix.Totals> replayed = new HashMap<>();
+        history.forEach(snapshot -> StandingsCodec.apply(snapshot, replayed));
+        
+        assertThat(replayed).isEqualTo(latest);
+        assertThat(history.get(1).length).isLessThan(history.get(0).length / 10);
+    }
+    
+    @Test
+    void roundTripsEmptyStandingsAndUnicodeNames() {
+        ScoreMatrix.Totals unicode = new ScoreMatrix.Totals("naïve-✓", 0, 1, 0, 0);
+        Map<String, ScoreMatrix.Totals> totals = new HashMap<>();
+        
+        StandingsCodec.apply(StandingsCodec.full(List.of(unicode)), totals);
+        assertThat(totals).containsExactly(Map.entry("naïve-✓", unicode));
+        
+        StandingsCodec.apply(StandingsCodec.full(List.of()), totals);
+        assertThat(totals).isEmpty();
+    }
+    
+    @Test
+    void rejectsCorruptSnapshots() {
+        byte[] snapshot = StandingsCodec.full(List.of(ALICE, BOB));
+        byte[] truncated = Arrays.copyOf(snapshot, snapshot.length / 2);
+        
+        assertThatThrownBy(() -> StandingsCodec.apply(truncated, new HashMap<>()))
+            .isInstanceOf(UncheckedIOException.class);
+    }
+}
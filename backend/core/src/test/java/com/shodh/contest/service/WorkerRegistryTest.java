@@ -0,0 +1,91 @@
+package com.shodh.contest.service;
+
+import com.shodh.contest.repository.SubmissionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkerRegistryTest {
+    
+    private static final UUID RUNNING = UUID.randomUUID();
+    private static final UUID QUEUED = UUID.randomUUID();
+    
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redis = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ListOperations<String, Object> lists = mock(ListOperations.class);
+    @SuppressWarnings("unchecked")
+    private final SetOperations<String, Object> sets = mock(SetOperations.class);
+    private final SubmissionRepository submissions = mock(SubmissionRepository.class);
+    private final WorkerRegistry registry = new WorkerRegistry(redis, submissions);
+    
+    @BeforeEach
+    void oneLiveAndOneDeadWorker() {
+        when(redis.opsForList()).thenReturn(lists);
+        when(redis.opsForSet()).thenReturn(sets);
+        when(sets.members("judge:workers")).thenReturn(Set.of("live", "dead"));
+        when(redis.hasKey("judge:worker:live")).thenReturn(true);
+        when(redis.hasKey("judge:worker:dead")).thenReturn(false);
+        when(lists.range("judge:processing:dead", 0, -1)).thenReturn(List.of(RUNNING.toString()));
+        when(lists.rightPopAndLeftPush("judge:processing:dead", "judge:queue"))
+            .thenReturn(RUNNING.toString(), (Object) null);
+        when(lists.rightPopAndLeftPush("judge:queue:dead", "judge:queue"))
+            .thenReturn(QUEUED.toString(), (Object) null);
+        when(submissions.findFinishedIds(anyCollection(), anyCollection())).thenReturn(List.of());
+    }
+    
+    @Test
+    void requeuesTheWorkOfDeadWorkersOnly() {
+        assertThat(registry.reapDeadWorkers()).isEqualTo(2);
+        
+        verify(sets).remove("judge:workers", "dead");
+        verify(sets, never()).remove("judge:workers", "live");
+        verify(lists, never()).rightPopAndLeftPush("judge:processing:live", "judge:queue");
+        verify(lists, never()).rightPopAndLeftPush("judge:queue:live", "judge:queue");
+    }
+    
+    @Test
+    void releasesClaimsBeforeTheSubmissionsReachTheSharedQueue() {
+        registry.reapDeadWorkers();
+        
+        InOrder order = inOrder(submissions, lists);
+        order.verify(submissions).releaseClaims(List.of(RUNNING), "dead");
+        order.verify(lists, atLeastOnce()).rightPopAndLeftPush("judge:processing:dead", "judge:queue");
+    }
+    
+    @Test
+    void dropsRequeuedSubmissionsThatWereJudgedAfterAll() {
+        when(submissions.findFinishedIds(anyCollection(), anyCollection())).thenReturn(List.of(RUNNING));
+        
+        assertThat(registry.reapDeadWorkers()).isEqualTo(1);
+        
+        verify(lists).remove("judge:queue", 1, RUNNING.toString());
+        verify(lists, never()).remove("judge:queue", 1, QUEUED.toString());
+    }
+    
+    @Test
+    void releasesNothingForAWorkerThatWasJudgingNothing() {
+        when(lists.range("judge:processing:dead", 0, -1)).thenReturn(List.of());
+        
+        registry.reapDeadWorkers();
+        
+        verify(submissions, never()).releaseClaims(anyCollection(), any());
+    }
+}
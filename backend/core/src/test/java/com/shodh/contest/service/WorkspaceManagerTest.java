@@ -0,0 +1,88 @@
+package com.shodh.contest.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkspaceManagerTest {
+    
+    @TempDir
+    Path shared;
+    
+    @Test
+    void eachManagerClaimsItsOwnInstanceDirectory() {
+        WorkspaceManager backend = new WorkspaceManager(shared.toString(), 2, 1);
+        WorkspaceManager worker = new WorkspaceManager(shared.toString(), 2, 1);
+        
+        assertThat(backend.getRoot()).isEqualTo(shared.resolve("instance-0"));
+        assertThat(worker.getRoot()).isEqualTo(shared.resolve("instance-1"));
+    }
+    
+    @Test
+    void collectsOrphansOnlyInItsOwnInstanceDirectory() throws IOException {
+        Path orphan = Files.createDirectories(shared.resolve("instance-0").resolve("overflow-left-behind"));
+        WorkspaceManager backend = new WorkspaceManager(shared.toString(), 1, 1);
+        Path inUse = Files.writeString(backend.getRoot().resolve("slot-0").resolve("Solution.java"), "class A {}");
+        
+        new WorkspaceManager(shared.toString(), 1, 1);
+        
+        assertThat(orphan).doesNotExist();
+        assertThat(inUse).exists();
+    }
+    
+    @Test
+    void releasedWorkspacesAreResetAndReused() throws IOException {
+        WorkspaceManager manager = new WorkspaceManager(shared.toString(), 1, 1);
+        WorkspaceManager.Workspace workspace = manager.acquire();
+        Path slot = workspace.getDir();
+        workspace.write("src/Main.java", "class Main {}");
+        // Written by the program rather than through the workspace
+        Files.writeString(slot.resolve("output.txt"), "42");
+        
+        assertThat(manager.available()).isZero();
+        workspace.close();
+        
+        assertThat(manager.available()).isEqualTo(1);
+        assertThat(slot).isEmptyDirectory();
+        assertThat(manager.acquire().getDir()).isEqualTo(slot);
+    }
+    
+    @Test
+    void overflowWorkspacesAreDeletedOnRelease() throws IOException {
+        WorkspaceManager manager = new WorkspaceManager(shared.toString(), 1, 1);
+        WorkspaceManager.Workspace pooled = manager.acquire();
+        WorkspaceManager.Workspace overflow = manager.acquire();
+        overflow.write("Main.java", "class Main {}");
+        
+        assertThat(overflow.getDir()).isNotEqualTo(pooled.getDir()).startsWith(manager.getRoot());
+        overflow.close();
+        
+        assertThat(overflow.getDir()).doesNotExist();
+        assertThat(manager.available()).isZero();
+    }
+    
+    @Test
+    void writesStopAtTheQuotaUntilTheWorkspaceIsReleased() throws IOException {
+        WorkspaceManager manager = new WorkspaceManager(shared.toString(), 1, 1);
+        String halfMegabyte = "x".repeat(512 * 1024);
+        WorkspaceManager.Workspace workspace = manager.acquire();
+        workspace.write("a.txt", halfMegabyte);
+        workspace.write("b.txt", halfMegabyte);
+        
+        assertThatThrownBy(() -> workspace.write("c.txt", "x"))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("quota");
+        assertThat(workspace.getDir().resolve("c.txt")).doesNotExist();
+        
+        workspace.close();
+        WorkspaceManager.Workspace reused = manager.acquire();
+        reused.write("a.txt", halfMegabyte);
+        assertThat(reused.getDir().resolve("a.txt")).exists();
+    }
+}
@@ -0,0 +1,155 @@
+package com.shodh.contest.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+    
+    private static final double ACCURACY = 0.01;
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999};
+    
+    @Test
+    void quantilesStayWithinRelativeErrorOfUniformValues() {
+        Random random = new Random(42);
+        int[] values = new int[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(2_000);
+        }
+        
+        assertWithinBounds(sketchOf(values), values);
+    }
+    
+    @Test
+    void quantilesStayWithinRelativeErrorOfHeavyTailedValues() {
+        Random random = new Random(7);
+        int[] values = new int[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, like execution times: mostly small with a long tail
+            values[i] = (int) Math.min(Integer.MAX_VALUE, Math.exp(3 + 2 * random.nextGaussian()));
+        }
+        
+        assertWithinBounds(sketchOf(values), values);
+    }
+    
+    @Test
+    void keepsMinimumMaximumAndZerosExactly() {
+        QuantileSketch sketch = sketchOf(new int[] {0, 0, 0, 17, 1_000_000});
+        
+        assertThat(sketch.count()).isEqualTo(5);
+        assertThat(sketch.min()).isZero();
+        assertThat(sketch.max()).isEqualTo(1_000_000);
+        assertThat(sketch.quantile(0)).isZero();
+        assertThat(sketch.quantile(0.5)).isZero();
+        assertThat(sketch.quantile(1)).isEqualTo(1_000_000);
+    }
+    
+    @Test
+    void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        
+        assertThat(sketch.quantile(0.5)).isNull();
+        assertThat(sketch.min()).isNull();
+        assertThat(sketch.max()).isNull();
+    }
+    
+    @Test
+    void mergeMatchesASingleSketchOfAllValues() {
+        Random random = new Random(1);
+        int[] values = new int[20_000];
+        QuantileSketch low = new QuantileSketch(ACCURACY);
+        QuantileSketch high = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < values.length; i++) {
+            // Disjoint ranges, so merging has to grow the bucket array on both sides
+            values[i] = i % 2 == 0 ? random.nextInt(50) : 10_000 + random.nextInt(500_000);
+            (i % 2 == 0 ? low : high).add(values[i]);
+        }
+        
+        high.merge(low);
+        high.merge(new QuantileSketch(ACCURACY));
+        
+        QuantileSketch whole = sketchOf(values);
+        assertThat(high.count()).isEqualTo(whole.count());
+        for (double q : QUANTILES) {
+            assertThat(high.quantile(q)).as("q=%s", q).isEqualTo(whole.quantile(q));
+        }
+        assertWithinBounds(high, values);
+    }
+    
+    @Test
+    void mergeRejectsADifferentAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        
+        assertThatThrownBy(() -> sketch.merge(new QuantileSketch(0.02)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void rejectsNegativeValues() {
+        assertThatThrownBy(() -> new QuantileSketch(ACCURACY).add(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void roundTripsThroughItsBinaryForm() throws IOException {
+        Random random = new Random(3);
+        int[] values = new int[5_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(100_000);
+        }
+        QuantileSketch sketch = sketchOf(values);
+        
+        QuantileSketch read = roundTrip(sketch);
+        
+        assertThat(read.count()).isEqualTo(sketch.count());
+        assertThat(read.min()).isEqualTo(sketch.min());
+        assertThat(read.max()).isEqualTo(sketch.max());
+        for (double q : QUANTILES) {
+            assertThat(read.quantile(q)).as("q=%s", q).isEqualTo(sketch.quantile(q));
+        }
+    }
+    
+    @Test
+    void roundTripsEmptyAndZeroOnlySketches() throws IOException {
+        assertThat(roundTrip(new QuantileSketch(ACCURACY)).count()).isZero();
+        
+        QuantileSketch zeros = roundTrip(sketchOf(new int[] {0, 0}));
+        assertThat(zeros.count()).isEqualTo(2);
+        assertThat(zeros.quantile(0.5)).isZero();
+    }
+    
+    private static QuantileSketch sketchOf(int[] values) {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+    
+    private static QuantileSketch roundTrip(QuantileSketch sketch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        return QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), ACCURACY);
+    }
+    
+    private static void assertWithinBounds(QuantileSketch sketch, int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            int exact = sorted[(int) (q * (sorted.length - 1))];
+            // Estimates are rounded to whole numbers, which may add half a unit
+            assertThat((double) sketch.quantile(q)).as("q=%s", q)
+                .isCloseTo(exact, within(ACCURACY * exact + 0.5));
+        }
+    }
+}
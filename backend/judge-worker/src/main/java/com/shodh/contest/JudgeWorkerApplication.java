@@ -0,0 +1,12 @@
+package com.shodh.contest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class JudgeWorkerApplication {
+    
+    public static void main(String[] args) {
+        SpringApplication.run(JudgeWorkerApplication.class, args);
+    }
+}
@@ -0,0 +1,157 @@
+package com.shodh.contest.worker;
+
+import com.shodh.contest.dto.WorkerHeartbeat;
+import com.shodh.contest.enums.Language;
+import com.shodh.contest.service.CpuSetAllocator;
+import com.shodh.contest.service.SubmissionProcessor;
+import com.shodh.contest.service.WorkerRegistry;
+import com.shodh.contest.service.WorkspaceManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pulls submissions from this worker's queue (then the shared queue) and
+ * judges them, never holding more than it has slots for. Slots follow the
+ * leasable cores when CPU pinning is on so a taken submission never waits for
+ * a core.
+ */
+@Slf4j
+@Component
+public class JudgeWorker {
+    
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    
+    private final SubmissionProcessor submissionProcessor;
+    private final WorkerRegistry workerRegistry;
+    private final CpuSetAllocator cpuSetAllocator;
+    private final WorkspaceManager workspaceManager;
+    private final String workerId;
+    private final String host;
+    private final List<Language> languages;
+    private final int slots;
+    private final Duration heartbeatTtl;
+    private final Semaphore free;
+    
+    private volatile boolean running = true;
+    private Thread poller;
+    
+    public JudgeWorker(SubmissionProcessor submissionProcessor,
+                       WorkerRegistry workerRegistry,
+                       CpuSetAllocator cpuSetAllocator,
+                       WorkspaceManager workspaceManager,
+                       @Value("${shodh.worker.id:}") String workerId,
+                       @Value("${shodh.worker.languages:JAVA,PYTHON,CPP}") List<Language> languages,
+                       @Value("${shodh.worker.slots:4}") int slots,
+                       @Value("${shodh.worker.heartbeat-ms:5000}") long heartbeatMs) {
+        this.submissionProcessor = submissionProcessor;
+        this.workerRegistry = workerRegistry;
+        this.cpuSetAllocator = cpuSetAllocator;
+        this.workspaceManager = workspaceManager;
+        this.host = hostName();
+        this.workerId = workerId.isBlank()
+            ? host + "-" + UUID.randomUUID().toString().substring(0, 8)
+            : workerId;
+        this.languages = new ArrayList<>(languages);
+        this.slots = cpuSetAllocator.isEnabled() ? cpuSetAllocator.getCapacity() : slots;
+        this.heartbeatTtl = Duration.ofMillis(heartbeatMs * 3);
+        this.free = new Semaphore(this.slots);
+    }
+    
+    @PostConstruct
+    public void start() {
+        heartbeat();
+        poller = new Thread(this::poll, "judge-worker-poller");
+        poller.start();
+        log.info("Judge worker {} started with {} slots for {}", workerId, slots, languages);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        poller.interrupt();
+        poller.join(POLL_TIMEOUT.toMillis() * 2);
+        // Let in-flight submissions finish; anything left is requeued by the reaper
+        free.tryAcquire(slots, 30, TimeUnit.SECONDS);
+        workerRegistry.deregister(workerId);
+    }
+    
+    @Scheduled(fixedDelayString = "${shodh.worker.heartbeat-ms:5000}")
+    public void heartbeat() {
+        int freeSlots = running ? free.availablePermits() : 0;
+        workerRegistry.heartbeat(new WorkerHeartbeat(
+            workerId,
+            host,
+            cpuSetAllocator.isEnabled() ? cpuSetAllocator.getCapacity() : 0,
+            languages,
+            slots,
+            freeSlots,
+            workspaceManager.available(),
+            System.currentTimeMillis()
+        ), heartbeatTtl);
+    }
+    
+    private void poll() {
+        while (running) {
+            try {
+                free.acquire();
+                UUID submissionId;
+                try {
+                    submissionId = workerRegistry.take(workerId, POLL_TIMEOUT);
+                } catch (RuntimeException e) {
+                    free.release();
+                    if (running) {
+                        log.warn("Could not poll the judge queue: {}", e.getMessage());
+                        Thread.sleep(POLL_TIMEOUT.toMillis());
+                    }
+                    continue;
+                }
+                if (submissionId == null) {
+                    free.release();
+                    continue;
+                }
+                judge(submissionId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void judge(UUID submissionId) {
+        try {
+            submissionProcessor.processSubmission(submissionId, workerId)
+                .whenComplete((ignored, error) -> finish(submissionId));
+        } catch (RuntimeException e) {
+            log.error("Could not start judging submission {}", submissionId, e);
+            finish(submissionId);
+        }
+    }
+    
+    private void finish(UUID submissionId) {
+        try {
+            workerRegistry.complete(workerId, submissionId);
+        } finally {
+            free.release();
+        }
+    }
+    
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "judge-worker";
+        }
+    }
+}
@@ -1,11 +0,0 @@
-package com.shodh.contest.repository;
-
-import com.shodh.contest.entity.Contest;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import java.util.UUID;
-
-@Repository
-public interface ContestRepository extends JpaRepository<Contest, UUID> {
-}
@@ -0,0 +1,72 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Exercises the JDK classes typical solutions load so that their class list
+ * can be dumped into the judge image's class-data sharing archive. Only the
+ * JDK classes end up in the archive; this class itself is discarded.
+ */
+public class CdsTraining {
+    
+    public static void main(String[] args) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        
+        int n = Integer.parseInt(reader.readLine().trim());
+        StringTokenizer tokens = new StringTokenizer(reader.readLine());
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Integer.parseInt(tokens.nextToken());
+        }
+        Scanner scanner = new Scanner("4 5.5 word\nline");
+        out.println(scanner.nextInt() + " " + scanner.nextDouble() + " " + scanner.next() + scanner.nextLine());
+        
+        Arrays.sort(values);
+        List<Integer> list = new ArrayList<>();
+        for (int value : values) {
+            list.add(value);
+        }
+        Collections.sort(list, Comparator.reverseOrder());
+        Map<Integer, Integer> counts = new HashMap<>();
+        TreeMap<Integer, Integer> ordered = new TreeMap<>();
+        Set<Integer> seen = new HashSet<>();
+        TreeSet<Integer> sortedSet = new TreeSet<>();
+        Deque<Integer> deque = new ArrayDeque<>();
+        PriorityQueue<long[]> heap = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        LinkedList<Integer> linked = new LinkedList<>();
+        for (int value : list) {
+            counts.merge(value, 1, Integer::sum);
+            ordered.put(value, ordered.getOrDefault(value, 0) + 1);
+            seen.add(value);
+            sortedSet.add(value);
+            deque.push(value);
+            heap.add(new long[]{value, value});
+            linked.add(value);
+        }
+        BitSet bits = new BitSet(n);
+        bits.set(0);
+        Stack<Integer> stack = new Stack<>();
+        stack.push(1);
+        
+        String joined = list.stream().map(String::valueOf).collect(Collectors.joining(","));
+        int sum = IntStream.of(values).filter(v -> v > 0).sum();
+        long max = Arrays.stream(values).asLongStream().max().orElse(0);
+        
+        StringBuilder builder = new StringBuilder(joined).reverse();
+        String[] parts = "a b  c".split("\\s+");
+        out.println(String.format("%d %.3f %s %s", sum, Math.sqrt(max), builder, String.join("|", parts)));
+        out.printf("%s %s %d%n", new BigInteger("123456789012345678901234567890").pow(2),
+            new BigDecimal("1.5").multiply(BigDecimal.TEN), heap.poll()[0] + deque.pop() + linked.size());
+        out.println(Objects.hash(counts, ordered.firstKey(), seen.size(), sortedSet.last(), stack.peek()));
+        out.flush();
+    }
+}
@@ -0,0 +1,91 @@
+#!/bin/sh
+# Batch harness: compiles once, then runs the program once per test read
+# from stdin and streams the results on stdout as frames. Each frame is a
+# header line followed by exactly the number of payload bytes the header
+# announces:
+#
+#   #shodh compile <rc> <start ns> <end ns> <stderr bytes>
+#   #shodh test <index> <rc> <start ns> <end ns> <user s> <sys s> <max RSS KB> <stdout bytes> <stderr bytes> [<checker rc> <checker bytes>]
+#   #shodh done
+#
+# rc 124 means the run hit the time limit, or 137 when it had to be killed
+# after ignoring SIGTERM. Usage fields are "-" when GNU time is unavailable.
+#
+# Tests arrive on stdin one at a time as a line "<input bytes> <answer
+# bytes>" followed by the input and then the answer. Only the current input
+# is ever on disk, in a directory only the harness can read, and the answer
+# is read once the run has exited. Started as root, the harness compiles and
+# runs the program as uid 1000, which cannot read the harness's files or
+# reach its stdin and stdout through /proc, so only the harness can write
+# frames.
+#
+# With a CHECKER, every successful run is followed by
+# "CHECKER <input> <output> <answer>", after any processes the program left
+# behind are killed, and the test frame ends with the checker's exit status
+# and its combined output. The status is "-" when the run failed and the
+# checker was skipped.
+#
+# Usage: harness.sh COUNT TIME_LIMIT_MS COMPILE_CMD RUN_CMD [CHECKER CHECKER_LIMIT_MS]
+
+count=$1
+limit=$(awk "BEGIN { printf \"%.3f\", $2 / 1000 }")
+compile=$3
+run=$4
+checker=$5
+[ -z "$checker" ] || checker_limit=$(awk "BEGIN { printf \"%.3f\", $6 / 1000 }")
+
+drop=""
+if [ "$(id -u)" -eq 0 ]; then
+    drop="setpriv --reuid=1000 --regid=1000 --clear-groups --"
+fi
+
+work=${TMPDIR:-/tmp}/.shodh
+mkdir -p "$work"
+chmod 700 "$work"
+
+if [ -n "$compile" ]; then
+    c0=$(date +%s%N)
+    $drop sh -c "$compile" < /dev/null > /dev/null 2> "$work/err"
+    rc=$?
+    c1=$(date +%s%N)
+    echo "#shodh compile $rc $c0 $c1 $(wc -c < "$work/err")"
+    cat "$work/err"
+    [ $rc -eq 0 ] || exit 0
+fi
+
+i=0
+while [ $i -lt "$count" ]; do
+    read -r in_bytes ans_bytes || exit 1
+    head -c "$in_bytes" > "$work/in"
+    rm -f "$work/usage"
+    r0=$(date +%s%N)
+    if [ -x /usr/bin/time ]; then
+        /usr/bin/time -f '%U %S %M' -o "$work/usage" timeout -k 0.1 "$limit" $drop sh -c "exec $run" \
+            < "$work/in" > "$work/out" 2> "$work/err"
+    else
+        timeout -k 0.1 "$limit" $drop sh -c "exec $run" < "$work/in" > "$work/out" 2> "$work/err"
+    fi
+    rc=$?
+    r1=$(date +%s%N)
+    [ -z "$drop" ] || $drop sh -c 'kill -9 -1' 2> /dev/null
+    head -c "$ans_bytes" > "$work/ans"
+    usage=$(tail -n 1 "$work/usage" 2>/dev/null)
+    [ -n "$usage" ] || usage="- - -"
+    check=""
+    if [ -n "$checker" ]; then
+        : > "$work/check"
+        if [ $rc -eq 0 ]; then
+            timeout -k 0.1 "$checker_limit" "$checker" "$work/in" "$work/out" "$work/ans" < /dev/null > "$work/check" 2>&1
+            crc=$?
+            check=" $crc $(wc -c < "$work/check")"
+        else
+            check=" - 0"
+        fi
+    fi
+    echo "#shodh test $i $rc $r0 $r1 $usage $(wc -c < "$work/out") $(wc -c < "$work/err")$check"
+    cat "$work/out" "$work/err"
+    [ -z "$checker" ] || cat "$work/check"
+    i=$((i + 1))
+done
+
+echo "#shodh done"
@@ -0,0 +1,290 @@
+"""Fork-server runner for Python submissions.
+
+The interpreter boots once, preloads the modules solutions commonly use and
+compiles the submission, then forks a fresh child per run. Each child starts
+from the warm interpreter instead of paying startup and import costs, and
+resource usage is taken from the child alone via wait4.
+
+Usage: python3 zygote.py SOURCE [--usage FILE]
+Runs SOURCE once with the inherited stdin/stdout/stderr. When --usage is
+given, "<user seconds> <system seconds> <max RSS KB>" of the child is
+written to FILE, matching GNU time's '%U %S %M'.
+
+Usage: python3 zygote.py SOURCE --batch COUNT --time-limit MS
+                         [--checker CHECKER LIMIT_MS]
+Runs SOURCE once per test read from stdin and streams framed results on
+stdout, using the same protocols as harness.sh, including the checker
+fields. Started as root, children drop to uid 1000 and close every other
+descriptor before running the submission, and inputs and answers are copied
+to files by a separate process so they never sit in the memory children
+inherit.
+"""
+import builtins
+import gc
+import os
+import signal
+import sys
+import time
+import traceback
+
+# Submissions run as this uid when the runner starts as root
+RUN_UID = 1000
+
+PRELOAD = (
+    "array", "bisect", "collections", "copy", "decimal", "fractions",
+    "functools", "heapq", "io", "itertools", "math", "operator", "random",
+    "re", "string", "typing",
+)
+
+
+def preload():
+    for name in PRELOAD:
+        try:
+            __import__(name)
+        except ImportError:
+            pass
+
+
+def load(path):
+    with open(path, "rb") as f:
+        source = f.read()
+    return compile(source, os.path.basename(path), "exec")
+
+
+def child_main(code, path):
+    sys.argv = [path]
+    namespace = {
+        "__name__": "__main__",
+        "__file__": path,
+        "__builtins__": builtins,
+    }
+    status = 0
+    try:
+        exec(code, namespace)
+    except SystemExit as e:
+        if e.code is None:
+            status = 0
+        elif isinstance(e.code, int):
+            status = e.code
+        else:
+            print(e.code, file=sys.stderr)
+            status = 1
+    except BaseException:
+        # Hide the runner's own frame so tracebacks look like a plain run
+        etype, value, tb = sys.exc_info()
+        traceback.print_exception(etype, value, tb.tb_next)
+        status = 1
+    try:
+        sys.stdout.flush()
+        sys.stderr.flush()
+    except BaseException:
+        status = status or 1
+    os._exit(status & 0xFF)
+
+
+def drop_privileges():
+    """Switches a forked child to RUN_UID if the runner is root."""
+    if os.getuid() == 0:
+        os.setgroups([])
+        os.setgid(RUN_UID)
+        os.setuid(RUN_UID)
+
+
+def run_once(code, path, stdio=None, timeout=None):
+    """Forks a child that executes code and returns (exit status, rusage).
+
+    stdio optionally gives (stdin, stdout, stderr) descriptors for the child,
+    which then keeps no other descriptors and runs without privileges. A
+    child still running after timeout seconds is killed and reported with
+    status 124, like coreutils timeout.
+    """
+    sys.stdout.flush()
+    sys.stderr.flush()
+    pid = os.fork()
+    if pid == 0:
+        if stdio:
+            for target, fd in enumerate(stdio):
+                os.dup2(fd, target)
+            os.closerange(3, os.sysconf("SC_OPEN_MAX"))
+            drop_privileges()
+        child_main(code, path)
+    status, usage, timed_out = wait_child(pid, timeout)
+    if timed_out:
+        return 124, usage
+    if os.WIFSIGNALED(status):
+        return 128 + os.WTERMSIG(status), usage
+    return os.WEXITSTATUS(status), usage
+
+
+def wait_child(pid, timeout):
+    if timeout is None:
+        _, status, usage = os.wait4(pid, 0)
+        return status, usage, False
+    deadline = time.monotonic() + timeout
+    delay = 0.0005
+    while True:
+        waited, status, usage = os.wait4(pid, os.WNOHANG)
+        if waited:
+            return status, usage, False
+        remaining = deadline - time.monotonic()
+        if remaining <= 0:
+            os.kill(pid, signal.SIGKILL)
+            _, status, usage = os.wait4(pid, 0)
+            return status, usage, True
+        time.sleep(min(delay, remaining))
+        delay = min(delay * 2, 0.01)
+
+
+def emit(header, *payloads):
+    data = (header + "\n").encode() + b"".join(payloads)
+    view = memoryview(data)
+    while view:
+        view = view[os.write(1, view):]
+
+
+def read_file(path):
+    with open(path, "rb") as f:
+        return f.read()
+
+
+def read_test_header():
+    """Reads "<input bytes> <answer bytes>" from stdin, a byte at a time so
+    nothing of the test data is buffered in this process."""
+    line = b""
+    while not line.endswith(b"\n"):
+        byte = os.read(0, 1)
+        if not byte:
+            raise EOFError("test stream ended early")
+        line += byte
+    input_bytes, answer_bytes = line.split()
+    return int(input_bytes), int(answer_bytes)
+
+
+def copy_from_stdin(size, path):
+    """Copies exactly size bytes of stdin to path without reading them into
+    this process, whose memory every later child inherits."""
+    # Imported here so single runs do not pay for it at startup
+    import subprocess
+    with open(path, "wb") as f:
+        subprocess.run(["head", "-c", str(size)], stdin=0, stdout=f, check=True)
+
+
+def kill_leftovers():
+    """Kills whatever the last child left running under RUN_UID."""
+    if os.getuid() != 0:
+        return
+    pid = os.fork()
+    if pid == 0:
+        try:
+            drop_privileges()
+            os.kill(-1, signal.SIGKILL)
+        except OSError:
+            pass
+        os._exit(0)
+    os.waitpid(pid, 0)
+
+
+def run_checker(checker, in_path, out_path, answer_path):
+    """Runs the checker on one output, returning (exit status, message)."""
+    import subprocess
+    command, limit_ms = checker
+    try:
+        done = subprocess.run(
+            [command, in_path, out_path, answer_path],
+            stdin=subprocess.DEVNULL, stdout=subprocess.PIPE, stderr=subprocess.STDOUT,
+            timeout=limit_ms / 1000)
+    except subprocess.TimeoutExpired as e:
+        return 124, e.output or b""
+    except OSError as e:
+        return 127, str(e).encode()
+    status = done.returncode if done.returncode >= 0 else 128 - done.returncode
+    return status, done.stdout
+
+
+def run_batch(code, path, count, limit_ms, checker=None):
+    work = os.path.join(os.environ.get("TMPDIR", "/tmp"), ".shodh")
+    os.makedirs(work, exist_ok=True)
+    os.chmod(work, 0o700)
+    in_path = os.path.join(work, "in")
+    out_path = os.path.join(work, "out")
+    err_path = os.path.join(work, "err")
+    ans_path = os.path.join(work, "ans")
+    for i in range(count):
+        input_bytes, answer_bytes = read_test_header()
+        copy_from_stdin(input_bytes, in_path)
+        flags = os.O_WRONLY | os.O_CREAT | os.O_TRUNC
+        stdin = os.open(in_path, os.O_RDONLY)
+        stdout = os.open(out_path, flags, 0o600)
+        stderr = os.open(err_path, flags, 0o600)
+        try:
+            r0 = time.time_ns()
+            status, usage = run_once(code, path, (stdin, stdout, stderr), limit_ms / 1000)
+            r1 = time.time_ns()
+        finally:
+            for fd in (stdin, stdout, stderr):
+                os.close(fd)
+        kill_leftovers()
+        copy_from_stdin(answer_bytes, ans_path)
+        out = read_file(out_path)
+        err = read_file(err_path)
+        header = "#shodh test %d %d %d %d %.2f %.2f %d %d %d" % (
+            i, status, r0, r1, usage.ru_utime, usage.ru_stime, usage.ru_maxrss, len(out), len(err))
+        if checker is None:
+            emit(header, out, err)
+            continue
+        if status == 0:
+            check_status, message = run_checker(checker, in_path, out_path, ans_path)
+            emit("%s %d %d" % (header, check_status, len(message)), out, err, message)
+        else:
+            emit(header + " - 0", out, err)
+    emit("#shodh done")
+
+
+def write_usage(path, usage):
+    with open(path, "w") as f:
+        f.write("%.2f %.2f %d\n" % (usage.ru_utime, usage.ru_stime, usage.ru_maxrss))
+
+
+def main(argv):
+    if not argv:
+        print("usage: zygote.py SOURCE [--usage FILE]", file=sys.stderr)
+        return 2
+    path = argv[0]
+    usage_file = argv[argv.index("--usage") + 1] if "--usage" in argv else None
+    batch = argv[argv.index("--batch") + 1] if "--batch" in argv else None
+    checker = None
+    if "--checker" in argv:
+        command, limit = argv[argv.index("--checker") + 1:argv.index("--checker") + 3]
+        checker = (command, int(limit))
+
+    preload()
+    c0 = time.time_ns()
+    try:
+        code = load(path)
+    except SyntaxError:
+        if not batch:
+            traceback.print_exc(limit=0)
+            return 1
+        err = "".join(traceback.format_exc(limit=0)).encode()
+        emit("#shodh compile 1 %d %d %d" % (c0, time.time_ns(), len(err)), err)
+        return 0
+
+    # Keep preloaded objects out of the collector so children do not
+    # copy-on-write the parent's heap while scanning it
+    gc.collect()
+    gc.freeze()
+
+    if batch:
+        limit_ms = int(argv[argv.index("--time-limit") + 1])
+        emit("#shodh compile 0 %d %d 0" % (c0, time.time_ns()))
+        run_batch(code, path, int(batch), limit_ms, checker)
+        return 0
+
+    status, usage = run_once(code, path)
+    if usage_file:
+        write_usage(usage_file, usage)
+    return status
+
+
+if __name__ == "__main__":
+    sys.exit(main(sys.argv[1:]))